@@ -0,0 +1,130 @@
+package org.benchmark;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.service.ConcurrentWarehouse;
+import org.service.ShardedWarehouse;
+import org.service.Warehouse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Readers and writers sharing one {@link ConcurrentWarehouse} or {@link ShardedWarehouse}, the in-memory kinds
+ * that are safe to share. Each group reports the reader and writer scores separately.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ContendedWarehouseBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"CONCURRENT", "SHARDED"})
+    public WarehouseKind kind;
+
+    private Warehouse warehouse;
+    private final int[] ids = new int[WarehouseBenchmark.ARGUMENTS];
+    private final Category[] categories = new Category[WarehouseBenchmark.ARGUMENTS];
+    private final Product[] updates = new Product[WarehouseBenchmark.ARGUMENTS];
+
+    /**
+     * Per-thread position in the argument tables, started at a different offset for every thread.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private static int threads;
+        private int position;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            synchronized (Cursor.class) {
+                position = threads++ * 97;
+            }
+        }
+
+        int next() {
+            return position++ & (WarehouseBenchmark.ARGUMENTS - 1);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        warehouse = kind.filled(size);
+        ProductGenerator generator = new ProductGenerator(ProductGenerator.SEED + 1);
+        for (int i = 0; i < WarehouseBenchmark.ARGUMENTS; i++) {
+            ids[i] = generator.id(size);
+            categories[i] = generator.category();
+            Product product = warehouse.findProductById(generator.id(size));
+            updates[i] = new Product(product.id(), product.name(), product.category(), (product.rating() + 1) % 11,
+                    product.createdDate(), product.lastModifiedDate().plusDays(1));
+        }
+    }
+
+    @Benchmark
+    @Group("lookupsUnderWrites")
+    @GroupThreads(3)
+    public Product lookup(Cursor cursor) {
+        return warehouse.findProductById(ids[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("lookupsUnderWrites")
+    @GroupThreads(1)
+    public void lookupWriter(Cursor cursor) {
+        warehouse.updateProductInWarehouse(updates[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("scansUnderWrites")
+    @GroupThreads(3)
+    public List<Product> scan(Cursor cursor) {
+        return warehouse.filterProductsByCategory(categories[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("scansUnderWrites")
+    @GroupThreads(1)
+    public void scanWriter(Cursor cursor) {
+        warehouse.updateProductInWarehouse(updates[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("snapshotsUnderWrites")
+    @GroupThreads(3)
+    public List<Product> snapshot() {
+        return warehouse.getProducts();
+    }
+
+    @Benchmark
+    @Group("snapshotsUnderWrites")
+    @GroupThreads(1)
+    public void snapshotWriter(Cursor cursor) {
+        warehouse.updateProductInWarehouse(updates[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("writers")
+    @GroupThreads(4)
+    public void write(Cursor cursor) {
+        warehouse.updateProductInWarehouse(updates[cursor.next()]);
+    }
+}
@@ -0,0 +1,118 @@
+package org.benchmark;
+
+import org.entities.Product;
+import org.metrics.Histogram;
+import org.metrics.HistogramSnapshot;
+import org.service.Warehouse;
+import org.service.WarehouseHttpServer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test of {@link WarehouseHttpServer} over a {@code ConcurrentWarehouse} on loopback, not a JMH benchmark.
+ * Every connection is a virtual thread that sends one request after another for the given time: mostly lookups by
+ * id, then short created-date ranges and updates. Prints requests per second and the latency percentiles.
+ * <p>
+ * {@code java -cp target/benchmarks.jar org.benchmark.HttpLoadTest [--connections 10000] [--seconds 30]
+ * [--size 100000]}. Many connections need a raised open-file limit ({@code ulimit -n}).
+ */
+public class HttpLoadTest {
+
+    private static final int BACKLOG = 16384;
+    private static final long WARMUP_NANOS = Duration.ofSeconds(5).toNanos();
+
+    public static void main(String[] args) throws Exception {
+        int connections = option(args, "--connections", 10_000);
+        int seconds = option(args, "--seconds", 30);
+        int size = option(args, "--size", 100_000);
+
+        Warehouse warehouse = WarehouseKind.CONCURRENT.filled(size);
+
+        Histogram latency = new Histogram();
+        LongAdder errors = new LongAdder();
+        try (WarehouseHttpServer server = WarehouseHttpServer.start(warehouse,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), BACKLOG)) {
+            String base = "http://localhost:" + server.port() + "/products";
+            long start = System.nanoTime();
+            long measureFrom = start + WARMUP_NANOS;
+            long end = measureFrom + Duration.ofSeconds(seconds).toNanos();
+            try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                 ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < connections; c++) {
+                    long seed = ProductGenerator.SEED + c;
+                    clients.submit(() -> run(client, base, seed, size, measureFrom, end, latency, errors));
+                }
+            }
+        }
+
+        HistogramSnapshot snapshot = latency.snapshot();
+        System.out.printf(Locale.ROOT, "connections=%d size=%d seconds=%d%n", connections, size, seconds);
+        System.out.printf(Locale.ROOT, "throughput=%.0f req/s errors=%d%n",
+                (double) snapshot.count() / seconds, errors.sum());
+        System.out.printf(Locale.ROOT, "latency ms: mean=%.2f p50=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                snapshot.mean() / 1e6, snapshot.p50() / 1e6, snapshot.p99() / 1e6, snapshot.p999() / 1e6,
+                snapshot.max() / 1e6);
+    }
+
+    // One connection. HTTP/1.1 sends one request at a time per socket, so the shared client keeps one per caller.
+    private static void run(HttpClient client, String base, long seed, int size, long measureFrom, long end,
+                            Histogram latency, LongAdder errors) {
+        ProductGenerator generator = new ProductGenerator(seed);
+        long now = System.nanoTime();
+        while (now < end) {
+            HttpRequest request = request(base, generator, size);
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                status = -1;
+            }
+            long done = System.nanoTime();
+            if (now >= measureFrom) {
+                latency.record(done - now);
+                if (status != 200) {
+                    errors.increment();
+                }
+            }
+            now = done;
+        }
+    }
+
+    private static HttpRequest request(String base, ProductGenerator generator, int size) {
+        int kind = generator.id(10);
+        if (kind <= 8) {
+            return HttpRequest.newBuilder(URI.create(base + "/" + generator.id(size))).build();
+        }
+        if (kind == 9) {
+            LocalDate from = generator.date();
+            return HttpRequest.newBuilder(URI.create(base + "?createdFrom=" + from + "&createdBefore="
+                    + from.plusDays(2))).build();
+        }
+        Product product = generator.product(generator.id(size));
+        String body = "{\"name\":\"" + product.name() + "\",\"category\":\"" + product.category()
+                + "\",\"rating\":" + product.rating() + "}";
+        return HttpRequest.newBuilder(URI.create(base + "/" + product.id()))
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static int option(String[] args, String name, int fallback) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,55 @@
+package org.benchmark;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded source of benchmark products, so every run and every warehouse kind sees the same data.
+ * Ids run from 1 to the inventory size. About a quarter of the products have been modified after creation.
+ */
+final class ProductGenerator {
+
+    static final long SEED = 0x5EED_2024L;
+    static final LocalDate FIRST_DAY = LocalDate.of(2015, 1, 1);
+    static final int DAYS = 3650;
+
+    private static final Category[] CATEGORIES = {Category.FRUIT, Category.VEGETABLE, Category.MEAT, Category.FISH, Category.DAIRY};
+    private static final String[] SYLLABLES = {"ba", "na", "ka", "ro", "te", "li", "mo", "su", "pe", "ra", "lo", "vi"};
+
+    private final SplittableRandom random;
+
+    ProductGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    Product product(int id) {
+        LocalDate created = date();
+        LocalDate modified = random.nextInt(4) == 0 ? created.plusDays(1 + random.nextInt(30)) : created;
+        return new Product(id, name(), category(), random.nextInt(11), created, modified);
+    }
+
+    int id(int size) {
+        return 1 + random.nextInt(size);
+    }
+
+    Category category() {
+        return CATEGORIES[random.nextInt(CATEGORIES.length)];
+    }
+
+    LocalDate date() {
+        return FIRST_DAY.plusDays(random.nextInt(DAYS));
+    }
+
+    private String name() {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+}
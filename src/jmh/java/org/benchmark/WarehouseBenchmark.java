@@ -0,0 +1,112 @@
+package org.benchmark;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.service.Warehouse;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of every {@link Warehouse} query and mutation, per warehouse kind and inventory size.
+ * Arguments are drawn from seeded tables and cycled, so each invocation does comparable work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "--add-modules", "jdk.incubator.vector"})
+public class WarehouseBenchmark {
+
+    static final int ARGUMENTS = 1024;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param
+    public WarehouseKind kind;
+
+    private Warehouse warehouse;
+    private final int[] ids = new int[ARGUMENTS];
+    private final Category[] categories = new Category[ARGUMENTS];
+    private final LocalDate[] dates = new LocalDate[ARGUMENTS];
+    private final Product[] updates = new Product[ARGUMENTS];
+    private int cursor;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        warehouse = kind.filled(size);
+        ProductGenerator generator = new ProductGenerator(ProductGenerator.SEED + 1);
+        for (int i = 0; i < ARGUMENTS; i++) {
+            ids[i] = generator.id(size);
+            categories[i] = generator.category();
+            dates[i] = generator.date();
+            Product product = warehouse.findProductById(generator.id(size));
+            updates[i] = new Product(product.id(), product.name(), product.category(), (product.rating() + 1) % 11,
+                    product.createdDate(), product.lastModifiedDate().plusDays(1));
+        }
+        // findAndPrintMismatchedProducts writes to System.out; the benchmark should measure the query, not the console.
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.setOut(out);
+        if (warehouse instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    public Product findProductById() {
+        return warehouse.findProductById(ids[next()]);
+    }
+
+    @Benchmark
+    public List<Product> filterProductsByCategory() {
+        return warehouse.filterProductsByCategory(categories[next()]);
+    }
+
+    @Benchmark
+    public List<Product> findProductsFromCreatedDate() {
+        return warehouse.findProductsFromCreatedDate(dates[next()]);
+    }
+
+    @Benchmark
+    public void findAndPrintMismatchedProducts() {
+        warehouse.findAndPrintMismatchedProducts();
+    }
+
+    @Benchmark
+    public void updateProductInWarehouse() {
+        warehouse.updateProductInWarehouse(updates[next()]);
+    }
+
+    @Benchmark
+    public List<Product> getProducts() {
+        return warehouse.getProducts();
+    }
+
+    private int next() {
+        return cursor++ & (ARGUMENTS - 1);
+    }
+}
@@ -0,0 +1,40 @@
+package org.benchmark;
+
+import org.service.ColumnarWarehouse;
+import org.service.ConcurrentWarehouse;
+import org.service.OffHeapWarehouse;
+import org.service.ShardedWarehouse;
+import org.service.Warehouse;
+
+/**
+ * The in-memory warehouse implementations the benchmarks compare.
+ */
+public enum WarehouseKind {
+    HEAP,
+    CONCURRENT,
+    COLUMNAR,
+    OFF_HEAP,
+    SHARDED;
+
+    Warehouse create(int size) {
+        return switch (this) {
+            case HEAP -> new Warehouse();
+            case CONCURRENT -> new ConcurrentWarehouse();
+            case COLUMNAR -> new ColumnarWarehouse();
+            case OFF_HEAP -> new OffHeapWarehouse(size);
+            case SHARDED -> new ShardedWarehouse();
+        };
+    }
+
+    /**
+     * Creates a warehouse of this kind holding products 1 to {@code size} from a {@link ProductGenerator}.
+     */
+    Warehouse filled(int size) {
+        Warehouse warehouse = create(size);
+        ProductGenerator generator = new ProductGenerator(ProductGenerator.SEED);
+        for (int id = 1; id <= size; id++) {
+            warehouse.addProduct(generator.product(id));
+        }
+        return warehouse;
+    }
+}
@@ -0,0 +1,159 @@
+package org.index;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Row bitmaps keyed by sequence number: one per category, one per rating 0-10 and one per created month.
+ * Conjunctions and disjunctions of these conditions become bitmap operations, and their counts popcounts.
+ * Ratings outside 0-10 share one extra bitmap, and products without a created date are in no month.
+ * Bitmaps returned here are live and must not be changed.
+ */
+public final class BitmapIndex implements ProductIndex {
+
+    public static final int MAX_RATING = 10;
+
+    private static final int UNCATEGORIZED = Category.values().length;
+    private static final int OTHER_RATINGS = MAX_RATING + 1;
+
+    private final RoaringBitmap[] byCategory = new RoaringBitmap[UNCATEGORIZED + 1];
+    private final RoaringBitmap[] byRating = new RoaringBitmap[OTHER_RATINGS + 1];
+    private final NavigableMap<YearMonth, RoaringBitmap> byCreatedMonth = new TreeMap<>();
+
+    public BitmapIndex() {
+        for (int i = 0; i < byCategory.length; i++) {
+            byCategory[i] = new RoaringBitmap();
+        }
+        for (int i = 0; i < byRating.length; i++) {
+            byRating[i] = new RoaringBitmap();
+        }
+    }
+
+    @Override
+    public void insert(Product product, long seq) {
+        int row = row(seq);
+        byCategory[bucketOf(product.category())].add(row);
+        byRating[bucketOf(product.rating())].add(row);
+        if (product.createdDate() != null) {
+            byCreatedMonth.computeIfAbsent(YearMonth.from(product.createdDate()), month -> new RoaringBitmap()).add(row);
+        }
+    }
+
+    @Override
+    public void remove(Product product, long seq) {
+        int row = row(seq);
+        byCategory[bucketOf(product.category())].remove(row);
+        byRating[bucketOf(product.rating())].remove(row);
+        if (product.createdDate() != null) {
+            YearMonth month = YearMonth.from(product.createdDate());
+            RoaringBitmap rows = byCreatedMonth.get(month);
+            rows.remove(row);
+            if (rows.isEmpty()) {
+                byCreatedMonth.remove(month);
+            }
+        }
+    }
+
+    public RoaringBitmap category(Category category) {
+        return byCategory[bucketOf(category)];
+    }
+
+    public RoaringBitmap categories(Collection<Category> categories) {
+        List<RoaringBitmap> rows = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            rows.add(category(category));
+        }
+        return RoaringBitmap.or(rows);
+    }
+
+    // Categories are disjoint, so the count needs no union.
+    public long categoriesCount(Collection<Category> categories) {
+        long count = 0;
+        for (Category category : categories) {
+            count += category(category).cardinality();
+        }
+        return count;
+    }
+
+    /**
+     * Rows rated in {@code [min, max]}. A range reaching outside 0-10 also includes every row rated outside 0-10,
+     * so the rating must then be checked again.
+     */
+    public RoaringBitmap ratings(int min, int max) {
+        return RoaringBitmap.or(ratingBitmaps(min, max));
+    }
+
+    public long ratingsCount(int min, int max) {
+        return count(ratingBitmaps(min, max));
+    }
+
+    /**
+     * Rows created in a month that overlaps {@code [from, to)}, either bound {@code null} meaning unbounded.
+     * Partly covered months are included whole, so the date must be checked again.
+     */
+    public RoaringBitmap createdMonths(LocalDate from, LocalDate to) {
+        return RoaringBitmap.or(monthBitmaps(from, to));
+    }
+
+    public long createdMonthsCount(LocalDate from, LocalDate to) {
+        return count(monthBitmaps(from, to));
+    }
+
+    private List<RoaringBitmap> ratingBitmaps(int min, int max) {
+        List<RoaringBitmap> rows = new ArrayList<>(OTHER_RATINGS + 1);
+        for (int rating = Math.max(0, min); rating <= Math.min(MAX_RATING, max); rating++) {
+            rows.add(byRating[rating]);
+        }
+        if (min < 0 || max > MAX_RATING) {
+            rows.add(byRating[OTHER_RATINGS]);
+        }
+        return rows;
+    }
+
+    private Collection<RoaringBitmap> monthBitmaps(LocalDate from, LocalDate to) {
+        NavigableMap<YearMonth, RoaringBitmap> months = byCreatedMonth;
+        if (to != null && (to.equals(LocalDate.MIN) || from != null && !to.isAfter(from))) {
+            return List.of();
+        }
+        if (from != null) {
+            months = months.tailMap(YearMonth.from(from), true);
+        }
+        if (to != null) {
+            months = months.headMap(YearMonth.from(to.minusDays(1)), true);
+        }
+        return months.values();
+    }
+
+    // Every row is in one rating and at most one month, so these bitmaps never overlap.
+    private static long count(Collection<RoaringBitmap> bitmaps) {
+        long count = 0;
+        for (RoaringBitmap bitmap : bitmaps) {
+            count += bitmap.cardinality();
+        }
+        return count;
+    }
+
+    private static int bucketOf(Category category) {
+        return category == null ? UNCATEGORIZED : category.ordinal();
+    }
+
+    private static int bucketOf(int rating) {
+        return rating < 0 || rating > MAX_RATING ? OTHER_RATINGS : rating;
+    }
+
+    // Rows are unsigned 32-bit ints, which allows about four billion writes.
+    private static int row(long seq) {
+        if (seq >>> 32 != 0) {
+            throw new IllegalStateException("Radnumret " + seq + " får inte plats i bitmappsindexet.");
+        }
+        return (int) seq;
+    }
+}
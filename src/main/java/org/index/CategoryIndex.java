@@ -0,0 +1,86 @@
+package org.index;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Products bucketed per category, each bucket kept sorted by name and then insertion order.
+ */
+public final class CategoryIndex implements ProductIndex {
+
+    private record Entry(String name, long seq, Product product) {
+    }
+
+    private static final Comparator<Entry> BY_NAME = Comparator
+            .comparing(Entry::name, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(Entry::seq);
+
+    private final Map<Category, NavigableSet<Entry>> buckets = new EnumMap<>(Category.class);
+    private final NavigableSet<Entry> uncategorized = new TreeSet<>(BY_NAME);
+
+    @Override
+    public void insert(Product product, long seq) {
+        bucket(product.category()).add(new Entry(product.name(), seq, product));
+    }
+
+    @Override
+    public void remove(Product product, long seq) {
+        bucket(product.category()).remove(new Entry(product.name(), seq, product));
+    }
+
+    public int count(Category category) {
+        return bucket(category).size();
+    }
+
+    public List<Product> productsIn(Category category) {
+        NavigableSet<Entry> bucket = bucket(category);
+        List<Product> result = new ArrayList<>(bucket.size());
+        for (Entry entry : bucket) {
+            result.add(entry.product());
+        }
+        return result;
+    }
+
+    /**
+     * Lazily reads the live bucket, so it must not be changed while the stream is consumed.
+     */
+    public Stream<Product> stream(Category category) {
+        return bucket(category).stream().map(Entry::product);
+    }
+
+    /**
+     * Iterates the bucket from just after the entry {@code (name, seq)}; {@code (null, Long.MIN_VALUE)} starts at
+     * the beginning.
+     */
+    public Iterator<Product> after(Category category, String name, long seq) {
+        Iterator<Entry> entries = bucket(category).tailSet(new Entry(name, seq, null), false).iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public Product next() {
+                return entries.next().product();
+            }
+        };
+    }
+
+    private NavigableSet<Entry> bucket(Category category) {
+        if (category == null) {
+            return uncategorized;
+        }
+        return buckets.computeIfAbsent(category, c -> new TreeSet<>(BY_NAME));
+    }
+}
@@ -0,0 +1,107 @@
+package org.index;
+
+import org.entities.Product;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Products sorted by created date and then insertion order, so date ranges are a seek plus a scan.
+ */
+public final class CreatedDateIndex implements ProductIndex {
+
+    private record Entry(LocalDate createdDate, long seq, Product product) {
+    }
+
+    private static final Comparator<Entry> BY_DATE = Comparator
+            .comparing(Entry::createdDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(Entry::seq);
+
+    private final NavigableSet<Entry> entries = new TreeSet<>(BY_DATE);
+
+    @Override
+    public void insert(Product product, long seq) {
+        entries.add(new Entry(product.createdDate(), seq, product));
+    }
+
+    @Override
+    public void remove(Product product, long seq) {
+        entries.remove(new Entry(product.createdDate(), seq, product));
+    }
+
+    public List<Product> createdFrom(LocalDate from) {
+        return toProducts(entries.tailSet(lowest(from), true));
+    }
+
+    public List<Product> createdBetween(LocalDate from, LocalDate to) {
+        return toProducts(entries.subSet(lowest(from), true, lowest(to), false));
+    }
+
+    /**
+     * Estimates how many products were created in {@code [from, to)}, either bound {@code null} meaning unbounded,
+     * by assuming dates are spread evenly between the earliest and latest one. Takes two seeks.
+     */
+    public long estimateBetween(LocalDate from, LocalDate to) {
+        Entry first = entries.ceiling(lowest(LocalDate.MIN));
+        if (first == null) {
+            return 0;
+        }
+        long low = first.createdDate().toEpochDay();
+        long high = entries.last().createdDate().toEpochDay() + 1;
+        long start = from == null ? low : Math.max(low, from.toEpochDay());
+        long end = to == null ? high : Math.min(high, to.toEpochDay());
+        if (end <= start) {
+            return 0;
+        }
+        return Math.max(1, Math.round(entries.size() * (double) (end - start) / (high - low)));
+    }
+
+    /**
+     * Lazily reads the live index, so it must not be changed while the stream is consumed.
+     */
+    public Stream<Product> streamFrom(LocalDate from) {
+        return entries.tailSet(lowest(from), true).stream().map(Entry::product);
+    }
+
+    /**
+     * Iterates products created on or after {@code from}, starting just after the entry {@code (date, seq)} when
+     * that comes later.
+     */
+    public Iterator<Product> createdFromAfter(LocalDate from, LocalDate date, long seq) {
+        Entry start = lowest(from);
+        Entry after = new Entry(date, seq, null);
+        Iterator<Entry> range = BY_DATE.compare(after, start) < 0
+                ? entries.tailSet(start, true).iterator()
+                : entries.tailSet(after, false).iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return range.hasNext();
+            }
+
+            @Override
+            public Product next() {
+                return range.next().product();
+            }
+        };
+    }
+
+    private static Entry lowest(LocalDate date) {
+        return new Entry(date, Long.MIN_VALUE, null);
+    }
+
+    private static List<Product> toProducts(Collection<Entry> range) {
+        List<Product> result = new ArrayList<>();
+        for (Entry entry : range) {
+            result.add(entry.product());
+        }
+        return result;
+    }
+}
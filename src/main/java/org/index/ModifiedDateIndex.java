@@ -0,0 +1,66 @@
+package org.index;
+
+import org.entities.Product;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Only the products whose last modified date differs from their created date, sorted by last modified date and
+ * then insertion order, so reporting them costs the size of the report rather than of the inventory.
+ */
+public final class ModifiedDateIndex implements ProductIndex {
+
+    private record Entry(LocalDate lastModifiedDate, long seq, Product product) {
+    }
+
+    private static final Comparator<Entry> BY_DATE = Comparator
+            .comparing(Entry::lastModifiedDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(Entry::seq);
+
+    private final NavigableSet<Entry> entries = new TreeSet<>(BY_DATE);
+
+    public static boolean isModified(Product product) {
+        return !Objects.equals(product.createdDate(), product.lastModifiedDate());
+    }
+
+    @Override
+    public void insert(Product product, long seq) {
+        if (isModified(product)) {
+            entries.add(new Entry(product.lastModifiedDate(), seq, product));
+        }
+    }
+
+    @Override
+    public void remove(Product product, long seq) {
+        if (isModified(product)) {
+            entries.remove(new Entry(product.lastModifiedDate(), seq, product));
+        }
+    }
+
+    public int count() {
+        return entries.size();
+    }
+
+    public List<Product> modified() {
+        return toProducts(entries);
+    }
+
+    public List<Product> modifiedFrom(LocalDate from) {
+        return toProducts(entries.tailSet(new Entry(from, Long.MIN_VALUE, null), true));
+    }
+
+    private static List<Product> toProducts(Collection<Entry> range) {
+        List<Product> result = new ArrayList<>();
+        for (Entry entry : range) {
+            result.add(entry.product());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,173 @@
+package org.index;
+
+import org.entities.Product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Case-insensitive substring search over product names. Every distinct 1-, 2- and 3-character piece of a
+ * lowercased name maps to a bitmap of the rows containing it. A search of up to three characters reads one bitmap;
+ * a longer one intersects the bitmaps of its three-character pieces and checks the few rows left.
+ */
+public final class NameSearchIndex implements ProductIndex {
+
+    private static final int GRAM = 3;
+
+    // Lower ranks come first; names that only contain the text rank last.
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 3;
+
+    private record Hit(int rank, String name, long order, Product product) {
+    }
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator
+            .comparingInt(Hit::rank)
+            .thenComparingInt(hit -> hit.name().length())
+            .thenComparing(Hit::name)
+            .thenComparingLong(Hit::order);
+
+    private final Map<String, RoaringBitmap> grams = new HashMap<>();
+    private final IntObjectMap<Product> rows = new IntObjectMap<>();
+
+    @Override
+    public void insert(Product product, long seq) {
+        if (product.name() == null) {
+            return;
+        }
+        int row = row(seq);
+        rows.put(row, product);
+        for (String gram : grams(normalize(product.name()))) {
+            grams.computeIfAbsent(gram, g -> new RoaringBitmap()).add(row);
+        }
+    }
+
+    @Override
+    public void remove(Product product, long seq) {
+        if (product.name() == null) {
+            return;
+        }
+        int row = row(seq);
+        rows.remove(row);
+        for (String gram : grams(normalize(product.name()))) {
+            RoaringBitmap posting = grams.get(gram);
+            posting.remove(row);
+            if (posting.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Up to {@code limit} products whose name contains {@code text}, ignoring case. Exact names come first, then
+     * names starting with the text, then names with a word starting with it, then the rest; within each group
+     * shorter names, then names in order, then insertion order.
+     */
+    public List<Product> search(String text, int limit) {
+        String query = normalize(text);
+        RoaringBitmap candidates;
+        if (query.length() <= GRAM) {
+            candidates = grams.get(query);
+        } else {
+            List<RoaringBitmap> postings = new ArrayList<>();
+            for (int i = 0; i + GRAM <= query.length(); i++) {
+                RoaringBitmap posting = grams.get(query.substring(i, i + GRAM));
+                if (posting == null) {
+                    return List.of();
+                }
+                postings.add(posting);
+            }
+            postings.sort(Comparator.comparingLong(RoaringBitmap::cardinality));
+            candidates = postings.getFirst();
+            for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+                candidates = RoaringBitmap.and(candidates, postings.get(i));
+            }
+        }
+        if (candidates == null) {
+            return List.of();
+        }
+        return best(candidates.stream().mapToObj(rows::get).iterator(), query, limit);
+    }
+
+    /**
+     * The best {@code limit} matches for an already {@link #normalize normalized} query among {@code candidates},
+     * ranked as in {@link #search}. Candidates must come in insertion order; those that do not match are skipped.
+     */
+    public static List<Product> best(Iterator<Product> candidates, String query, int limit) {
+        // The heap's head is the worst hit kept.
+        PriorityQueue<Hit> heap = new PriorityQueue<>(BEST_FIRST.reversed());
+        long order = 0;
+        while (candidates.hasNext()) {
+            Product product = candidates.next();
+            int rank = rank(product.name(), query);
+            if (rank < 0) {
+                continue;
+            }
+            Hit hit = new Hit(rank, normalize(product.name()), order++, product);
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (BEST_FIRST.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+        Product[] best = new Product[heap.size()];
+        for (int i = best.length - 1; i >= 0; i--) {
+            best[i] = heap.poll().product();
+        }
+        return List.of(best);
+    }
+
+    public static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    // How well the name matches, or -1 when it does not contain the query at all.
+    private static int rank(String name, String query) {
+        if (name == null) {
+            return -1;
+        }
+        String normalized = normalize(name);
+        int at = normalized.indexOf(query);
+        if (at < 0) {
+            return -1;
+        }
+        if (at == 0) {
+            return normalized.length() == query.length() ? EXACT : PREFIX;
+        }
+        for (int i = at; i >= 0; i = normalized.indexOf(query, i + 1)) {
+            if (!Character.isLetterOrDigit(normalized.charAt(i - 1))) {
+                return WORD_PREFIX;
+            }
+        }
+        return SUBSTRING;
+    }
+
+    private static Set<String> grams(String name) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int length = 1; length <= GRAM; length++) {
+            for (int i = 0; i + length <= name.length(); i++) {
+                grams.add(name.substring(i, i + length));
+            }
+        }
+        return grams;
+    }
+
+    // Rows are unsigned 32-bit ints, as in BitmapIndex.
+    private static int row(long seq) {
+        if (seq >>> 32 != 0) {
+            throw new IllegalStateException("Radnumret " + seq + " får inte plats i namnindexet.");
+        }
+        return (int) seq;
+    }
+}
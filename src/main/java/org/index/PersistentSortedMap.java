@@ -0,0 +1,284 @@
+package org.index;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Immutable sorted map backed by a weight-balanced tree.
+ * Updates copy only the path from the root, so older versions stay valid and share the rest of the tree.
+ */
+public final class PersistentSortedMap<K, V> {
+
+    private static final int DELTA = 3;
+    private static final int RATIO = 2;
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int size;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+    }
+
+    private final Comparator<? super K> comparator;
+    private final Node<K, V> root;
+
+    private PersistentSortedMap(Comparator<? super K> comparator, Node<K, V> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    public static <K, V> PersistentSortedMap<K, V> empty(Comparator<? super K> comparator) {
+        return new PersistentSortedMap<>(comparator, null);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) {
+                return node.value;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    public PersistentSortedMap<K, V> put(K key, V value) {
+        return new PersistentSortedMap<>(comparator, put(root, key, value));
+    }
+
+    public PersistentSortedMap<K, V> remove(K key) {
+        Node<K, V> newRoot = remove(root, key);
+        return newRoot == root ? this : new PersistentSortedMap<>(comparator, newRoot);
+    }
+
+    public V valueAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Node<K, V> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.value;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Number of keys strictly less than the given key.
+     */
+    public int rank(K key) {
+        int rank = 0;
+        Node<K, V> node = root;
+        while (node != null) {
+            if (comparator.compare(key, node.key) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Read-only list view of the values in key order; it never changes because this map never changes.
+     */
+    public List<V> values() {
+        return new ValueList();
+    }
+
+    public Iterable<V> valuesFrom(K from) {
+        return () -> new ValueIterator<>(root, comparator, from, null);
+    }
+
+    /**
+     * Values with keys in the half-open range [from, to).
+     */
+    public Iterable<V> valuesBetween(K from, K to) {
+        return () -> new ValueIterator<>(root, comparator, from, to);
+    }
+
+    private Node<K, V> put(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+        int cmp = comparator.compare(key, node.key);
+        if (cmp < 0) {
+            return balance(node.key, node.value, put(node.left, key, value), node.right);
+        } else if (cmp > 0) {
+            return balance(node.key, node.value, node.left, put(node.right, key, value));
+        }
+        return new Node<>(key, value, node.left, node.right);
+    }
+
+    private Node<K, V> remove(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = comparator.compare(key, node.key);
+        if (cmp < 0) {
+            Node<K, V> left = remove(node.left, key);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        } else if (cmp > 0) {
+            Node<K, V> right = remove(node.right, key);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        return glue(node.left, node.right);
+    }
+
+    private static <K, V> Node<K, V> glue(Node<K, V> left, Node<K, V> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.size > right.size) {
+            Node<K, V> max = left;
+            while (max.right != null) {
+                max = max.right;
+            }
+            return balance(max.key, max.value, removeMax(left), right);
+        }
+        Node<K, V> min = right;
+        while (min.left != null) {
+            min = min.left;
+        }
+        return balance(min.key, min.value, left, removeMin(right));
+    }
+
+    private static <K, V> Node<K, V> removeMin(Node<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.key, node.value, removeMin(node.left), node.right);
+    }
+
+    private static <K, V> Node<K, V> removeMax(Node<K, V> node) {
+        if (node.right == null) {
+            return node.left;
+        }
+        return balance(node.key, node.value, node.left, removeMax(node.right));
+    }
+
+    private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        int leftSize = size(left);
+        int rightSize = size(right);
+        if (leftSize + rightSize <= 1) {
+            return new Node<>(key, value, left, right);
+        }
+        if (rightSize > DELTA * leftSize) {
+            if (size(right.left) < RATIO * size(right.right)) {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<K, V> pivot = right.left;
+            return new Node<>(pivot.key, pivot.value,
+                    new Node<>(key, value, left, pivot.left),
+                    new Node<>(right.key, right.value, pivot.right, right.right));
+        }
+        if (leftSize > DELTA * rightSize) {
+            if (size(left.right) < RATIO * size(left.left)) {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+            Node<K, V> pivot = left.right;
+            return new Node<>(pivot.key, pivot.value,
+                    new Node<>(left.key, left.value, left.left, pivot.left),
+                    new Node<>(key, value, pivot.right, right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private final class ValueList extends AbstractList<V> implements RandomAccess {
+
+        @Override
+        public V get(int index) {
+            return valueAt(index);
+        }
+
+        @Override
+        public int size() {
+            return PersistentSortedMap.this.size();
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new ValueIterator<>(root, comparator, null, null);
+        }
+    }
+
+    private static final class ValueIterator<K, V> implements Iterator<V> {
+
+        private final Deque<Node<K, V>> stack = new ArrayDeque<>();
+        private final Comparator<? super K> comparator;
+        private final K to;
+
+        ValueIterator(Node<K, V> root, Comparator<? super K> comparator, K from, K to) {
+            this.comparator = comparator;
+            this.to = to;
+            Node<K, V> node = root;
+            while (node != null) {
+                if (from == null || comparator.compare(from, node.key) <= 0) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && (to == null || comparator.compare(stack.peek().key, to) < 0);
+        }
+
+        @Override
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = stack.pop();
+            for (Node<K, V> child = node.right; child != null; child = child.left) {
+                stack.push(child);
+            }
+            return node.value;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.index;
+
+import org.entities.Product;
+
+/**
+ * Secondary index kept in sync by the primary product table.
+ * The sequence number is unique per stored version of a product and grows with insertion order.
+ */
+public interface ProductIndex {
+
+    void insert(Product product, long seq);
+
+    void remove(Product product, long seq);
+}
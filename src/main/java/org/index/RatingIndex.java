@@ -0,0 +1,71 @@
+package org.index;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Products per category bucketed by rating, highest rating first, each bucket sorted by name and then insertion
+ * order. The top-rated products of a category are read off the highest buckets, so no sort is needed.
+ */
+public final class RatingIndex implements ProductIndex {
+
+    private record Entry(String name, long seq, Product product) {
+    }
+
+    private static final Comparator<Entry> BY_NAME = Comparator
+            .comparing(Entry::name, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(Entry::seq);
+
+    private final Map<Category, NavigableMap<Integer, NavigableSet<Entry>>> categories = new EnumMap<>(Category.class);
+    private final NavigableMap<Integer, NavigableSet<Entry>> uncategorized = new TreeMap<>(Comparator.reverseOrder());
+
+    @Override
+    public void insert(Product product, long seq) {
+        ratings(product.category())
+                .computeIfAbsent(product.rating(), rating -> new TreeSet<>(BY_NAME))
+                .add(new Entry(product.name(), seq, product));
+    }
+
+    @Override
+    public void remove(Product product, long seq) {
+        NavigableMap<Integer, NavigableSet<Entry>> ratings = ratings(product.category());
+        NavigableSet<Entry> bucket = ratings.get(product.rating());
+        if (bucket != null && bucket.remove(new Entry(product.name(), seq, product)) && bucket.isEmpty()) {
+            ratings.remove(product.rating());
+        }
+    }
+
+    /**
+     * Up to {@code limit} products in {@code category}, highest rating first and then by name. Costs the number
+     * of products returned plus one step per rating passed.
+     */
+    public List<Product> topRated(Category category, int limit) {
+        List<Product> result = new ArrayList<>(Math.min(limit, 1024));
+        for (NavigableSet<Entry> bucket : ratings(category).values()) {
+            for (Entry entry : bucket) {
+                if (result.size() == limit) {
+                    return result;
+                }
+                result.add(entry.product());
+            }
+        }
+        return result;
+    }
+
+    private NavigableMap<Integer, NavigableSet<Entry>> ratings(Category category) {
+        if (category == null) {
+            return uncategorized;
+        }
+        return categories.computeIfAbsent(category, c -> new TreeMap<>(Comparator.reverseOrder()));
+    }
+}
@@ -0,0 +1,504 @@
+package org.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Compressed set of unsigned 32-bit ints in the style of Roaring bitmaps.
+ * Values are grouped by their high 16 bits into containers; a container is a sorted {@code char[]} while it holds
+ * at most 4096 values and a 65536-bit bitmap above that, so sparse and dense ranges both stay small.
+ * Intersections and unions work container by container, and cardinalities come from popcounts.
+ */
+public final class RoaringBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1 << 10;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringBitmap() {
+        this(4);
+    }
+
+    private RoaringBitmap(int capacity) {
+        keys = new char[capacity];
+        containers = new Container[capacity];
+    }
+
+    public void add(int value) {
+        char key = (char) (value >>> 16);
+        int i = indexOf(key);
+        if (i >= 0) {
+            containers[i] = containers[i].add((char) value);
+        } else {
+            insertAt(-i - 1, key, new ArrayContainer().add((char) value));
+        }
+    }
+
+    public void remove(int value) {
+        int i = indexOf((char) (value >>> 16));
+        if (i < 0) {
+            return;
+        }
+        Container container = containers[i].remove((char) value);
+        if (container.cardinality() == 0) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+            containers[--size] = null;
+        } else {
+            containers[i] = container;
+        }
+    }
+
+    public boolean contains(int value) {
+        int i = indexOf((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The values in ascending unsigned order. Reads the live bitmap, so it must not be changed while the stream
+     * is consumed.
+     */
+    public IntStream stream() {
+        return IntStream.range(0, size).flatMap(i -> containers[i].stream(keys[i] << 16));
+    }
+
+    public static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap(Math.max(1, Math.min(a.size, b.size)));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container container = a.containers[i].and(b.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.append(a.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap(Math.max(1, a.size + b.size));
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || i < a.size && a.keys[i] < b.keys[j]) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Union of all {@code bitmaps}. Each container of the result is copied once and then added to in place, instead
+     * of copying the whole growing result for every bitmap as repeated {@link #or(RoaringBitmap, RoaringBitmap)} does.
+     */
+    public static RoaringBitmap or(Collection<RoaringBitmap> bitmaps) {
+        TreeMap<Character, Container> merged = new TreeMap<>();
+        for (RoaringBitmap bitmap : bitmaps) {
+            for (int i = 0; i < bitmap.size; i++) {
+                Container container = merged.get(bitmap.keys[i]);
+                merged.put(bitmap.keys[i], container == null
+                        ? bitmap.containers[i].copy()
+                        : container.orInPlace(bitmap.containers[i]));
+            }
+        }
+        RoaringBitmap result = new RoaringBitmap(Math.max(1, merged.size()));
+        merged.forEach(result::append);
+        return result;
+    }
+
+    /**
+     * Cardinality of {@link #and}, computed without building the intersection.
+     */
+    public static long andCardinality(RoaringBitmap a, RoaringBitmap b) {
+        long cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                cardinality += a.containers[i].andCardinality(b.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertAt(int i, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = container;
+        size++;
+    }
+
+    private void append(char key, Container container) {
+        insertAt(size, key, container);
+    }
+
+    private abstract static sealed class Container permits ArrayContainer, BitmapContainer {
+
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        // Both return the container now holding the values, which may be of the other kind.
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract Container copy();
+
+        abstract IntStream stream(int high);
+
+        Container and(Container other) {
+            return switch (this) {
+                case ArrayContainer a when other instanceof ArrayContainer b -> a.intersect(b);
+                case ArrayContainer a -> a.filter((BitmapContainer) other);
+                case BitmapContainer a when other instanceof ArrayContainer b -> b.filter(a);
+                case BitmapContainer a -> a.intersect((BitmapContainer) other);
+            };
+        }
+
+        Container or(Container other) {
+            return switch (this) {
+                case ArrayContainer a when other instanceof ArrayContainer b -> a.union(b);
+                case ArrayContainer a -> ((BitmapContainer) other).with(a);
+                case BitmapContainer a when other instanceof ArrayContainer b -> a.with(b);
+                case BitmapContainer a -> a.union((BitmapContainer) other);
+            };
+        }
+
+        // Like or, but may reuse this container, which must be a copy no bitmap refers to.
+        Container orInPlace(Container other) {
+            if (this instanceof BitmapContainer a) {
+                return other instanceof ArrayContainer b ? a.addAll(b) : a.unionInPlace((BitmapContainer) other);
+            }
+            return or(other);
+        }
+
+        int andCardinality(Container other) {
+            return switch (this) {
+                case ArrayContainer a when other instanceof ArrayContainer b -> a.intersectCount(b);
+                case ArrayContainer a -> a.filterCount((BitmapContainer) other);
+                case BitmapContainer a when other instanceof ArrayContainer b -> b.filterCount(a);
+                case BitmapContainer a -> a.intersectCount((BitmapContainer) other);
+            };
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, cardinality * 2));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(1, cardinality)), cardinality);
+        }
+
+        @Override
+        IntStream stream(int high) {
+            return IntStream.range(0, cardinality).map(i -> high | values[i]);
+        }
+
+        ArrayContainer intersect(ArrayContainer other) {
+            char[] result = new char[Math.max(1, Math.min(cardinality, other.cardinality))];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < other.cardinality) {
+                if (values[i] < other.values[j]) {
+                    i++;
+                } else if (values[i] > other.values[j]) {
+                    j++;
+                } else {
+                    result[n++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        int intersectCount(ArrayContainer other) {
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < other.cardinality) {
+                if (values[i] < other.values[j]) {
+                    i++;
+                } else if (values[i] > other.values[j]) {
+                    j++;
+                } else {
+                    n++;
+                    i++;
+                    j++;
+                }
+            }
+            return n;
+        }
+
+        ArrayContainer filter(BitmapContainer bitmap) {
+            char[] result = new char[Math.max(1, cardinality)];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (bitmap.contains(values[i])) {
+                    result[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        int filterCount(BitmapContainer bitmap) {
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (bitmap.contains(values[i])) {
+                    n++;
+                }
+            }
+            return n;
+        }
+
+        Container union(ArrayContainer other) {
+            if (cardinality + other.cardinality > ARRAY_LIMIT) {
+                return toBitmap().with(other);
+            }
+            char[] result = new char[Math.max(1, cardinality + other.cardinality)];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < other.cardinality) {
+                if (j == other.cardinality || i < cardinality && values[i] < other.values[j]) {
+                    result[n++] = values[i++];
+                } else if (i == cardinality || values[i] > other.values[j]) {
+                    result[n++] = other.values[j++];
+                } else {
+                    result[n++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer(new long[WORDS], 0);
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before | (1L << value);
+            if (before != words[value >>> 6]) {
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before & ~(1L << value);
+            if (before != words[value >>> 6]) {
+                cardinality--;
+            }
+            return cardinality <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        IntStream stream(int high) {
+            return toArray().stream(high);
+        }
+
+        Container intersect(BitmapContainer other) {
+            long[] result = new long[WORDS];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                result[w] = words[w] & other.words[w];
+                n += Long.bitCount(result[w]);
+            }
+            BitmapContainer bitmap = new BitmapContainer(result, n);
+            return n <= ARRAY_LIMIT ? bitmap.toArray() : bitmap;
+        }
+
+        int intersectCount(BitmapContainer other) {
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                n += Long.bitCount(words[w] & other.words[w]);
+            }
+            return n;
+        }
+
+        BitmapContainer union(BitmapContainer other) {
+            long[] result = new long[WORDS];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                result[w] = words[w] | other.words[w];
+                n += Long.bitCount(result[w]);
+            }
+            return new BitmapContainer(result, n);
+        }
+
+        BitmapContainer unionInPlace(BitmapContainer other) {
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                words[w] |= other.words[w];
+                n += Long.bitCount(words[w]);
+            }
+            cardinality = n;
+            return this;
+        }
+
+        BitmapContainer addAll(ArrayContainer array) {
+            for (int i = 0; i < array.cardinality; i++) {
+                add(array.values[i]);
+            }
+            return this;
+        }
+
+        // A copy of this bitmap with the array's values added.
+        BitmapContainer with(ArrayContainer array) {
+            BitmapContainer result = new BitmapContainer(words.clone(), cardinality);
+            for (int i = 0; i < array.cardinality; i++) {
+                result.add(array.values[i]);
+            }
+            return result;
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[Math.max(1, cardinality)];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[n++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
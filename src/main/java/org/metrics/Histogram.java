@@ -0,0 +1,104 @@
+package org.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative {@code long} values with bounded relative error, in the style of HdrHistogram.
+ * Values below 128 get a bucket each; above that every power of two is split into 64 equal buckets, so a reported
+ * value is never more than about 1.6% above the recorded one. Values above {@link #MAX_VALUE} count as that value.
+ * <p>
+ * Buckets are striped by thread so concurrent recorders rarely touch the same cache line, and a stripe is only
+ * allocated once a thread hashes to it. Recording is a single atomic increment; {@link #snapshot()} sums the stripes.
+ */
+public final class Histogram {
+
+    /** Largest value that gets its own bucket, about 2.4 hours in nanoseconds. */
+    public static final long MAX_VALUE = (1L << 43) - 1;
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int LINEAR_MSB = SUB_BUCKET_BITS + 1;
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - Long.numberOfLeadingZeros(MAX_VALUE) - LINEAR_MSB + 1) * SUB_BUCKETS;
+    private static final int STRIPES = Integer.highestOneBit(Math.min(16, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        long clamped = Math.min(Math.max(value, 0), MAX_VALUE);
+        stripe().getAndIncrement(bucketOf(clamped));
+        sum.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int s = 0; s < STRIPES; s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe != null) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    counts[i] += stripe.get(i);
+                }
+            }
+        }
+        long count = 0;
+        for (long c : counts) {
+            count += c;
+        }
+        if (count == 0) {
+            return HistogramSnapshot.EMPTY;
+        }
+        long maxValue = max.get();
+        return new HistogramSnapshot(count, (double) sum.sum() / count,
+                percentile(counts, count, 50.0, maxValue),
+                percentile(counts, count, 99.0, maxValue),
+                percentile(counts, count, 99.9, maxValue),
+                maxValue);
+    }
+
+    private AtomicLongArray stripe() {
+        int index = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(BUCKETS));
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    private static long percentile(long[] counts, long count, double percentile, long maxValue) {
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestInBucket(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (msb - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (msb - LINEAR_MSB) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestInBucket(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int msb = LINEAR_MSB + (bucket - LINEAR_LIMIT) / SUB_BUCKETS;
+        int subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        int shift = msb - SUB_BUCKET_BITS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,9 @@
+package org.metrics;
+
+/**
+ * Point-in-time summary of a {@link Histogram}. Percentiles are upper bounds of the bucket holding that rank.
+ */
+public record HistogramSnapshot(long count, double mean, long p50, long p99, long p999, long max) {
+
+    public static final HistogramSnapshot EMPTY = new HistogramSnapshot(0, 0, 0, 0, 0, 0);
+}
@@ -0,0 +1,23 @@
+package org.service;
+
+/**
+ * How a {@link ProductQuery} reaches its candidate rows. When two paths are estimated to read equally many rows,
+ * the one declared first wins.
+ */
+public enum AccessPath {
+    ID,
+    CATEGORY,
+    CREATED_DATE,
+    BITMAP,
+    FULL_SCAN;
+
+    // Whether rows read through this path already come in the given ascending order.
+    boolean isOrderedBy(ProductQuery.Sort sort) {
+        return switch (this) {
+            case ID -> true;
+            case CATEGORY -> sort == ProductQuery.Sort.NAME;
+            case CREATED_DATE -> sort == ProductQuery.Sort.CREATED_DATE;
+            case BITMAP, FULL_SCAN -> false;
+        };
+    }
+}
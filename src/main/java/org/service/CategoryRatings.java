@@ -0,0 +1,145 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+/**
+ * Per-category rating aggregates, updated in constant time for every added, replaced or removed product.
+ * Each category holds an immutable {@link Counts} that writers swap with compare-and-set, so readers never block
+ * and always see a count, sum and histogram that agree. Products without a category are not counted.
+ */
+final class CategoryRatings {
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final int MAX_RATING = 10;
+
+    // Ratings outside 0-10 are rare and kept sorted in outOfScale, so min and max stay exact.
+    private record Counts(long count, long sum, long[] histogram, int[] outOfScale) {
+
+        static final Counts EMPTY = new Counts(0, 0, new long[MAX_RATING + 1], new int[0]);
+
+        Counts with(int rating, int delta) {
+            long[] histogram = this.histogram;
+            int[] outOfScale = this.outOfScale;
+            if (rating >= 0 && rating <= MAX_RATING) {
+                histogram = histogram.clone();
+                histogram[rating] += delta;
+            } else if (delta > 0) {
+                int i = Arrays.binarySearch(outOfScale, rating);
+                outOfScale = insert(outOfScale, i < 0 ? -i - 1 : i, rating);
+            } else {
+                int i = Arrays.binarySearch(outOfScale, rating);
+                if (i >= 0) {
+                    outOfScale = remove(outOfScale, i);
+                }
+            }
+            return new Counts(count + delta, sum + (long) rating * delta, histogram, outOfScale);
+        }
+
+        RatingStats toStats(Category category) {
+            int min = 0;
+            int max = 0;
+            if (outOfScale.length > 0 && outOfScale[0] < 0) {
+                min = outOfScale[0];
+            } else if (firstRated() >= 0) {
+                min = firstRated();
+            } else if (outOfScale.length > 0) {
+                min = outOfScale[0];
+            }
+            if (outOfScale.length > 0 && outOfScale[outOfScale.length - 1] > MAX_RATING) {
+                max = outOfScale[outOfScale.length - 1];
+            } else if (lastRated() >= 0) {
+                max = lastRated();
+            } else if (outOfScale.length > 0) {
+                max = outOfScale[outOfScale.length - 1];
+            }
+            return new RatingStats(category, count, count == 0 ? 0 : (double) sum / count, min, max,
+                    Arrays.stream(histogram).boxed().toList());
+        }
+
+        private int firstRated() {
+            for (int rating = 0; rating <= MAX_RATING; rating++) {
+                if (histogram[rating] > 0) {
+                    return rating;
+                }
+            }
+            return -1;
+        }
+
+        private int lastRated() {
+            for (int rating = MAX_RATING; rating >= 0; rating--) {
+                if (histogram[rating] > 0) {
+                    return rating;
+                }
+            }
+            return -1;
+        }
+
+        private static int[] insert(int[] values, int i, int value) {
+            int[] result = new int[values.length + 1];
+            System.arraycopy(values, 0, result, 0, i);
+            result[i] = value;
+            System.arraycopy(values, i, result, i + 1, values.length - i);
+            return result;
+        }
+
+        private static int[] remove(int[] values, int i) {
+            int[] result = new int[values.length - 1];
+            System.arraycopy(values, 0, result, 0, i);
+            System.arraycopy(values, i + 1, result, i, values.length - i - 1);
+            return result;
+        }
+    }
+
+    private final AtomicReferenceArray<Counts> counts = new AtomicReferenceArray<>(CATEGORIES.length);
+
+    CategoryRatings() {
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            counts.set(i, Counts.EMPTY);
+        }
+    }
+
+    static CategoryRatings of(Stream<Product> products) {
+        CategoryRatings ratings = new CategoryRatings();
+        products.forEach(ratings::added);
+        return ratings;
+    }
+
+    void added(Product product) {
+        update(product, 1);
+    }
+
+    /**
+     * Moves {@code previous}, if any, out of the aggregates and {@code current} in.
+     */
+    void replaced(Product previous, Product current) {
+        if (previous != null) {
+            update(previous, -1);
+        }
+        added(current);
+    }
+
+    RatingStats stats(Category category) {
+        return counts.get(category.ordinal()).toStats(category);
+    }
+
+    Map<Category, RatingStats> stats() {
+        Map<Category, RatingStats> stats = new EnumMap<>(Category.class);
+        for (Category category : CATEGORIES) {
+            stats.put(category, stats(category));
+        }
+        return stats;
+    }
+
+    private void update(Product product, int delta) {
+        if (product.category() != null) {
+            counts.getAndUpdate(product.category().ordinal(), current -> current.with(product.rating(), delta));
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package org.service;
+
+import org.entities.Product;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes a warehouse's changes to {@link Flow} subscribers.
+ * A writer only appends to a queue, and only while someone is subscribed. One dispatcher thread numbers the changes
+ * and moves them into each subscription's bounded buffer under its {@link OverflowPolicy}; each subscription has its
+ * own thread that delivers as the subscriber requests. All of them are virtual threads. The dispatcher never waits
+ * for a subscriber, so the queue only holds changes it has not reached yet; a {@link OverflowPolicy#BLOCK}
+ * subscription that falls behind parks the rest in its own backlog instead, which holds at most as many changes as
+ * its buffer before the subscription is disconnected.
+ * <p>
+ * Writers hold the stripe lock of the product's id across the store change and {@link #publish}, so changes to one
+ * product are queued in the order the store made them, while writers to other products do not wait.
+ */
+final class ChangeFeed {
+
+    private static final int STRIPES = 64;
+
+    private record Pending(WarehouseOperation operation, Product before, Product after) {
+    }
+
+    private static final Pending CLOSE = new Pending(null, null, null);
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final LinkedBlockingQueue<Pending> inbox = new LinkedBlockingQueue<>();
+    private Thread dispatcher;
+    private boolean closed;
+    // Only touched by the dispatcher.
+    private long sequence;
+
+    ChangeFeed() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    void lock(int id) {
+        stripes[Math.floorMod(id, STRIPES)].lock();
+    }
+
+    void unlock(int id) {
+        stripes[Math.floorMod(id, STRIPES)].unlock();
+    }
+
+    // In index order, so a batch never deadlocks with another batch or a single write.
+    void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    // Changes not yet delivered to a subscriber's buffer: queued for the dispatcher or parked by a BLOCK subscription.
+    long pending() {
+        long pending = inbox.size();
+        for (Subscription subscription : subscriptions) {
+            pending += subscription.parked();
+        }
+        return pending;
+    }
+
+    void publish(WarehouseOperation operation, Product before, Product after) {
+        if (!subscriptions.isEmpty()) {
+            inbox.offer(new Pending(operation, before, after));
+        }
+    }
+
+    Flow.Publisher<ProductChange> publisher(int bufferSize, OverflowPolicy policy) {
+        Objects.requireNonNull(policy, "Policy cannot be null");
+        return subscriber -> subscribe(Objects.requireNonNull(subscriber, "Subscriber cannot be null"), bufferSize, policy);
+    }
+
+    /**
+     * Completes every subscription once the changes already published are delivered. Later subscribers are
+     * completed at once.
+     */
+    synchronized void close() {
+        if (!closed) {
+            closed = true;
+            inbox.offer(CLOSE);
+        }
+    }
+
+    private void subscribe(Flow.Subscriber<? super ProductChange> subscriber, int bufferSize, OverflowPolicy policy) {
+        Subscription subscription = new Subscription(subscriber, bufferSize, policy);
+        synchronized (this) {
+            if (closed) {
+                subscription.complete();
+            } else {
+                subscriptions.add(subscription);
+                if (dispatcher == null) {
+                    dispatcher = Thread.ofVirtual().name("warehouse-changes").start(this::dispatch);
+                }
+            }
+        }
+        Thread.ofVirtual().name("warehouse-change-subscriber").start(subscription::deliver);
+    }
+
+    private void dispatch() {
+        while (true) {
+            Pending pending;
+            try {
+                pending = inbox.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (pending == CLOSE) {
+                subscriptions.forEach(Subscription::complete);
+                subscriptions.clear();
+                return;
+            }
+            ProductChange change = new ProductChange(++sequence, pending.operation(), pending.before(), pending.after());
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(change);
+            }
+        }
+    }
+
+    private final class Subscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super ProductChange> subscriber;
+        private final int capacity;
+        private final OverflowPolicy policy;
+        private final ArrayDeque<ProductChange> buffer;
+        // Changes for a full BLOCK buffer, moved into it as the subscriber takes from the buffer. At most capacity.
+        private final ArrayDeque<ProductChange> parked = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private long demand;
+        private boolean completed;
+        private boolean cancelled;
+        private Throwable error;
+
+        Subscription(Flow.Subscriber<? super ProductChange> subscriber, int capacity, OverflowPolicy policy) {
+            this.subscriber = subscriber;
+            this.capacity = capacity;
+            this.policy = policy;
+            this.buffer = new ArrayDeque<>(Math.min(capacity, 1024));
+        }
+
+        @Override
+        public void request(long n) {
+            lock.lock();
+            try {
+                if (n <= 0) {
+                    fail(new IllegalArgumentException("Antalet begärda ändringar måste vara positivt."));
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    changed.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                buffer.clear();
+                parked.clear();
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            subscriptions.remove(this);
+        }
+
+        // Called by the dispatcher, which must never wait here.
+        void offer(ProductChange change) {
+            lock.lock();
+            try {
+                if (cancelled || error != null) {
+                    return;
+                }
+                if (buffer.size() == capacity || !parked.isEmpty()) {
+                    switch (policy) {
+                        case BLOCK -> {
+                            if (parked.size() == capacity) {
+                                disconnect();
+                            } else {
+                                parked.addLast(change);
+                            }
+                            return;
+                        }
+                        case DROP_OLDEST -> buffer.pollFirst();
+                        case DISCONNECT -> {
+                            disconnect();
+                            return;
+                        }
+                    }
+                }
+                buffer.addLast(change);
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int parked() {
+            lock.lock();
+            try {
+                return parked.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void complete() {
+            lock.lock();
+            try {
+                completed = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Runs on the subscription's own thread, so a slow subscriber only holds up itself.
+        void deliver() {
+            try {
+                subscriber.onSubscribe(this);
+            } catch (RuntimeException e) {
+                cancel();
+                return;
+            }
+            while (true) {
+                ProductChange next = null;
+                Throwable failure;
+                boolean finished;
+                lock.lock();
+                try {
+                    while (!cancelled && error == null && !(completed && buffer.isEmpty())
+                            && (buffer.isEmpty() || demand == 0)) {
+                        changed.awaitUninterruptibly();
+                    }
+                    if (cancelled) {
+                        return;
+                    }
+                    failure = error;
+                    finished = failure == null && buffer.isEmpty();
+                    if (failure == null && !finished) {
+                        next = buffer.pollFirst();
+                        if (!parked.isEmpty()) {
+                            buffer.addLast(parked.pollFirst());
+                        }
+                        if (demand != Long.MAX_VALUE) {
+                            demand--;
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (failure != null) {
+                    subscriber.onError(failure);
+                    return;
+                }
+                if (finished) {
+                    subscriber.onComplete();
+                    return;
+                }
+                try {
+                    subscriber.onNext(next);
+                } catch (RuntimeException e) {
+                    cancel();
+                    return;
+                }
+            }
+        }
+
+        // Caller holds the lock.
+        private void disconnect() {
+            fail(new IllegalStateException("Prenumeranten hann inte med ändringsflödet och kopplades bort."));
+        }
+
+        // Caller holds the lock.
+        private void fail(Throwable failure) {
+            if (error == null && !cancelled) {
+                error = failure;
+                buffer.clear();
+                parked.clear();
+                subscriptions.remove(this);
+                changed.signalAll();
+            }
+        }
+    }
+}
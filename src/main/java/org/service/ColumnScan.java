@@ -0,0 +1,47 @@
+package org.service;
+
+import java.util.Arrays;
+
+/**
+ * Column filter kernels used by {@link ColumnarProductStore}. Each returns the matching row numbers in ascending order.
+ */
+interface ColumnScan {
+
+    int[] equalTo(byte[] column, int length, byte value);
+
+    int[] between(int[] column, int length, int min, int max);
+
+    static ColumnScan best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorColumnScan();
+            } catch (LinkageError e) {
+                return new ScalarColumnScan();
+            }
+        }
+        return new ScalarColumnScan();
+    }
+
+    final class Rows {
+        private int[] rows = new int[16];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        void addAll(long bits, int offset) {
+            while (bits != 0) {
+                add(offset + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.index.IntIntMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Column-oriented store: one primitive array per {@link Product} field, one row per stored version.
+ * Filters scan the columns through a {@link ColumnScan} and only build {@code Product} records for matching rows.
+ * An update marks the old row deleted and appends a new one; deleted rows are compacted away once they dominate.
+ */
+final class ColumnarProductStore implements ProductStore {
+
+    private static final byte NO_CATEGORY = -1;
+    private static final byte DELETED = -2;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_NAME = -1;
+    private static final int MIN_COMPACTION = 1024;
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final ColumnScan scan;
+    private final IntIntMap rowById = new IntIntMap();
+    private final Map<String, Integer> nameCodes = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    private int[] ids = new int[16];
+    private int[] nameColumn = new int[16];
+    private byte[] categories = new byte[16];
+    private int[] ratings = new int[16];
+    private int[] createdDays = new int[16];
+    private int[] modifiedDays = new int[16];
+    private int rows;
+    private int deleted;
+
+    ColumnarProductStore() {
+        this(ColumnScan.best());
+    }
+
+    ColumnarProductStore(ColumnScan scan) {
+        this.scan = scan;
+    }
+
+    @Override
+    public int size() {
+        return rows - deleted;
+    }
+
+    @Override
+    public Product get(int id) {
+        int row = rowById.get(id, -1);
+        return row < 0 ? null : materialize(row);
+    }
+
+    @Override
+    public void insert(Product product) {
+        ProductRows.validate(product);
+        if (rowById.containsKey(product.id())) {
+            throw new IllegalArgumentException("Produkt med ID " + product.id() + " finns redan.");
+        }
+        append(product);
+    }
+
+    @Override
+    public Product upsert(Product product) {
+        ProductRows.validate(product);
+        int row = rowById.get(product.id(), -1);
+        if (row < 0) {
+            append(product);
+            return null;
+        }
+        Product previous = materialize(row);
+        categories[row] = DELETED;
+        deleted++;
+        append(product);
+        if (deleted >= MIN_COMPACTION && deleted > rows / 2) {
+            compact();
+        }
+        return previous;
+    }
+
+    @Override
+    public List<Product> toList() {
+        return Collections.unmodifiableList(stream().toList());
+    }
+
+    @Override
+    public Stream<Product> stream() {
+        return IntStream.range(0, rows)
+                .filter(row -> categories[row] != DELETED)
+                .mapToObj(this::materialize);
+    }
+
+    @Override
+    public List<Product> byCategory(Category category) {
+        List<Product> result = materialize(scan.equalTo(categories, rows, code(category)));
+        result.sort(Comparator.comparing(Product::name, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return result;
+    }
+
+    @Override
+    public List<Product> createdFrom(LocalDate from) {
+        return createdBetween(ProductRows.boundDay(from.toEpochDay()), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Product> createdBetween(LocalDate from, LocalDate to) {
+        return createdBetween(ProductRows.boundDay(from.toEpochDay()), ProductRows.boundDay(to.toEpochDay() - 1));
+    }
+
+    @Override
+    public List<Product> byRating(int minRating, int maxRating) {
+        return materialize(scan.between(ratings, rows, minRating, maxRating));
+    }
+
+    private List<Product> createdBetween(int fromDay, int toDayInclusive) {
+        if (toDayInclusive < fromDay) {
+            return new ArrayList<>();
+        }
+        List<Product> result = materialize(scan.between(createdDays, rows, Math.max(fromDay, NO_DATE + 1), toDayInclusive));
+        result.sort(Comparator.comparing(Product::createdDate));
+        return result;
+    }
+
+    private List<Product> materialize(int[] matches) {
+        List<Product> result = new ArrayList<>(matches.length);
+        for (int row : matches) {
+            if (categories[row] != DELETED) {
+                result.add(materialize(row));
+            }
+        }
+        return result;
+    }
+
+    // Every query other than a lookup by id scans the columns, deleted rows included.
+    @Override
+    public long rowsScanned(WarehouseOperation operation, int rowsReturned) {
+        return operation == WarehouseOperation.FIND_PRODUCT_BY_ID ? 1 : rows;
+    }
+
+    private Product materialize(int row) {
+        int nameCode = nameColumn[row];
+        byte category = categories[row];
+        return new Product(
+                ids[row],
+                nameCode == NO_NAME ? null : names.get(nameCode),
+                category == NO_CATEGORY ? null : CATEGORIES[category],
+                ratings[row],
+                date(createdDays[row]),
+                date(modifiedDays[row]));
+    }
+
+    private void append(Product product) {
+        if (rows == ids.length) {
+            grow(rows * 2);
+        }
+        ids[rows] = product.id();
+        nameColumn[rows] = nameCode(product.name());
+        categories[rows] = code(product.category());
+        ratings[rows] = product.rating();
+        createdDays[rows] = ProductRows.epochDay(product.createdDate());
+        modifiedDays[rows] = ProductRows.epochDay(product.lastModifiedDate());
+        rowById.put(product.id(), rows);
+        rows++;
+    }
+
+    // Also rebuilds the name dictionary from the live rows, so names only old versions used are dropped.
+    private void compact() {
+        StoreMaintenanceEvent event = new StoreMaintenanceEvent();
+        event.begin();
+        int before = rows;
+        int live = 0;
+        List<String> oldNames = new ArrayList<>(names);
+        names.clear();
+        nameCodes.clear();
+        for (int row = 0; row < rows; row++) {
+            if (categories[row] == DELETED) {
+                continue;
+            }
+            ids[live] = ids[row];
+            nameColumn[live] = nameColumn[row] == NO_NAME ? NO_NAME : nameCode(oldNames.get(nameColumn[row]));
+            categories[live] = categories[row];
+            ratings[live] = ratings[row];
+            createdDays[live] = createdDays[row];
+            modifiedDays[live] = modifiedDays[row];
+            rowById.put(ids[live], live);
+            live++;
+        }
+        rows = live;
+        deleted = 0;
+        event.finish(this, "compact", before, rows);
+    }
+
+    private void grow(int capacity) {
+        StoreMaintenanceEvent event = new StoreMaintenanceEvent();
+        event.begin();
+        int before = ids.length;
+        ids = Arrays.copyOf(ids, capacity);
+        nameColumn = Arrays.copyOf(nameColumn, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        createdDays = Arrays.copyOf(createdDays, capacity);
+        modifiedDays = Arrays.copyOf(modifiedDays, capacity);
+        event.finish(this, "grow", before, capacity);
+    }
+
+    int nameCount() {
+        return names.size();
+    }
+
+    private int nameCode(String name) {
+        if (name == null) {
+            return NO_NAME;
+        }
+        return nameCodes.computeIfAbsent(name, n -> {
+            names.add(n);
+            return names.size() - 1;
+        });
+    }
+
+    private static byte code(Category category) {
+        return category == null ? NO_CATEGORY : (byte) category.ordinal();
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
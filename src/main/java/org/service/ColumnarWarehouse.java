@@ -0,0 +1,13 @@
+package org.service;
+
+/**
+ * {@link Warehouse} backed by primitive columns instead of {@code Product} objects.
+ * Filters scan the columns with the Vector API when the {@code jdk.incubator.vector} module is added,
+ * and with plain loops otherwise.
+ */
+public class ColumnarWarehouse extends Warehouse {
+
+    public ColumnarWarehouse() {
+        super(new ColumnarProductStore());
+    }
+}
@@ -0,0 +1,207 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Runs warehouse commands one per line, for scripts and replaying recorded workloads. Blank lines and lines starting
+ * with {@code #} are skipped. Found products are written one per line; a failed command writes
+ * {@code Fel på rad N: ...} and the script goes on.
+ * <pre>
+ * add ID KATEGORI BETYG SKAPAD ÄNDRAD NAMN     update ID KATEGORI BETYG SKAPAD ÄNDRAD NAMN
+ * get ID          all          category KATEGORI          created-from DATUM
+ * created-between FRÅN TILL    modified [DATUM]           top KATEGORI ANTAL
+ * search ANTAL TEXT            stats
+ * </pre>
+ * Input is read through one reader and output written through one writer, which is flushed whenever the reader has
+ * nothing more buffered. A file is answered in a few large writes, a pipe as soon as its input runs dry.
+ */
+final class CommandScript {
+
+    /**
+     * How many commands ran and how many of them failed.
+     */
+    record Summary(long commands, long failures) {
+    }
+
+    private final Warehouse warehouse;
+    private final BufferedReader in;
+    private final Writer out;
+
+    CommandScript(Warehouse warehouse, BufferedReader in, Writer out) {
+        this.warehouse = warehouse;
+        this.in = in;
+        this.out = out;
+    }
+
+    Summary run() throws IOException {
+        long lineNumber = 0;
+        long commands = 0;
+        long failures = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            Tokens tokens = new Tokens(line);
+            String command = tokens.next();
+            if (command != null && command.charAt(0) != '#') {
+                commands++;
+                try {
+                    execute(command, tokens);
+                } catch (RuntimeException e) {
+                    failures++;
+                    out.write("Fel på rad " + lineNumber + ": " + e.getMessage());
+                    out.write('\n');
+                }
+            }
+            if (!in.ready()) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return new Summary(commands, failures);
+    }
+
+    private void execute(String command, Tokens tokens) throws IOException {
+        switch (command) {
+            case "add" -> {
+                Product product = product(tokens);
+                warehouse.verifyProduct(product.id(), product.name(), product.category(), product.rating(),
+                        product.createdDate(), product.lastModifiedDate());
+            }
+            case "update" -> {
+                Product product = product(tokens);
+                Warehouse.validateProduct(product.id(), product.name(), product.category(), product.rating());
+                warehouse.updateProductInWarehouse(product);
+            }
+            case "get" -> {
+                Product product = warehouse.findProductById(number(tokens.required()));
+                tokens.end();
+                write(product);
+            }
+            case "all" -> {
+                tokens.end();
+                write(warehouse.getProducts());
+            }
+            case "category" -> write(warehouse.filterProductsByCategory(ProductJson.category(tokens.last())));
+            case "created-from" -> write(warehouse.findProductsFromCreatedDate(ProductJson.date(tokens.last())));
+            case "created-between" -> {
+                LocalDate from = ProductJson.date(tokens.required());
+                write(warehouse.findProductsCreatedBetween(from, ProductJson.date(tokens.last())));
+            }
+            case "modified" -> {
+                String since = tokens.next();
+                tokens.end();
+                write(since == null
+                        ? warehouse.findModifiedProducts()
+                        : warehouse.findProductsModifiedSince(ProductJson.date(since)));
+            }
+            case "top" -> {
+                Category category = ProductJson.category(tokens.required());
+                write(warehouse.findTopRatedProducts(category, number(tokens.last())));
+            }
+            case "search" -> {
+                int limit = number(tokens.required());
+                write(warehouse.searchProductsByName(tokens.rest(), limit));
+            }
+            case "stats" -> {
+                tokens.end();
+                out.write(warehouse.stats().format());
+            }
+            default -> throw new IllegalArgumentException("Okänt kommando: " + command);
+        }
+    }
+
+    // ID KATEGORI BETYG SKAPAD ÄNDRAD NAMN, the name last so it may contain spaces.
+    private static Product product(Tokens tokens) {
+        int id = number(tokens.required());
+        Category category = ProductJson.category(tokens.required());
+        int rating = number(tokens.required());
+        LocalDate created = ProductJson.date(tokens.required());
+        LocalDate modified = ProductJson.date(tokens.required());
+        return new Product(id, tokens.rest(), category, rating, created, modified);
+    }
+
+    private void write(List<Product> products) throws IOException {
+        for (Product product : products) {
+            write(product);
+        }
+    }
+
+    private void write(Product product) throws IOException {
+        out.write(product.toString());
+        out.write('\n');
+    }
+
+    private static int number(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ogiltigt heltal: " + text);
+        }
+    }
+
+    // The blank-separated words of one line, read without a regular expression.
+    private static final class Tokens {
+
+        private final String line;
+        private int at;
+
+        Tokens(String line) {
+            this.line = line;
+        }
+
+        String next() {
+            skipBlanks();
+            if (at == line.length()) {
+                return null;
+            }
+            int start = at;
+            while (at < line.length() && !Character.isWhitespace(line.charAt(at))) {
+                at++;
+            }
+            return line.substring(start, at);
+        }
+
+        String required() {
+            String token = next();
+            if (token == null) {
+                throw new IllegalArgumentException("Kommandot saknar argument.");
+            }
+            return token;
+        }
+
+        String last() {
+            String token = required();
+            end();
+            return token;
+        }
+
+        String rest() {
+            skipBlanks();
+            String rest = line.substring(at).strip();
+            if (rest.isEmpty()) {
+                throw new IllegalArgumentException("Kommandot saknar argument.");
+            }
+            at = line.length();
+            return rest;
+        }
+
+        void end() {
+            if (next() != null) {
+                throw new IllegalArgumentException("Kommandot har för många argument.");
+            }
+        }
+
+        private void skipBlanks() {
+            while (at < line.length() && Character.isWhitespace(line.charAt(at))) {
+                at++;
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.index.ModifiedDateIndex;
+import org.index.PersistentSortedMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Thread-safe store built from persistent maps.
+ * Every write builds a new immutable {@link State} and publishes it through a volatile field, so readers
+ * never lock and always see one consistent version. Writers are serialized, which makes them linearizable.
+ * Sequence numbers come from a counter that several stores may share, so the shards of a {@link ShardedProductStore}
+ * number their products in one global insertion order.
+ */
+final class ConcurrentProductStore implements ProductStore {
+
+    private record Stored(Product product, long seq) {
+    }
+
+    private record NameKey(String name, long seq) {
+    }
+
+    private record DateKey(LocalDate date, long seq) {
+    }
+
+    private record RatingKey(int rating, String name, long seq) {
+    }
+
+    private static final Comparator<NameKey> BY_NAME = Comparator
+            .comparing(NameKey::name, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(NameKey::seq);
+
+    private static final Comparator<DateKey> BY_DATE = Comparator
+            .comparing(DateKey::date, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(DateKey::seq);
+
+    private static final Comparator<RatingKey> BY_RATING = Comparator
+            .comparingInt(RatingKey::rating).reversed()
+            .thenComparing(RatingKey::name, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(RatingKey::seq);
+
+    // Bucket per category ordinal, plus a last bucket for products without a category.
+    private static final int UNCATEGORIZED = Category.values().length;
+
+    private record State(
+            PersistentSortedMap<Integer, Stored> byId,
+            PersistentSortedMap<Long, Product> bySeq,
+            PersistentSortedMap<NameKey, Product>[] byCategory,
+            PersistentSortedMap<RatingKey, Product>[] byCategoryRating,
+            PersistentSortedMap<DateKey, Product> byCreatedDate,
+            PersistentSortedMap<DateKey, Product> modifiedByDate
+    ) {
+
+        @SuppressWarnings("unchecked")
+        static State empty() {
+            PersistentSortedMap<NameKey, Product>[] byCategory = new PersistentSortedMap[UNCATEGORIZED + 1];
+            PersistentSortedMap<RatingKey, Product>[] byCategoryRating = new PersistentSortedMap[UNCATEGORIZED + 1];
+            for (int i = 0; i < byCategory.length; i++) {
+                byCategory[i] = PersistentSortedMap.empty(BY_NAME);
+                byCategoryRating[i] = PersistentSortedMap.empty(BY_RATING);
+            }
+            return new State(
+                    PersistentSortedMap.empty(Comparator.naturalOrder()),
+                    PersistentSortedMap.empty(Comparator.naturalOrder()),
+                    byCategory,
+                    byCategoryRating,
+                    PersistentSortedMap.empty(BY_DATE),
+                    PersistentSortedMap.empty(BY_DATE));
+        }
+
+        State with(Product product, long seq) {
+            PersistentSortedMap<NameKey, Product>[] categories = byCategory.clone();
+            int bucket = bucketOf(product.category());
+            categories[bucket] = categories[bucket].put(new NameKey(product.name(), seq), product);
+            PersistentSortedMap<RatingKey, Product>[] ratings = byCategoryRating.clone();
+            ratings[bucket] = ratings[bucket].put(new RatingKey(product.rating(), product.name(), seq), product);
+            return new State(
+                    byId.put(product.id(), new Stored(product, seq)),
+                    bySeq.put(seq, product),
+                    categories,
+                    ratings,
+                    byCreatedDate.put(new DateKey(product.createdDate(), seq), product),
+                    ModifiedDateIndex.isModified(product)
+                            ? modifiedByDate.put(new DateKey(product.lastModifiedDate(), seq), product)
+                            : modifiedByDate);
+        }
+
+        State without(Stored stored) {
+            Product product = stored.product();
+            PersistentSortedMap<NameKey, Product>[] categories = byCategory.clone();
+            int bucket = bucketOf(product.category());
+            categories[bucket] = categories[bucket].remove(new NameKey(product.name(), stored.seq()));
+            PersistentSortedMap<RatingKey, Product>[] ratings = byCategoryRating.clone();
+            ratings[bucket] = ratings[bucket].remove(new RatingKey(product.rating(), product.name(), stored.seq()));
+            return new State(
+                    byId.remove(product.id()),
+                    bySeq.remove(stored.seq()),
+                    categories,
+                    ratings,
+                    byCreatedDate.remove(new DateKey(product.createdDate(), stored.seq())),
+                    modifiedByDate.remove(new DateKey(product.lastModifiedDate(), stored.seq())));
+        }
+
+        PersistentSortedMap<NameKey, Product> category(Category category) {
+            return byCategory[bucketOf(category)];
+        }
+
+        private static int bucketOf(Category category) {
+            return category == null ? UNCATEGORIZED : category.ordinal();
+        }
+    }
+
+    private final AtomicLong sequence;
+    private volatile State state = State.empty();
+
+    ConcurrentProductStore() {
+        this(new AtomicLong());
+    }
+
+    ConcurrentProductStore(AtomicLong sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * A copy of the current version to read from; later writes to this store do not change it.
+     */
+    ConcurrentProductStore snapshot() {
+        ConcurrentProductStore copy = new ConcurrentProductStore(sequence);
+        copy.state = state;
+        return copy;
+    }
+
+    /**
+     * The sequence number {@code id} is stored under; products stored later have higher numbers.
+     */
+    long seqOf(int id) {
+        Stored stored = state.byId().get(id);
+        return stored == null ? Long.MAX_VALUE : stored.seq();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return state.byId().size();
+    }
+
+    @Override
+    public Product get(int id) {
+        Stored stored = state.byId().get(id);
+        return stored == null ? null : stored.product();
+    }
+
+    @Override
+    public synchronized void insert(Product product) {
+        insert(product, sequence.getAndIncrement());
+    }
+
+    /**
+     * Inserts under a sequence number the caller reserved from the shared counter.
+     */
+    synchronized void insert(Product product, long seq) {
+        State current = state;
+        if (current.byId().containsKey(product.id())) {
+            throw new IllegalArgumentException("Produkt med ID " + product.id() + " finns redan.");
+        }
+        state = current.with(product, seq);
+    }
+
+    @Override
+    public synchronized Product upsert(Product product) {
+        State current = state;
+        Stored previous = current.byId().get(product.id());
+        if (previous == null) {
+            state = current.with(product, sequence.getAndIncrement());
+            return null;
+        }
+        state = current.without(previous).with(product, sequence.getAndIncrement());
+        return previous.product();
+    }
+
+    /**
+     * Takes back the write that stored {@code product}, putting {@code previous} back under its old sequence number,
+     * or leaving {@code product}'s id empty if it is null. Does nothing if {@code product} has been replaced since.
+     */
+    synchronized void undo(Product product, Product previous, long previousSeq) {
+        State current = state;
+        Stored stored = current.byId().get(product.id());
+        if (stored == null || stored.product() != product) {
+            return;
+        }
+        State undone = current.without(stored);
+        state = previous == null ? undone : undone.with(previous, previousSeq);
+    }
+
+    @Override
+    public List<Product> toList() {
+        return state.bySeq().values();
+    }
+
+    @Override
+    public Stream<Product> stream() {
+        return state.bySeq().values().stream();
+    }
+
+    @Override
+    public List<Product> byCategory(Category category) {
+        return new ArrayList<>(state.category(category).values());
+    }
+
+    @Override
+    public List<Product> createdFrom(LocalDate from) {
+        return toList(state.byCreatedDate().valuesFrom(new DateKey(from, Long.MIN_VALUE)));
+    }
+
+    @Override
+    public List<Product> createdBetween(LocalDate from, LocalDate to) {
+        return toList(state.byCreatedDate().valuesBetween(new DateKey(from, Long.MIN_VALUE), new DateKey(to, Long.MIN_VALUE)));
+    }
+
+    @Override
+    public List<Product> modified() {
+        return state.modifiedByDate().values();
+    }
+
+    @Override
+    public List<Product> modifiedFrom(LocalDate from) {
+        return toList(state.modifiedByDate().valuesFrom(new DateKey(from, Long.MIN_VALUE)));
+    }
+
+    @Override
+    public List<Product> topRated(Category category, int limit) {
+        List<Product> result = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<Product> products = state.byCategoryRating()[State.bucketOf(category)].values().iterator();
+        while (result.size() < limit && products.hasNext()) {
+            result.add(products.next());
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Product> streamByCategory(Category category) {
+        Iterable<Product> products = state.category(category).valuesFrom(new NameKey(null, Long.MIN_VALUE));
+        return StreamSupport.stream(products.spliterator(), false);
+    }
+
+    @Override
+    public Stream<Product> streamCreatedFrom(LocalDate from) {
+        Iterable<Product> products = state.byCreatedDate().valuesFrom(new DateKey(from, Long.MIN_VALUE));
+        return StreamSupport.stream(products.spliterator(), false);
+    }
+
+    // Pages read one State, so the cursor's sequence number and the page agree even under concurrent writes.
+    @Override
+    public ProductPage pageByCategory(Category category, PageCursor after, int limit) {
+        State current = state;
+        NameKey from = after == null ? new NameKey(null, Long.MIN_VALUE) : new NameKey(after.name(), after.position() + 1);
+        return ProductPage.collect(current.category(category).valuesFrom(from).iterator(), limit,
+                last -> new PageCursor(last.name(), null, current.byId().get(last.id()).seq()));
+    }
+
+    @Override
+    public ProductPage pageCreatedFrom(LocalDate from, PageCursor after, int limit) {
+        State current = state;
+        DateKey start = new DateKey(from, Long.MIN_VALUE);
+        if (after != null && BY_DATE.compare(new DateKey(after.date(), after.position() + 1), start) > 0) {
+            start = new DateKey(after.date(), after.position() + 1);
+        }
+        return ProductPage.collect(current.byCreatedDate().valuesFrom(start).iterator(), limit,
+                last -> new PageCursor(null, last.createdDate(), current.byId().get(last.id()).seq()));
+    }
+
+    // Ranks in the persistent maps make these exact.
+    @Override
+    public long estimate(AccessPath path, ProductQuery query) {
+        State current = state;
+        return switch (path) {
+            case CATEGORY -> current.category(query.category()).size();
+            case CREATED_DATE -> {
+                var byDate = current.byCreatedDate();
+                LocalDate from = query.createdFrom() == null ? LocalDate.MIN : query.createdFrom();
+                int end = query.createdBefore() == null
+                        ? byDate.size()
+                        : byDate.rank(new DateKey(query.createdBefore(), Long.MIN_VALUE));
+                yield Math.max(0, end - byDate.rank(new DateKey(from, Long.MIN_VALUE)));
+            }
+            default -> ProductStore.super.estimate(path, query);
+        };
+    }
+
+    @Override
+    public long count(AccessPath path, ProductQuery query) {
+        return switch (path) {
+            case CATEGORY, CREATED_DATE -> estimate(path, query);
+            default -> ProductStore.super.count(path, query);
+        };
+    }
+
+    @Override
+    public List<Product> byRating(int minRating, int maxRating) {
+        return stream()
+                .filter(product -> product.rating() >= minRating && product.rating() <= maxRating)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Product> toList(Iterable<Product> products) {
+        List<Product> result = new ArrayList<>();
+        products.forEach(result::add);
+        return result;
+    }
+}
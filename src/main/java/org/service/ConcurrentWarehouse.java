@@ -0,0 +1,12 @@
+package org.service;
+
+/**
+ * {@link Warehouse} that can be shared between threads.
+ * Reads never block and see a consistent point-in-time view; writes are linearizable.
+ */
+public class ConcurrentWarehouse extends Warehouse {
+
+    public ConcurrentWarehouse() {
+        super(new ConcurrentProductStore());
+    }
+}
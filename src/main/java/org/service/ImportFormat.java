@@ -0,0 +1,272 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Line formats understood by {@link ProductImporter}.
+ * Both carry id, name, category and rating, plus optional created and last modified dates that default to the
+ * import date.
+ */
+public enum ImportFormat {
+    /**
+     * Comma-separated {@code id,name,category,rating[,createdDate,lastModifiedDate]}. Fields may be quoted with
+     * {@code "}, doubling quotes inside. A first line starting with {@code id} is treated as a header.
+     */
+    CSV {
+        @Override
+        boolean isHeader(String line) {
+            return line.regionMatches(true, 0, "id", 0, 2) && (line.length() == 2 || !Character.isDigit(line.charAt(2)));
+        }
+
+        @Override
+        Product parse(String line, LocalDate today) {
+            List<String> fields = splitCsv(line);
+            if (fields.size() != 4 && fields.size() != 6) {
+                throw new IllegalArgumentException("Raden måste ha 4 eller 6 fält, inte " + fields.size() + ".");
+            }
+            return toProduct(fields.get(0), fields.get(1), fields.get(2), fields.get(3),
+                    fields.size() == 6 ? fields.get(4) : null, fields.size() == 6 ? fields.get(5) : null, today);
+        }
+    },
+    /**
+     * One JSON object per line with the fields {@code id}, {@code name}, {@code category}, {@code rating},
+     * {@code createdDate} and {@code lastModifiedDate}. Other fields are ignored.
+     */
+    NDJSON {
+        @Override
+        Product parse(String line, LocalDate today) {
+            String[] fields = new JsonLine(line).fields();
+            return toProduct(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], today);
+        }
+    };
+
+    private static final String[] JSON_FIELDS = {"id", "name", "category", "rating", "createdDate", "lastModifiedDate"};
+
+    /**
+     * Picks the format from the file extension: {@code .csv}, or {@code .ndjson} / {@code .jsonl}.
+     */
+    public static ImportFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Okänt filformat: " + file.getFileName());
+    }
+
+    boolean isHeader(String line) {
+        return false;
+    }
+
+    /**
+     * Parses and validates one line with the same rules as {@link Warehouse#verifyProduct}.
+     */
+    abstract Product parse(String line, LocalDate today);
+
+    private static Product toProduct(String id, String name, String category, String rating,
+                                     String created, String modified, LocalDate today) {
+        int parsedId = parseInt(id, "ID måste vara ett heltal.");
+        int parsedRating = parseInt(rating, "Betyget måste vara ett heltal.");
+        Category parsedCategory = parseCategory(category);
+        Warehouse.validateProduct(parsedId, name, parsedCategory, parsedRating);
+        return new Product(parsedId, name, parsedCategory, parsedRating, parseDate(created, today), parseDate(modified, today));
+    }
+
+    private static int parseInt(String value, String message) {
+        try {
+            return Integer.parseInt(value == null ? "" : value.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static Category parseCategory(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Category.valueOf(value.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Okänd kategori: " + value + ".");
+        }
+    }
+
+    private static LocalDate parseDate(String value, LocalDate today) {
+        if (value == null || value.isBlank()) {
+            return today;
+        }
+        try {
+            return LocalDate.parse(value.strip());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Felaktigt datumformat, vänligen ange datum i formatet ÅÅÅÅ-MM-DD.");
+        }
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(6);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Citattecknet avslutas aldrig.");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Reads a flat JSON object whose values are strings, numbers, booleans or null.
+    private static final class JsonLine {
+
+        private final String text;
+        private int pos;
+
+        JsonLine(String text) {
+            this.text = text;
+        }
+
+        String[] fields() {
+            String[] values = new String[JSON_FIELDS.length];
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+            } else {
+                do {
+                    skipWhitespace();
+                    String key = string();
+                    expect(':');
+                    String value = value();
+                    for (int i = 0; i < JSON_FIELDS.length; i++) {
+                        if (JSON_FIELDS[i].equals(key)) {
+                            values[i] = value;
+                        }
+                    }
+                    skipWhitespace();
+                } while (next() == ',');
+                pos--;
+                expect('}');
+            }
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw error();
+            }
+            return values;
+        }
+
+        private String value() {
+            skipWhitespace();
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.isEmpty() || c == '{' || c == '[') {
+                throw error();
+            }
+            return literal;
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder out = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return out.toString();
+                }
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> out.append(escaped);
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'n' -> out.append('\n');
+                    case 'r' -> out.append('\r');
+                    case 't' -> out.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw error();
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text, pos, pos + 4, 16));
+                        } catch (NumberFormatException e) {
+                            throw error();
+                        }
+                        pos += 4;
+                    }
+                    default -> throw error();
+                }
+            }
+        }
+
+        private void expect(char expected) {
+            skipWhitespace();
+            if (next() != expected) {
+                throw error();
+            }
+        }
+
+        private char next() {
+            if (pos >= text.length()) {
+                throw error();
+            }
+            return text.charAt(pos++);
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw error();
+            }
+            return text.charAt(pos);
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error() {
+            return new IllegalArgumentException("Ogiltig JSON vid tecken " + (pos + 1) + ".");
+        }
+    }
+}
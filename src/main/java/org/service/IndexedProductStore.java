@@ -0,0 +1,219 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.index.BitmapIndex;
+import org.index.CategoryIndex;
+import org.index.CreatedDateIndex;
+import org.index.ModifiedDateIndex;
+import org.index.NameSearchIndex;
+import org.index.RatingIndex;
+import org.index.RoaringBitmap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Single-threaded store: the id table plus the category, created-date, modified-date, rating, name and bitmap
+ * indexes.
+ */
+final class IndexedProductStore implements ProductStore {
+
+    private final CategoryIndex productsByCategory = new CategoryIndex();
+    private final CreatedDateIndex productsByCreatedDate = new CreatedDateIndex();
+    private final ModifiedDateIndex modifiedProducts = new ModifiedDateIndex();
+    private final RatingIndex productsByRating = new RatingIndex();
+    private final NameSearchIndex productsByName = new NameSearchIndex();
+    private final BitmapIndex bitmaps = new BitmapIndex();
+    private final ProductTable products = new ProductTable(productsByCategory, productsByCreatedDate, modifiedProducts,
+            productsByRating, productsByName, bitmaps);
+
+    @Override
+    public int size() {
+        return products.size();
+    }
+
+    @Override
+    public Product get(int id) {
+        return products.get(id);
+    }
+
+    @Override
+    public void insert(Product product) {
+        products.insert(product);
+    }
+
+    @Override
+    public Product upsert(Product product) {
+        return products.upsert(product);
+    }
+
+    @Override
+    public List<Product> toList() {
+        return products.snapshot();
+    }
+
+    @Override
+    public Stream<Product> stream() {
+        return products.stream();
+    }
+
+    @Override
+    public List<Product> byCategory(Category category) {
+        return productsByCategory.productsIn(category);
+    }
+
+    @Override
+    public List<Product> createdFrom(LocalDate from) {
+        return productsByCreatedDate.createdFrom(from);
+    }
+
+    @Override
+    public List<Product> createdBetween(LocalDate from, LocalDate to) {
+        return productsByCreatedDate.createdBetween(from, to);
+    }
+
+    @Override
+    public List<Product> modified() {
+        return modifiedProducts.modified();
+    }
+
+    @Override
+    public List<Product> modifiedFrom(LocalDate from) {
+        return modifiedProducts.modifiedFrom(from);
+    }
+
+    @Override
+    public List<Product> topRated(Category category, int limit) {
+        return productsByRating.topRated(category, limit);
+    }
+
+    @Override
+    public List<Product> searchByName(String text, int limit) {
+        return productsByName.search(text, limit);
+    }
+
+    @Override
+    public Stream<Product> streamByCategory(Category category) {
+        return productsByCategory.stream(category);
+    }
+
+    @Override
+    public Stream<Product> streamCreatedFrom(LocalDate from) {
+        return productsByCreatedDate.streamFrom(from);
+    }
+
+    @Override
+    public ProductPage pageByCategory(Category category, PageCursor after, int limit) {
+        return ProductPage.collect(
+                after == null
+                        ? productsByCategory.after(category, null, Long.MIN_VALUE)
+                        : productsByCategory.after(category, after.name(), after.position()),
+                limit, last -> new PageCursor(last.name(), null, products.seqOf(last.id())));
+    }
+
+    @Override
+    public ProductPage pageCreatedFrom(LocalDate from, PageCursor after, int limit) {
+        return ProductPage.collect(
+                after == null
+                        ? productsByCreatedDate.createdFromAfter(from, null, Long.MIN_VALUE)
+                        : productsByCreatedDate.createdFromAfter(from, after.date(), after.position()),
+                limit, last -> new PageCursor(null, last.createdDate(), products.seqOf(last.id())));
+    }
+
+    @Override
+    public long estimate(AccessPath path, ProductQuery query) {
+        return switch (path) {
+            case CATEGORY -> productsByCategory.count(query.category());
+            case CREATED_DATE -> productsByCreatedDate.estimateBetween(query.createdFrom(), query.createdBefore());
+            case BITMAP -> bitmapEstimate(query);
+            default -> ProductStore.super.estimate(path, query);
+        };
+    }
+
+    @Override
+    public Stream<Product> read(AccessPath path, ProductQuery query) {
+        if (path == AccessPath.BITMAP) {
+            return bitmapRows(query).stream().mapToObj(row -> products.bySeq(Integer.toUnsignedLong(row)));
+        }
+        return ProductStore.super.read(path, query);
+    }
+
+    @Override
+    public long count(AccessPath path, ProductQuery query) {
+        return switch (path) {
+            case CATEGORY -> productsByCategory.count(query.category());
+            case BITMAP -> bitmapCount(query);
+            default -> ProductStore.super.count(path, query);
+        };
+    }
+
+    @Override
+    public List<Product> byRating(int minRating, int maxRating) {
+        return stream()
+                .filter(product -> product.rating() >= minRating && product.rating() <= maxRating)
+                .collect(Collectors.toList());
+    }
+
+    // From the row count of every condition, which the index keeps, taking the conditions to be independent.
+    private long bitmapEstimate(ProductQuery query) {
+        double size = size();
+        double rows = size;
+        if (query.byCategory()) {
+            rows *= bitmaps.category(query.category()).cardinality() / size;
+        }
+        if (query.categories() != null) {
+            rows *= bitmaps.categoriesCount(query.categories()) / size;
+        }
+        if (query.byRating()) {
+            rows *= bitmaps.ratingsCount(query.minRating(), query.maxRating()) / size;
+        }
+        if (query.byCreatedDate()) {
+            rows *= bitmaps.createdMonthsCount(query.createdFrom(), query.createdBefore()) / size;
+        }
+        return size == 0 ? 0 : Math.round(rows);
+    }
+
+    // Counts the last intersection without building it.
+    private long bitmapCount(ProductQuery query) {
+        List<RoaringBitmap> conditions = bitmapConditions(query);
+        RoaringBitmap rows = conditions.getFirst();
+        for (int i = 1; i < conditions.size() - 1 && !rows.isEmpty(); i++) {
+            rows = RoaringBitmap.and(rows, conditions.get(i));
+        }
+        return conditions.size() == 1 ? rows.cardinality() : RoaringBitmap.andCardinality(rows, conditions.getLast());
+    }
+
+    // Intersection of the bitmaps for every condition the bitmap index can narrow down.
+    private RoaringBitmap bitmapRows(ProductQuery query) {
+        List<RoaringBitmap> conditions = bitmapConditions(query);
+        RoaringBitmap rows = conditions.getFirst();
+        for (int i = 1; i < conditions.size() && !rows.isEmpty(); i++) {
+            rows = RoaringBitmap.and(rows, conditions.get(i));
+        }
+        return rows;
+    }
+
+    // Smallest first, so every intersection is as small as it can be.
+    private List<RoaringBitmap> bitmapConditions(ProductQuery query) {
+        List<RoaringBitmap> conditions = new ArrayList<>(4);
+        if (query.byCategory()) {
+            conditions.add(bitmaps.category(query.category()));
+        }
+        if (query.categories() != null) {
+            conditions.add(bitmaps.categories(query.categories()));
+        }
+        if (query.byRating()) {
+            conditions.add(bitmaps.ratings(query.minRating(), query.maxRating()));
+        }
+        if (query.byCreatedDate()) {
+            conditions.add(bitmaps.createdMonths(query.createdFrom(), query.createdBefore()));
+        }
+        conditions.sort(Comparator.comparingLong(RoaringBitmap::cardinality));
+        return conditions;
+    }
+}
@@ -0,0 +1,13 @@
+package org.service;
+
+/**
+ * When journal writes are forced to disk.
+ */
+public enum JournalSync {
+    /** Every mutation waits until it is on disk; concurrent mutations share one fsync. */
+    PER_OPERATION,
+    /** A background thread forces the journal at a fixed interval; a crash loses at most one interval. */
+    INTERVAL,
+    /** Records are handed to the operating system right away but never forced. */
+    OS_MANAGED
+}
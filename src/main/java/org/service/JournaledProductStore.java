@@ -0,0 +1,246 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Records every successful mutation of the wrapped store in a {@link ProductJournal}. A product the journal cannot
+ * record is rejected before the wrapped store changes.
+ * A change is journaled and then made under one lock so the journal replays in the same order; waiting for the
+ * record to reach disk happens after the lock is released, which lets concurrent writers share one fsync. A change
+ * whose record could not be buffered is never made, and one whose record did not reach disk is taken back before the
+ * failure is thrown, so the store only holds changes the caller was told succeeded.
+ */
+final class JournaledProductStore implements ProductStore, AutoCloseable {
+
+    private final ConcurrentProductStore delegate;
+    private final ProductJournal journal;
+
+    private JournaledProductStore(ConcurrentProductStore delegate, ProductJournal journal) {
+        this.delegate = delegate;
+        this.journal = journal;
+    }
+
+    static JournaledProductStore open(Path file, JournalSync sync, Duration interval) {
+        ConcurrentProductStore store = new ConcurrentProductStore();
+        try {
+            ProductJournal.replay(file, entry -> store.upsert(entry.product()));
+            return new JournaledProductStore(store, new ProductJournal(file, sync, interval));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void flush() {
+        journal.flush();
+    }
+
+    long syncCount() {
+        return journal.syncCount();
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    @Override
+    public void insert(Product product) {
+        ProductJournal.validate(product);
+        long seq;
+        synchronized (this) {
+            checkAbsent(product);
+            seq = journal.append(ProductJournal.ADD, product);
+            delegate.insert(product);
+        }
+        try {
+            journal.awaitCommitted(seq);
+        } catch (RuntimeException e) {
+            delegate.undo(product, null, 0);
+            throw e;
+        }
+    }
+
+    // The whole batch waits for a single commit instead of one per product.
+    @Override
+    public void insertAll(List<Product> products, ObjIntConsumer<IllegalArgumentException> rejected) {
+        long seq = 0;
+        List<Product> inserted = new ArrayList<>(products.size());
+        synchronized (this) {
+            for (int i = 0; i < products.size(); i++) {
+                Product product = products.get(i);
+                try {
+                    ProductJournal.validate(product);
+                    checkAbsent(product);
+                } catch (IllegalArgumentException e) {
+                    rejected.accept(e, i);
+                    continue;
+                }
+                try {
+                    seq = journal.append(ProductJournal.ADD, product);
+                } catch (RuntimeException e) {
+                    undo(inserted);
+                    throw e;
+                }
+                delegate.insert(product);
+                inserted.add(product);
+            }
+        }
+        if (seq > 0) {
+            try {
+                journal.awaitCommitted(seq);
+            } catch (RuntimeException e) {
+                undo(inserted);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public Product upsert(Product product) {
+        ProductJournal.validate(product);
+        long seq;
+        Product previous;
+        long previousSeq;
+        synchronized (this) {
+            previousSeq = delegate.seqOf(product.id());
+            seq = journal.append(ProductJournal.UPDATE, product);
+            previous = delegate.upsert(product);
+        }
+        try {
+            journal.awaitCommitted(seq);
+        } catch (RuntimeException e) {
+            delegate.undo(product, previous, previousSeq);
+            throw e;
+        }
+        return previous;
+    }
+
+    // Caller holds the lock, so the id is still free when the product is inserted.
+    private void checkAbsent(Product product) {
+        if (delegate.get(product.id()) != null) {
+            throw new IllegalArgumentException("Produkt med ID " + product.id() + " finns redan.");
+        }
+    }
+
+    private void undo(List<Product> inserted) {
+        for (Product product : inserted) {
+            delegate.undo(product, null, 0);
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public Product get(int id) {
+        return delegate.get(id);
+    }
+
+    @Override
+    public List<Product> toList() {
+        return delegate.toList();
+    }
+
+    @Override
+    public Stream<Product> stream() {
+        return delegate.stream();
+    }
+
+    @Override
+    public List<Product> byCategory(Category category) {
+        return delegate.byCategory(category);
+    }
+
+    @Override
+    public List<Product> createdFrom(LocalDate from) {
+        return delegate.createdFrom(from);
+    }
+
+    @Override
+    public List<Product> createdBetween(LocalDate from, LocalDate to) {
+        return delegate.createdBetween(from, to);
+    }
+
+    @Override
+    public List<Product> byRating(int minRating, int maxRating) {
+        return delegate.byRating(minRating, maxRating);
+    }
+
+    @Override
+    public List<Product> modified() {
+        return delegate.modified();
+    }
+
+    @Override
+    public List<Product> modifiedFrom(LocalDate from) {
+        return delegate.modifiedFrom(from);
+    }
+
+    @Override
+    public List<Product> topRated(Category category, int limit) {
+        return delegate.topRated(category, limit);
+    }
+
+    @Override
+    public List<Product> searchByName(String text, int limit) {
+        return delegate.searchByName(text, limit);
+    }
+
+    @Override
+    public Stream<Product> streamByCategory(Category category) {
+        return delegate.streamByCategory(category);
+    }
+
+    @Override
+    public Stream<Product> streamCreatedFrom(LocalDate from) {
+        return delegate.streamCreatedFrom(from);
+    }
+
+    @Override
+    public ProductPage pageByCategory(Category category, PageCursor after, int limit) {
+        return delegate.pageByCategory(category, after, limit);
+    }
+
+    @Override
+    public ProductPage pageCreatedFrom(LocalDate from, PageCursor after, int limit) {
+        return delegate.pageCreatedFrom(from, after, limit);
+    }
+
+    @Override
+    public long estimate(AccessPath path, ProductQuery query) {
+        return delegate.estimate(path, query);
+    }
+
+    @Override
+    public Stream<Product> read(AccessPath path, ProductQuery query) {
+        return delegate.read(path, query);
+    }
+
+    @Override
+    public long count(AccessPath path, ProductQuery query) {
+        return delegate.count(path, query);
+    }
+
+    @Override
+    public long rowsScanned(WarehouseOperation operation, int rowsReturned) {
+        return delegate.rowsScanned(operation, rowsReturned);
+    }
+}
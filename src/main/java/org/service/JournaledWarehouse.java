@@ -0,0 +1,40 @@
+package org.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Thread-safe {@link Warehouse} that records every change in an append-only journal and rebuilds itself from that
+ * journal when opened. How often the journal is forced to disk is chosen with {@link JournalSync}.
+ */
+public class JournaledWarehouse extends Warehouse implements AutoCloseable {
+
+    private final JournaledProductStore store;
+
+    public JournaledWarehouse(Path journal) {
+        this(journal, JournalSync.PER_OPERATION, Duration.ZERO);
+    }
+
+    public JournaledWarehouse(Path journal, JournalSync sync, Duration interval) {
+        this(JournaledProductStore.open(journal, sync, interval));
+    }
+
+    private JournaledWarehouse(JournaledProductStore store) {
+        super(store);
+        this.store = store;
+    }
+
+    long syncCount() {
+        return store.syncCount();
+    }
+
+    public void flush() {
+        store.flush();
+    }
+
+    @Override
+    public void close() {
+        closeChanges();
+        store.close();
+    }
+}
@@ -2,15 +2,84 @@ package org.service;
 
 import org.entities.Product;
 import org.entities.Category;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.Scanner;
 
 
 public class Main {
+
+    private static final long QUERY_CACHE_BYTES = 16L << 20;
+    private static final int HTTP_BACKLOG = 8192;
+    private static final int SCRIPT_BUFFER = 1 << 16;
+
+    // Main [fil] [--http port | --script fil]: the menu, a JSON API on that port until Enter is pressed, or the
+    // commands in a file ("-" for standard input) without any prompts.
     public static void main(String[] args) {
-        Warehouse warehouse = new Warehouse();
-        Scanner sc = new Scanner(System.in);
+        Path file = Path.of(args.length > 0 && !args[0].startsWith("--") ? args[0] : "warehouse.db");
+        String httpPort = option(args, "--http");
+        String script = option(args, "--script");
+        try (MappedWarehouse warehouse = new MappedWarehouse(file)) {
+            if (warehouse.isEmpty() && script == null) {
+                addSeedProducts(warehouse);
+            }
+            warehouse.enableQueryCache(QUERY_CACHE_BYTES);
+            if (script != null) {
+                runScript(warehouse, script);
+            } else if (httpPort != null) {
+                serve(warehouse, Integer.parseInt(httpPort));
+            } else {
+                runMenu(warehouse);
+            }
+        }
+    }
 
+    private static String option(String[] args, String name) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static void serve(Warehouse warehouse, int port) {
+        try (WarehouseHttpServer server = WarehouseHttpServer.start(warehouse, new InetSocketAddress(port), HTTP_BACKLOG)) {
+            System.out.println("Lagret nås på http://localhost:" + server.port() + "/products");
+            System.out.println("Tryck Enter för att stoppa servern.");
+            new Scanner(System.in).nextLine();
+        }
+    }
+
+    // Output bypasses System.out, which flushes on every line. The writer is only flushed, by the script, since
+    // closing it would close standard output for the rest of the process.
+    private static void runScript(Warehouse warehouse, String script) {
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out),
+                StandardCharsets.UTF_8), SCRIPT_BUFFER);
+        try (BufferedReader in = script.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), SCRIPT_BUFFER)
+                : Files.newBufferedReader(Path.of(script), StandardCharsets.UTF_8)) {
+            CommandScript.Summary summary = new CommandScript(warehouse, in, out).run();
+            System.err.println(summary.commands() + " kommandon körda, " + summary.failures() + " misslyckades.");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void addSeedProducts(Warehouse warehouse) {
         Product product1 =
                 new Product(1, "Banana", Category.FRUIT, 9, LocalDate.now().minusDays(5), LocalDate.now().minusDays(2));
         Product product2 =
@@ -24,6 +93,10 @@ public class Main {
         warehouse.addProduct(product2);
         warehouse.addProduct(product3);
         warehouse.addProduct(product4);
+    }
+
+    private static void runMenu(Warehouse warehouse) {
+        Scanner sc = new Scanner(System.in);
 
         while (true) {
             Scanner scanner = new Scanner(System.in);
@@ -68,6 +141,20 @@ public class Main {
                 case 7:
                     warehouse.addProductFromUserInput();
                     break;
+                case 8:
+                    System.out.println("Statistik sedan start:");
+                    System.out.print(warehouse.stats().format());
+                    QueryCacheStats cache = warehouse.queryCacheStats();
+                    System.out.printf("Frågecache: %d träffar, %d missar, %d utrymda, %d ogiltigförklarade, %d poster%n",
+                            cache.hits(), cache.misses(), cache.evictions(), cache.invalidations(), cache.entries());
+                    System.out.println("\nTryck Enter för att komma till menyn");
+                    scanner.nextLine();
+                    break;
+                case 9:
+                    warehouse.searchProductsByNameFromUserInput();
+                    System.out.println("\nTryck Enter för att komma till menyn");
+                    scanner.nextLine();
+                    break;
                 default:
                     break;
             }
@@ -88,6 +175,8 @@ public class Main {
         System.out.println("5. Sök efter modifierade produkter");
         System.out.println("6. Modifiera befintlig produkt");
         System.out.println("7. Lägg till ny produkt");
+        System.out.println("8. Visa statistik");
+        System.out.println("9. Sök efter namn");
         System.out.println("e. Avsluta programmet");
         System.out.println("====================================");
     }
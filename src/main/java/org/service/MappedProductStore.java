@@ -0,0 +1,310 @@
+package org.service;
+
+import org.entities.Product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Store persisted in a single memory-mapped file.
+ * Opening only maps the file and checks the header, so startup does not depend on the number of products;
+ * rows are decoded when a query touches them. Lookups by id go through an open-addressing hash table that
+ * lives in the file as well.
+ *
+ * <pre>
+ * header  64 bytes   magic, version, rows, deleted rows, row capacity, hash capacity, name bytes, name capacity
+ * rows    row capacity * 32 bytes, see {@link ProductRows}
+ * hash    hash capacity * 8 bytes, slots of (id, row + 1) where row + 1 == 0 marks an empty slot
+ * names   name capacity bytes of UTF-8
+ * </pre>
+ *
+ * When a region fills up, or deleted rows dominate, the file is rewritten with larger regions and swapped in atomically.
+ */
+final class MappedProductStore extends SegmentProductStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x57484631;
+    private static final int VERSION = 1;
+    private static final long HEADER_SIZE = 64;
+    private static final long HASH_SLOT_SIZE = 8;
+
+    private static final long MAGIC_OFFSET = 0;
+    private static final long VERSION_OFFSET = 4;
+    private static final long ROWS_OFFSET = 8;
+    private static final long DELETED_OFFSET = 12;
+    private static final long ROW_CAPACITY_OFFSET = 16;
+    private static final long HASH_CAPACITY_OFFSET = 20;
+    private static final long NAME_BYTES_OFFSET = 24;
+    private static final long NAME_CAPACITY_OFFSET = 32;
+
+    private static final int INITIAL_ROW_CAPACITY = 1024;
+    private static final int MIN_COMPACTION = 1024;
+
+    private final Path file;
+    private FileChannel channel;
+    private Arena arena;
+    private MemorySegment segment;
+
+    private int rows;
+    private int deleted;
+    private int rowCapacity;
+    private int hashMask;
+    private long nameBytes;
+    private long nameCapacity;
+    private long hashBase;
+    private long namesBase;
+    private boolean closed;
+
+    MappedProductStore(Path file) {
+        this.file = file;
+        try {
+            if (!Files.exists(file) || Files.size(file) == 0) {
+                writeEmpty(file, INITIAL_ROW_CAPACITY, INITIAL_ROW_CAPACITY * 16L);
+            }
+            map();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    MemorySegment rowSegment() {
+        return segment;
+    }
+
+    @Override
+    long rowsBase() {
+        return HEADER_SIZE;
+    }
+
+    @Override
+    MemorySegment nameSegment() {
+        return segment;
+    }
+
+    @Override
+    long namesBase() {
+        return namesBase;
+    }
+
+    @Override
+    int rowCount() {
+        return rows;
+    }
+
+    @Override
+    void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Lagret är stängt.");
+        }
+    }
+
+    void flush() {
+        checkOpen();
+        segment.force();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            segment.force();
+            arena.close();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return rows - deleted;
+    }
+
+    @Override
+    public Product get(int id) {
+        checkOpen();
+        int row = rowOf(id);
+        return row < 0 ? null : materialize(row);
+    }
+
+    @Override
+    public void insert(Product product) {
+        checkOpen();
+        ProductRows.validate(product);
+        if (rowOf(product.id()) >= 0) {
+            throw new IllegalArgumentException("Produkt med ID " + product.id() + " finns redan.");
+        }
+        append(product);
+    }
+
+    @Override
+    public Product upsert(Product product) {
+        checkOpen();
+        ProductRows.validate(product);
+        int row = rowOf(product.id());
+        if (row < 0) {
+            append(product);
+            return null;
+        }
+        Product previous = materialize(row);
+        ProductRows.markDeleted(segment, base(row));
+        deleted++;
+        segment.set(ProductRows.INT, DELETED_OFFSET, deleted);
+        append(product);
+        if (deleted >= MIN_COMPACTION && deleted > rows / 2) {
+            rebuild(rowCapacity, nameCapacity);
+        }
+        return previous;
+    }
+
+    private void append(Product product) {
+        byte[] name = ProductRows.encodeName(product.name());
+        int nameLength = name == null ? ProductRows.NO_NAME : name.length;
+        if (rows == rowCapacity || nameBytes + Math.max(0, nameLength) > nameCapacity) {
+            rebuild(Math.max(rowCapacity, (rows - deleted + 1) * 2),
+                    Math.max(nameCapacity, (nameBytes + Math.max(0, nameLength)) * 2));
+        }
+        long nameOffset = nameBytes;
+        if (name != null) {
+            MemorySegment.copy(MemorySegment.ofArray(name), 0, segment, namesBase + nameOffset, name.length);
+            nameBytes += name.length;
+        }
+        ProductRows.write(segment, base(rows), product, nameOffset, nameLength);
+        putRow(segment, hashBase, hashMask, product.id(), rows);
+        rows++;
+        segment.set(ProductRows.LONG, NAME_BYTES_OFFSET, nameBytes);
+        segment.set(ProductRows.INT, ROWS_OFFSET, rows);
+    }
+
+    private int rowOf(int id) {
+        int slot = mix(id) & hashMask;
+        while (true) {
+            long address = hashBase + slot * HASH_SLOT_SIZE;
+            int rowPlusOne = segment.get(ProductRows.INT, address + 4);
+            if (rowPlusOne == 0) {
+                return -1;
+            }
+            if (segment.get(ProductRows.INT, address) == id) {
+                return rowPlusOne - 1;
+            }
+            slot = (slot + 1) & hashMask;
+        }
+    }
+
+    // Rewrites the file without deleted rows and with the given capacities, then swaps it in.
+    private void rebuild(int newRowCapacity, long newNameCapacity) {
+        StoreMaintenanceEvent event = new StoreMaintenanceEvent();
+        event.begin();
+        int before = rows;
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            writeEmpty(tmp, newRowCapacity, newNameCapacity);
+            try (FileChannel target = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 Arena targetArena = Arena.ofConfined()) {
+                MemorySegment out = target.map(FileChannel.MapMode.READ_WRITE, 0, target.size(), targetArena);
+                int targetHashMask = out.get(ProductRows.INT, HASH_CAPACITY_OFFSET) - 1;
+                long targetHashBase = HEADER_SIZE + newRowCapacity * ProductRows.SIZE;
+                long targetNamesBase = targetHashBase + (targetHashMask + 1L) * HASH_SLOT_SIZE;
+                int live = 0;
+                long liveNameBytes = 0;
+                for (int row = 0; row < rows; row++) {
+                    if (category(row) == ProductRows.DELETED) {
+                        continue;
+                    }
+                    long to = HEADER_SIZE + live * ProductRows.SIZE;
+                    MemorySegment.copy(segment, base(row), out, to, ProductRows.SIZE);
+                    int nameLength = ProductRows.nameLength(segment, base(row));
+                    if (nameLength > 0) {
+                        MemorySegment.copy(segment, namesBase + ProductRows.nameOffset(segment, base(row)),
+                                out, targetNamesBase + liveNameBytes, nameLength);
+                        ProductRows.moveName(out, to, liveNameBytes);
+                        liveNameBytes += nameLength;
+                    }
+                    putRow(out, targetHashBase, targetHashMask, ProductRows.id(out, to), live);
+                    live++;
+                }
+                out.set(ProductRows.INT, ROWS_OFFSET, live);
+                out.set(ProductRows.LONG, NAME_BYTES_OFFSET, liveNameBytes);
+                out.force();
+            }
+            arena.close();
+            channel.close();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            map();
+            event.finish(this, "rebuild", before, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        arena = Arena.ofShared();
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size(), arena);
+        if (segment.byteSize() < HEADER_SIZE
+                || segment.get(ProductRows.INT, MAGIC_OFFSET) != MAGIC
+                || segment.get(ProductRows.INT, VERSION_OFFSET) != VERSION) {
+            arena.close();
+            channel.close();
+            throw new IOException("Filen " + file + " är inte en lagerfil.");
+        }
+        rows = segment.get(ProductRows.INT, ROWS_OFFSET);
+        deleted = segment.get(ProductRows.INT, DELETED_OFFSET);
+        rowCapacity = segment.get(ProductRows.INT, ROW_CAPACITY_OFFSET);
+        hashMask = segment.get(ProductRows.INT, HASH_CAPACITY_OFFSET) - 1;
+        nameBytes = segment.get(ProductRows.LONG, NAME_BYTES_OFFSET);
+        nameCapacity = segment.get(ProductRows.LONG, NAME_CAPACITY_OFFSET);
+        hashBase = HEADER_SIZE + rowCapacity * ProductRows.SIZE;
+        namesBase = hashBase + (hashMask + 1L) * HASH_SLOT_SIZE;
+        if (namesBase + nameCapacity != segment.byteSize()) {
+            arena.close();
+            channel.close();
+            throw new IOException("Filen " + file + " är skadad.");
+        }
+    }
+
+    private static void writeEmpty(Path target, int rowCapacity, long nameCapacity) throws IOException {
+        int hashCapacity = Integer.highestOneBit(Math.max(2, rowCapacity) - 1) << 2;
+        long size = HEADER_SIZE + rowCapacity * ProductRows.SIZE + hashCapacity * HASH_SLOT_SIZE + nameCapacity;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             Arena headerArena = Arena.ofConfined()) {
+            MemorySegment header = out.map(FileChannel.MapMode.READ_WRITE, 0, size, headerArena);
+            header.set(ProductRows.INT, MAGIC_OFFSET, MAGIC);
+            header.set(ProductRows.INT, VERSION_OFFSET, VERSION);
+            header.set(ProductRows.INT, ROW_CAPACITY_OFFSET, rowCapacity);
+            header.set(ProductRows.INT, HASH_CAPACITY_OFFSET, hashCapacity);
+            header.set(ProductRows.LONG, NAME_CAPACITY_OFFSET, nameCapacity);
+            header.force();
+        }
+    }
+
+    private static void putRow(MemorySegment target, long hashBase, int hashMask, int id, int row) {
+        int slot = mix(id) & hashMask;
+        while (true) {
+            long address = hashBase + slot * HASH_SLOT_SIZE;
+            int rowPlusOne = target.get(ProductRows.INT, address + 4);
+            if (rowPlusOne == 0 || target.get(ProductRows.INT, address) == id) {
+                target.set(ProductRows.INT, address, id);
+                target.set(ProductRows.INT, address + 4, row + 1);
+                return;
+            }
+            slot = (slot + 1) & hashMask;
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,31 @@
+package org.service;
+
+import java.nio.file.Path;
+
+/**
+ * {@link Warehouse} persisted to a memory-mapped file. Opening an existing file is instant regardless of its size,
+ * and changes are written through to the file; {@link #close()} flushes them to disk.
+ */
+public class MappedWarehouse extends Warehouse implements AutoCloseable {
+
+    private final MappedProductStore store;
+
+    public MappedWarehouse(Path file) {
+        this(new MappedProductStore(file));
+    }
+
+    private MappedWarehouse(MappedProductStore store) {
+        super(store);
+        this.store = store;
+    }
+
+    public void flush() {
+        store.flush();
+    }
+
+    @Override
+    public void close() {
+        closeChanges();
+        store.close();
+    }
+}
@@ -0,0 +1,207 @@
+package org.service;
+
+import org.entities.Product;
+import org.index.IntIntMap;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Store that keeps product rows and names in native memory, so large inventories add nothing for the GC to trace.
+ * Rows use the {@link ProductRows} layout; names are UTF-8 bytes appended to a separate string area.
+ * Each segment lives in its own arena so growing frees the old memory right away.
+ */
+final class OffHeapProductStore extends SegmentProductStore implements AutoCloseable {
+
+    private static final int MIN_COMPACTION = 1024;
+
+    private final IntIntMap rowById = new IntIntMap();
+
+    private Arena rowArena;
+    private MemorySegment rowSegment;
+    private Arena nameArena;
+    private MemorySegment nameSegment;
+    private int capacity;
+    private int rows;
+    private int deleted;
+    private long nameBytes;
+    private boolean closed;
+
+    OffHeapProductStore(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Kapaciteten måste vara ett positivt tal.");
+        }
+        rowArena = Arena.ofShared();
+        rowSegment = rowArena.allocate(initialCapacity * ProductRows.SIZE, Long.BYTES);
+        nameArena = Arena.ofShared();
+        nameSegment = nameArena.allocate(initialCapacity * 16L, 1);
+        capacity = initialCapacity;
+    }
+
+    @Override
+    MemorySegment rowSegment() {
+        return rowSegment;
+    }
+
+    @Override
+    long rowsBase() {
+        return 0;
+    }
+
+    @Override
+    MemorySegment nameSegment() {
+        return nameSegment;
+    }
+
+    @Override
+    long namesBase() {
+        return 0;
+    }
+
+    @Override
+    int rowCount() {
+        return rows;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void ensureCapacity(int minCapacity) {
+        checkOpen();
+        if (minCapacity <= capacity) {
+            return;
+        }
+        StoreMaintenanceEvent event = new StoreMaintenanceEvent();
+        event.begin();
+        Arena arena = Arena.ofShared();
+        MemorySegment segment = arena.allocate(minCapacity * ProductRows.SIZE, Long.BYTES);
+        MemorySegment.copy(rowSegment, 0, segment, 0, rows * ProductRows.SIZE);
+        rowArena.close();
+        rowArena = arena;
+        rowSegment = segment;
+        event.finish(this, "grow", capacity, minCapacity);
+        capacity = minCapacity;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            rowArena.close();
+            nameArena.close();
+        }
+    }
+
+    @Override
+    public int size() {
+        return rows - deleted;
+    }
+
+    @Override
+    public Product get(int id) {
+        checkOpen();
+        int row = rowById.get(id, -1);
+        return row < 0 ? null : materialize(row);
+    }
+
+    @Override
+    public void insert(Product product) {
+        checkOpen();
+        ProductRows.validate(product);
+        if (rowById.containsKey(product.id())) {
+            throw new IllegalArgumentException("Produkt med ID " + product.id() + " finns redan.");
+        }
+        append(product);
+    }
+
+    @Override
+    public Product upsert(Product product) {
+        checkOpen();
+        ProductRows.validate(product);
+        int row = rowById.get(product.id(), -1);
+        if (row < 0) {
+            append(product);
+            return null;
+        }
+        Product previous = materialize(row);
+        ProductRows.markDeleted(rowSegment, base(row));
+        deleted++;
+        append(product);
+        if (deleted >= MIN_COMPACTION && deleted > rows / 2) {
+            compact();
+        }
+        return previous;
+    }
+
+    private void append(Product product) {
+        if (rows == capacity) {
+            ensureCapacity(Math.max(16, capacity * 2));
+        }
+        byte[] name = ProductRows.encodeName(product.name());
+        long nameOffset = 0;
+        int nameLength = ProductRows.NO_NAME;
+        if (name != null) {
+            if (nameBytes + name.length > nameSegment.byteSize()) {
+                growNames(Math.max(nameSegment.byteSize() * 2, nameBytes + name.length));
+            }
+            MemorySegment.copy(MemorySegment.ofArray(name), 0, nameSegment, nameBytes, name.length);
+            nameOffset = nameBytes;
+            nameLength = name.length;
+            nameBytes += name.length;
+        }
+        ProductRows.write(rowSegment, base(rows), product, nameOffset, nameLength);
+        rowById.put(product.id(), rows);
+        rows++;
+    }
+
+    private void growNames(long byteSize) {
+        StoreMaintenanceEvent event = new StoreMaintenanceEvent();
+        event.begin();
+        long before = nameSegment.byteSize();
+        Arena arena = Arena.ofShared();
+        MemorySegment segment = arena.allocate(byteSize, 1);
+        MemorySegment.copy(nameSegment, 0, segment, 0, nameBytes);
+        nameArena.close();
+        nameArena = arena;
+        nameSegment = segment;
+        event.finish(this, "grow names", before, byteSize);
+    }
+
+    // Drops deleted rows and the names only they referenced, rewriting both areas in place.
+    private void compact() {
+        StoreMaintenanceEvent event = new StoreMaintenanceEvent();
+        event.begin();
+        int before = rows;
+        int live = 0;
+        long liveNameBytes = 0;
+        for (int row = 0; row < rows; row++) {
+            if (category(row) == ProductRows.DELETED) {
+                continue;
+            }
+            long from = base(row);
+            int nameLength = ProductRows.nameLength(rowSegment, from);
+            if (nameLength > 0) {
+                MemorySegment.copy(nameSegment, ProductRows.nameOffset(rowSegment, from), nameSegment, liveNameBytes, nameLength);
+                ProductRows.moveName(rowSegment, from, liveNameBytes);
+                liveNameBytes += nameLength;
+            }
+            if (row != live) {
+                MemorySegment.copy(rowSegment, from, rowSegment, base(live), ProductRows.SIZE);
+            }
+            rowById.put(ProductRows.id(rowSegment, base(live)), live);
+            live++;
+        }
+        rows = live;
+        deleted = 0;
+        nameBytes = liveNameBytes;
+        event.finish(this, "compact", before, rows);
+    }
+
+    @Override
+    void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Lagret är stängt.");
+        }
+    }
+}
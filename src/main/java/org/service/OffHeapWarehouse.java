@@ -0,0 +1,37 @@
+package org.service;
+
+/**
+ * {@link Warehouse} that keeps its products in native memory outside the Java heap.
+ * The memory is released by {@link #close()}; the warehouse cannot be used afterwards.
+ */
+public class OffHeapWarehouse extends Warehouse implements AutoCloseable {
+
+    private final OffHeapProductStore store;
+
+    public OffHeapWarehouse() {
+        this(1024);
+    }
+
+    public OffHeapWarehouse(int initialCapacity) {
+        this(new OffHeapProductStore(initialCapacity));
+    }
+
+    private OffHeapWarehouse(OffHeapProductStore store) {
+        super(store);
+        this.store = store;
+    }
+
+    public int capacity() {
+        return store.capacity();
+    }
+
+    public void ensureCapacity(int capacity) {
+        store.ensureCapacity(capacity);
+    }
+
+    @Override
+    public void close() {
+        closeChanges();
+        store.close();
+    }
+}
@@ -0,0 +1,11 @@
+package org.service;
+
+import org.metrics.HistogramSnapshot;
+
+/**
+ * Counters and distributions for one {@link WarehouseOperation}. Latencies are in nanoseconds and include failed
+ * calls; {@code resultSizes} is {@code null} for operations that are not filters.
+ */
+public record OperationStats(WarehouseOperation operation, long calls, long failures,
+                             HistogramSnapshot latencyNanos, HistogramSnapshot resultSizes) {
+}
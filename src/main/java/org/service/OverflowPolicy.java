@@ -0,0 +1,22 @@
+package org.service;
+
+/**
+ * What a change subscription does when its buffer is full because the subscriber has not requested more.
+ * None of them slow down the writer or the other subscribers.
+ */
+public enum OverflowPolicy {
+    /**
+     * Holds back delivery until there is room, so nothing is lost. Later changes wait in this subscription's own
+     * backlog meanwhile, which holds as many changes as the buffer; past that the subscription is cancelled and
+     * signals {@code onError}, as with {@link #DISCONNECT}.
+     */
+    BLOCK,
+    /**
+     * Drops the oldest buffered change to make room.
+     */
+    DROP_OLDEST,
+    /**
+     * Cancels the subscription and signals {@code onError}.
+     */
+    DISCONNECT
+}
@@ -0,0 +1,68 @@
+package org.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Position of the last product on a page: its sort key ({@code name} for category pages, {@code date} for date
+ * pages) and a tie-breaker. Index-backed stores use the insertion sequence as tie-breaker and scan-based stores use
+ * the product id, so a cursor is only meaningful to the warehouse that produced it.
+ * Clients see it as an opaque URL-safe string.
+ */
+record PageCursor(String name, LocalDate date, long position) {
+
+    private static final byte VERSION = 1;
+    private static final byte HAS_NAME = 1;
+    private static final byte HAS_DATE = 2;
+
+    String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte((name == null ? 0 : HAS_NAME) | (date == null ? 0 : HAS_DATE));
+            if (name != null) {
+                byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+            if (date != null) {
+                out.writeLong(date.toEpochDay());
+            }
+            out.writeLong(position);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    static PageCursor decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Ogiltig sidmarkör.");
+            }
+            byte flags = in.readByte();
+            String name = null;
+            if ((flags & HAS_NAME) != 0) {
+                int length = in.readInt();
+                if (length < 0 || length > in.available()) {
+                    throw new IllegalArgumentException("Ogiltig sidmarkör.");
+                }
+                name = new String(in.readNBytes(length), StandardCharsets.UTF_8);
+            }
+            LocalDate date = (flags & HAS_DATE) != 0 ? LocalDate.ofEpochDay(in.readLong()) : null;
+            long position = in.readLong();
+            if (in.available() != 0) {
+                throw new IllegalArgumentException("Ogiltig sidmarkör.");
+            }
+            return new PageCursor(name, date, position);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Ogiltig sidmarkör.", e);
+        }
+    }
+}
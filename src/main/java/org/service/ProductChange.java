@@ -0,0 +1,14 @@
+package org.service;
+
+import org.entities.Product;
+
+/**
+ * One change to a warehouse as published by {@link Warehouse#changes}. {@code before} is {@code null} when the
+ * product was added. Sequence numbers start at 1 and follow the order of the changes to each product.
+ */
+public record ProductChange(long sequence, WarehouseOperation operation, Product before, Product after) {
+
+    public boolean isInsert() {
+        return before == null;
+    }
+}
@@ -0,0 +1,190 @@
+package org.service;
+
+import org.entities.Product;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streams a product feed into a {@link Warehouse}.
+ * Lines are read in chunks that worker threads parse and validate in parallel, while the reading thread inserts
+ * finished chunks in file order. At most two chunks per worker are in flight, so memory stays bounded whatever the
+ * size of the file. Bad rows end up in the report instead of stopping the import.
+ */
+public class ProductImporter {
+
+    /**
+     * A rejected row, with its 1-based line number in the file.
+     */
+    public record RowError(long line, String message) {
+    }
+
+    /**
+     * Outcome of an import. {@code errors} is sorted by line and holds at most the configured number of errors;
+     * {@code rejected} counts all of them.
+     */
+    public record ImportReport(long imported, long rejected, List<RowError> errors) {
+    }
+
+    private static final int DEFAULT_CHUNK_SIZE = 8192;
+    private static final int DEFAULT_MAX_ERRORS = 10_000;
+
+    private final Warehouse warehouse;
+    private final int chunkSize;
+    private final int parallelism;
+    private final int maxErrors;
+
+    public ProductImporter(Warehouse warehouse) {
+        this(warehouse, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_ERRORS);
+    }
+
+    public ProductImporter(Warehouse warehouse, int chunkSize, int parallelism, int maxErrors) {
+        if (chunkSize <= 0 || parallelism <= 0 || maxErrors < 0) {
+            throw new IllegalArgumentException("Chunkstorlek och parallellism måste vara positiva tal.");
+        }
+        this.warehouse = Objects.requireNonNull(warehouse, "Warehouse cannot be null");
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.maxErrors = maxErrors;
+    }
+
+    public ImportReport importFile(Path file) {
+        return importFile(file, ImportFormat.of(file));
+    }
+
+    public ImportReport importFile(Path file, ImportFormat format) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(reader, format);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public ImportReport importFrom(Reader source, ImportFormat format) {
+        Objects.requireNonNull(format, "Format cannot be null");
+        BufferedReader reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+        LocalDate today = LocalDate.now();
+        Progress progress = new Progress();
+        Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "product-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long lineNumber = 0;
+            long firstLine = 1;
+            List<String> lines = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1) {
+                    line = stripByteOrderMark(line);
+                    if (format.isHeader(line)) {
+                        firstLine = 2;
+                        continue;
+                    }
+                }
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    submit(workers, inFlight, lines, firstLine, format, today, progress);
+                    firstLine = lineNumber + 1;
+                    lines = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!lines.isEmpty()) {
+                submit(workers, inFlight, lines, firstLine, format, today, progress);
+            }
+            while (!inFlight.isEmpty()) {
+                insert(inFlight.removeFirst(), progress);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+            workers.shutdownNow();
+        }
+        return new ImportReport(progress.imported, progress.rejected, List.copyOf(progress.errors));
+    }
+
+    private void submit(ExecutorService workers, Deque<Future<Chunk>> inFlight, List<String> lines, long firstLine,
+                        ImportFormat format, LocalDate today, Progress progress) {
+        while (inFlight.size() >= parallelism * 2) {
+            insert(inFlight.removeFirst(), progress);
+        }
+        inFlight.addLast(workers.submit(() -> parse(lines, firstLine, format, today)));
+    }
+
+    private static Chunk parse(List<String> lines, long firstLine, ImportFormat format, LocalDate today) {
+        List<Product> products = new ArrayList<>(lines.size());
+        long[] lineNumbers = new long[lines.size()];
+        List<RowError> errors = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                lineNumbers[products.size()] = firstLine + i;
+                products.add(format.parse(line, today));
+            } catch (IllegalArgumentException e) {
+                errors.add(new RowError(firstLine + i, e.getMessage()));
+            }
+        }
+        return new Chunk(products, lineNumbers, errors);
+    }
+
+    private void insert(Future<Chunk> future, Progress progress) {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Importen avbröts.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Importen misslyckades.", e.getCause());
+        }
+        List<RowError> errors = new ArrayList<>(chunk.errors);
+        int parseErrors = errors.size();
+        warehouse.addProducts(chunk.products, (e, index) -> errors.add(new RowError(chunk.lineNumbers[index], e.getMessage())));
+        progress.imported += chunk.products.size() - (errors.size() - parseErrors);
+        errors.sort(Comparator.comparingLong(RowError::line));
+        errors.forEach(progress::reject);
+    }
+
+    private static String stripByteOrderMark(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    private record Chunk(List<Product> products, long[] lineNumbers, List<RowError> errors) {
+    }
+
+    private final class Progress {
+        private final List<RowError> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        void reject(RowError error) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            }
+        }
+    }
+}
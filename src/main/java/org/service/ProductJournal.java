@@ -0,0 +1,324 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of product mutations.
+ * Each record is {@code [payload length][CRC32C of payload][payload]}. Appends go to an in-memory buffer; whoever
+ * commits first writes every buffered record in one go, so concurrent writers share a single write and fsync.
+ */
+final class ProductJournal implements AutoCloseable {
+
+    static final byte ADD = 1;
+    static final byte UPDATE = 2;
+
+    record Entry(byte operation, Product product) {
+    }
+
+    private static final int HEADER_SIZE = 8;
+    private static final int FIXED_PAYLOAD_SIZE = 1 + 4 + 4 + 4 + 4 + 1 + 4;
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_PAYLOAD_SIZE = READ_BUFFER_SIZE - HEADER_SIZE;
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final FileChannel channel;
+    private final JournalSync sync;
+    private final ScheduledExecutorService flusher;
+    private final CRC32C crc = new CRC32C();
+
+    private final Object lock = new Object();
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long appended;
+    private long written;
+    private long forced;
+    private boolean committing;
+    private long syncs;
+    private IOException failure;
+    private boolean closed;
+
+    ProductJournal(Path file, JournalSync sync, Duration interval) throws IOException {
+        this.sync = sync;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        if (sync == JournalSync.INTERVAL) {
+            if (interval.isZero() || interval.isNegative()) {
+                throw new IllegalArgumentException("Intervallet måste vara positivt.");
+            }
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long nanos = interval.toNanos();
+            flusher.scheduleWithFixedDelay(this::flushQuietly, nanos, nanos, TimeUnit.NANOSECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Reads every intact record in order. A torn or corrupt record ends the journal: it and anything after it are cut off.
+     */
+    static void replay(Path file, Consumer<Entry> consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+            CRC32C checksum = new CRC32C();
+            long valid = 0;
+            boolean intact = true;
+            boolean eof = false;
+            while (intact && !eof) {
+                eof = in.read(buffer) < 0;
+                buffer.flip();
+                while (buffer.remaining() >= HEADER_SIZE) {
+                    int start = buffer.position();
+                    int length = buffer.getInt(start);
+                    if (length < FIXED_PAYLOAD_SIZE || length > MAX_PAYLOAD_SIZE) {
+                        intact = false;
+                        break;
+                    }
+                    if (buffer.remaining() < HEADER_SIZE + length) {
+                        break;
+                    }
+                    ByteBuffer payload = buffer.slice(start + HEADER_SIZE, length);
+                    checksum.reset();
+                    checksum.update(payload.duplicate());
+                    Entry entry = (int) checksum.getValue() == buffer.getInt(start + 4) ? decode(payload) : null;
+                    if (entry == null) {
+                        intact = false;
+                        break;
+                    }
+                    consumer.accept(entry);
+                    buffer.position(start + HEADER_SIZE + length);
+                    valid += HEADER_SIZE + length;
+                }
+                buffer.compact();
+            }
+            if (valid < in.size()) {
+                in.truncate(valid);
+                in.force(true);
+            }
+        }
+    }
+
+    /**
+     * Throws {@link IllegalArgumentException} if {@code product} cannot be written as a record, so callers can reject
+     * it before changing anything.
+     */
+    static void validate(Product product) {
+        ProductRows.validate(product);
+        byte[] name = ProductRows.encodeName(product.name());
+        if (FIXED_PAYLOAD_SIZE + (name == null ? 0 : name.length) > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("Namnet är för långt.");
+        }
+    }
+
+    /**
+     * Buffers a record and returns its sequence number. Callers that append under their own lock get records in the
+     * same order as their changes, and can wait for durability with {@link #awaitCommitted(long)} after releasing it.
+     * Throws without buffering anything if the journal is closed or an earlier write failed, so callers that append
+     * before changing anything are left unchanged.
+     */
+    long append(byte operation, Product product) {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Journalen är stängd.");
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+            encode(operation, product);
+            return ++appended;
+        }
+    }
+
+    void awaitCommitted(long seq) {
+        switch (sync) {
+            case PER_OPERATION -> commit(seq, true);
+            case OS_MANAGED -> commit(seq, false);
+            case INTERVAL -> {
+            }
+        }
+    }
+
+    void flush() {
+        long upTo;
+        synchronized (lock) {
+            upTo = appended;
+        }
+        commit(upTo, true);
+    }
+
+    long syncCount() {
+        synchronized (lock) {
+            return syncs;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (flusher != null) {
+            // Not shutdownNow: interrupting a force in progress would close the channel. The flush below waits for it.
+            flusher.shutdown();
+        }
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void commit(long seq, boolean force) {
+        ByteBuffer batch;
+        long upTo;
+        synchronized (lock) {
+            while (true) {
+                if (failure != null) {
+                    throw new UncheckedIOException(failure);
+                }
+                if ((force ? forced : written) >= seq) {
+                    return;
+                }
+                if (!committing) {
+                    break;
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Avbruten i väntan på journalen.", e);
+                }
+            }
+            committing = true;
+            batch = pending;
+            upTo = appended;
+            pending = spare;
+        }
+        IOException error = null;
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            if (force) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+        synchronized (lock) {
+            batch.clear();
+            spare = batch;
+            committing = false;
+            if (error == null) {
+                written = upTo;
+                if (force) {
+                    forced = upTo;
+                    syncs++;
+                }
+            } else {
+                failure = error;
+            }
+            lock.notifyAll();
+        }
+        if (error != null) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Kept in failure and rethrown to the next writer.
+        }
+    }
+
+    private void encode(byte operation, Product product) {
+        byte[] name = ProductRows.encodeName(product.name());
+        int length = FIXED_PAYLOAD_SIZE + (name == null ? 0 : name.length);
+        if (length > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("Namnet är för långt.");
+        }
+        // Converted before anything is buffered, so a rejected date leaves no partial record behind.
+        int created = ProductRows.epochDay(product.createdDate());
+        int modified = ProductRows.epochDay(product.lastModifiedDate());
+        if (pending.remaining() < HEADER_SIZE + length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + HEADER_SIZE + length));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        int start = pending.position();
+        pending.putInt(length)
+                .putInt(0)
+                .put(operation)
+                .putInt(product.id())
+                .putInt(product.rating())
+                .putInt(created)
+                .putInt(modified)
+                .put(ProductRows.code(product.category()))
+                .putInt(name == null ? ProductRows.NO_NAME : name.length);
+        if (name != null) {
+            pending.put(name);
+        }
+        crc.reset();
+        crc.update(pending.array(), start + HEADER_SIZE, length);
+        pending.putInt(start + 4, (int) crc.getValue());
+    }
+
+    private static Entry decode(ByteBuffer payload) {
+        byte operation = payload.get();
+        if (operation != ADD && operation != UPDATE) {
+            return null;
+        }
+        int id = payload.getInt();
+        int rating = payload.getInt();
+        int created = payload.getInt();
+        int modified = payload.getInt();
+        byte category = payload.get();
+        int nameLength = payload.getInt();
+        if (category < ProductRows.NO_CATEGORY || category >= CATEGORIES.length || nameLength < ProductRows.NO_NAME
+                || payload.remaining() != Math.max(0, nameLength)) {
+            return null;
+        }
+        String name = null;
+        if (nameLength != ProductRows.NO_NAME) {
+            byte[] bytes = new byte[nameLength];
+            payload.get(bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new Entry(operation, new Product(id, name,
+                category == ProductRows.NO_CATEGORY ? null : CATEGORIES[category],
+                rating, ProductRows.date(created), ProductRows.date(modified)));
+    }
+}
@@ -0,0 +1,260 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON form of a product for the HTTP API: {@code {"id":1,"name":"Apple","category":"FRUIT","rating":8,
+ * "createdDate":"2024-01-31","lastModifiedDate":"2024-01-31"}}. Products are written straight to a {@link Writer}
+ * so a list is never built up as one string. Reading accepts one flat object with those fields, any of them
+ * missing or {@code null}.
+ */
+final class ProductJson {
+
+    private static final Set<String> FIELDS = Set.of("id", "name", "category", "rating", "createdDate",
+            "lastModifiedDate");
+
+    private ProductJson() {
+    }
+
+    static void write(Product product, Writer out) throws IOException {
+        out.write("{\"id\":");
+        out.write(Integer.toString(product.id()));
+        out.write(",\"name\":");
+        writeString(product.name(), out);
+        out.write(",\"category\":");
+        writeString(product.category() == null ? null : product.category().name(), out);
+        out.write(",\"rating\":");
+        out.write(Integer.toString(product.rating()));
+        out.write(",\"createdDate\":");
+        writeString(product.createdDate() == null ? null : product.createdDate().toString(), out);
+        out.write(",\"lastModifiedDate\":");
+        writeString(product.lastModifiedDate() == null ? null : product.lastModifiedDate().toString(), out);
+        out.write('}');
+    }
+
+    static void writeArray(Iterator<Product> products, Writer out) throws IOException {
+        out.write('[');
+        boolean first = true;
+        while (products.hasNext()) {
+            if (!first) {
+                out.write(',');
+            }
+            write(products.next(), out);
+            first = false;
+        }
+        out.write(']');
+    }
+
+    static void writeError(String message, Writer out) throws IOException {
+        out.write("{\"error\":");
+        writeString(message, out);
+        out.write('}');
+    }
+
+    static void writeString(String value, Writer out) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * The fields of one product object. Throws {@link IllegalArgumentException} for anything else.
+     */
+    static Fields read(String json) {
+        Map<String, Object> values = new Parser(json).object();
+        try {
+            return new Fields(
+                    (Integer) values.get("id"),
+                    (String) values.get("name"),
+                    category((String) values.get("category")),
+                    (Integer) values.get("rating"),
+                    date((String) values.get("createdDate")),
+                    date((String) values.get("lastModifiedDate")));
+        } catch (ClassCastException e) {
+            throw new IllegalArgumentException("Fel typ på ett fält i produkten.");
+        }
+    }
+
+    static Category category(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Category.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Okänd kategori: " + name);
+        }
+    }
+
+    static LocalDate date(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Datum måste anges som ÅÅÅÅ-MM-DD.");
+        }
+    }
+
+    /**
+     * A product as sent by a client; fields it left out are {@code null}.
+     */
+    record Fields(Integer id, String name, Category category, Integer rating, LocalDate createdDate,
+                  LocalDate lastModifiedDate) {
+    }
+
+    // Just enough JSON for one flat object of strings, integers and nulls.
+    private static final class Parser {
+
+        private final String json;
+        private int at;
+
+        Parser(String json) {
+            this.json = json;
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> values = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                at++;
+            } else {
+                do {
+                    String key = string();
+                    expect(':');
+                    if (!FIELDS.contains(key)) {
+                        throw new IllegalArgumentException("Okänt fält: " + key);
+                    }
+                    values.put(key, value());
+                } while (next() == ',');
+                at--;
+                expect('}');
+            }
+            if (peek() != 0) {
+                throw invalid();
+            }
+            return values;
+        }
+
+        private Object value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (json.startsWith("null", at)) {
+                at += 4;
+                return null;
+            }
+            int start = at;
+            if (c == '-') {
+                at++;
+            }
+            while (at < json.length() && Character.isDigit(json.charAt(at))) {
+                at++;
+            }
+            try {
+                return Integer.parseInt(json.substring(start, at));
+            } catch (NumberFormatException e) {
+                throw invalid();
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (at >= json.length()) {
+                    throw invalid();
+                }
+                char c = json.charAt(at++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (at >= json.length()) {
+                    throw invalid();
+                }
+                char escaped = json.charAt(at++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (at + 4 > json.length()) {
+                            throw invalid();
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(json.substring(at, at + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw invalid();
+                        }
+                        at += 4;
+                    }
+                    default -> throw invalid();
+                }
+            }
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw invalid();
+            }
+        }
+
+        private char next() {
+            char c = peek();
+            at++;
+            return c;
+        }
+
+        // The next non-blank character without consuming it, or 0 at the end.
+        private char peek() {
+            while (at < json.length() && Character.isWhitespace(json.charAt(at))) {
+                at++;
+            }
+            return at < json.length() ? json.charAt(at) : 0;
+        }
+
+        private static IllegalArgumentException invalid() {
+            return new IllegalArgumentException("Ogiltig JSON.");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.service;
+
+import org.entities.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated query. Pass {@code nextCursor} back to get the following page;
+ * it is {@code null} on the last page.
+ */
+public record ProductPage(List<Product> products, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    // Takes up to limit products and, if more remain, a cursor just after the last one taken.
+    static ProductPage collect(Iterator<Product> products, int limit, Function<Product, PageCursor> cursorOf) {
+        List<Product> page = new ArrayList<>(Math.min(limit, 1024));
+        while (page.size() < limit && products.hasNext()) {
+            page.add(products.next());
+        }
+        String next = products.hasNext() ? cursorOf.apply(page.getLast()).encode() : null;
+        return new ProductPage(Collections.unmodifiableList(page), next);
+    }
+}
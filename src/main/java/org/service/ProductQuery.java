@@ -0,0 +1,401 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.index.BitmapIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Conditions on {@link Product} fields that must all hold, with an optional sort order and limit.
+ * Run it with {@link Warehouse#find(ProductQuery)}; {@link Warehouse#explain(ProductQuery)} shows the plan.
+ * Without a sort order, rows come in the order of the chosen {@link AccessPath}.
+ */
+public final class ProductQuery {
+
+    public enum Sort {
+        ID(Comparator.comparingInt(Product::id)),
+        NAME(Comparator.comparing(Product::name, Comparator.nullsFirst(Comparator.naturalOrder()))),
+        CATEGORY(Comparator.comparing(Product::category, Comparator.nullsFirst(Comparator.naturalOrder()))),
+        RATING(Comparator.comparingInt(Product::rating)),
+        CREATED_DATE(Comparator.comparing(Product::createdDate, Comparator.nullsFirst(Comparator.naturalOrder()))),
+        LAST_MODIFIED_DATE(Comparator.comparing(Product::lastModifiedDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        private final Comparator<Product> comparator;
+
+        Sort(Comparator<Product> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    // One condition; coveredBy are the access paths that already guarantee it.
+    record Filter(String description, Set<AccessPath> coveredBy, Predicate<Product> test) {
+    }
+
+    private final Integer id;
+    private final boolean byCategory;
+    private final Category category;
+    private final Set<Category> categories;
+    private final Integer minRating;
+    private final Integer maxRating;
+    private final LocalDate createdFrom;
+    private final LocalDate createdBefore;
+    private final List<Filter> filters;
+    private final Sort sort;
+    private final boolean descending;
+    private final int limit;
+
+    private ProductQuery(Builder builder, List<Filter> filters) {
+        this.id = builder.id;
+        this.byCategory = builder.byCategory;
+        this.category = builder.category;
+        this.categories = builder.categories;
+        this.minRating = builder.minRating;
+        this.maxRating = builder.maxRating;
+        this.createdFrom = builder.createdFrom;
+        this.createdBefore = builder.createdBefore;
+        this.filters = List.copyOf(filters);
+        this.sort = builder.sort;
+        this.descending = builder.descending;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    Integer id() {
+        return id;
+    }
+
+    boolean byCategory() {
+        return byCategory;
+    }
+
+    Category category() {
+        return category;
+    }
+
+    /**
+     * The categories of {@link Builder#categoryIn}, or {@code null}.
+     */
+    Set<Category> categories() {
+        return categories;
+    }
+
+    boolean byRating() {
+        return minRating != null || maxRating != null;
+    }
+
+    int minRating() {
+        return minRating == null ? Integer.MIN_VALUE : minRating;
+    }
+
+    int maxRating() {
+        return maxRating == null ? Integer.MAX_VALUE : maxRating;
+    }
+
+    LocalDate createdFrom() {
+        return createdFrom;
+    }
+
+    LocalDate createdBefore() {
+        return createdBefore;
+    }
+
+    boolean byCreatedDate() {
+        return createdFrom != null || createdBefore != null;
+    }
+
+    List<Filter> filters() {
+        return filters;
+    }
+
+    Sort sort() {
+        return sort;
+    }
+
+    boolean descending() {
+        return descending;
+    }
+
+    /**
+     * The most rows to return, or 0 for all of them.
+     */
+    int limit() {
+        return limit;
+    }
+
+    Comparator<Product> comparator() {
+        return descending ? sort.comparator.reversed() : sort.comparator;
+    }
+
+    String describeSort() {
+        return sort == null ? "" : sort.name().toLowerCase() + (descending ? " desc" : " asc");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (Filter filter : filters) {
+            out.append(out.isEmpty() ? "" : " AND ").append(filter.description());
+        }
+        if (out.isEmpty()) {
+            out.append("all");
+        }
+        if (sort != null) {
+            out.append(" order by ").append(describeSort());
+        }
+        if (limit > 0) {
+            out.append(" limit ").append(limit);
+        }
+        return out.toString();
+    }
+
+    public static final class Builder {
+
+        private Integer id;
+        private boolean byCategory;
+        private Category category;
+        private Set<Category> categories;
+        private String name;
+        private String namePrefix;
+        private String nameSubstring;
+        private Integer minRating;
+        private Integer maxRating;
+        private LocalDate createdFrom;
+        private LocalDate createdBefore;
+        private LocalDate modifiedFrom;
+        private LocalDate modifiedBefore;
+        private boolean modifiedSinceCreation;
+        private final List<Filter> custom = new ArrayList<>();
+        private Sort sort;
+        private boolean descending;
+        private int limit;
+
+        private Builder() {
+        }
+
+        public Builder id(int id) {
+            this.id = id;
+            return this;
+        }
+
+        /**
+         * Products in {@code category}; {@code null} selects products without a category.
+         */
+        public Builder category(Category category) {
+            this.byCategory = true;
+            this.category = category;
+            return this;
+        }
+
+        /**
+         * Products in any of {@code categories}.
+         */
+        public Builder categoryIn(Category... categories) {
+            if (categories.length == 0) {
+                throw new IllegalArgumentException("Du måste ange minst en kategori.");
+            }
+            this.categories = Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(categories)));
+            return this;
+        }
+
+        public Builder name(String name) {
+            this.name = Objects.requireNonNull(name, "Name cannot be null");
+            return this;
+        }
+
+        public Builder nameStartsWith(String prefix) {
+            this.namePrefix = Objects.requireNonNull(prefix, "Prefix cannot be null");
+            return this;
+        }
+
+        public Builder nameContains(String substring) {
+            this.nameSubstring = Objects.requireNonNull(substring, "Substring cannot be null");
+            return this;
+        }
+
+        public Builder rating(int rating) {
+            return ratingBetween(rating, rating);
+        }
+
+        public Builder ratingBetween(int minRating, int maxRating) {
+            this.minRating = minRating;
+            this.maxRating = maxRating;
+            return this;
+        }
+
+        public Builder ratingAtLeast(int minRating) {
+            this.minRating = minRating;
+            return this;
+        }
+
+        public Builder ratingAtMost(int maxRating) {
+            this.maxRating = maxRating;
+            return this;
+        }
+
+        /**
+         * Created on or after {@code from}.
+         */
+        public Builder createdFrom(LocalDate from) {
+            this.createdFrom = Objects.requireNonNull(from, "Date cannot be null");
+            return this;
+        }
+
+        /**
+         * Created strictly before {@code to}.
+         */
+        public Builder createdBefore(LocalDate to) {
+            this.createdBefore = Objects.requireNonNull(to, "Date cannot be null");
+            return this;
+        }
+
+        /**
+         * Last modified on or after {@code from}.
+         */
+        public Builder modifiedFrom(LocalDate from) {
+            this.modifiedFrom = Objects.requireNonNull(from, "Date cannot be null");
+            return this;
+        }
+
+        /**
+         * Last modified strictly before {@code to}.
+         */
+        public Builder modifiedBefore(LocalDate to) {
+            this.modifiedBefore = Objects.requireNonNull(to, "Date cannot be null");
+            return this;
+        }
+
+        /**
+         * Products whose last modified date differs from their created date.
+         */
+        public Builder modifiedSinceCreation() {
+            this.modifiedSinceCreation = true;
+            return this;
+        }
+
+        /**
+         * Any other condition; {@code description} is what {@link QueryPlan#explain()} shows for it.
+         */
+        public Builder where(String description, Predicate<Product> condition) {
+            custom.add(new Filter(Objects.requireNonNull(description, "Description cannot be null"), Set.of(),
+                    Objects.requireNonNull(condition, "Condition cannot be null")));
+            return this;
+        }
+
+        public Builder orderBy(Sort sort) {
+            this.sort = Objects.requireNonNull(sort, "Sort cannot be null");
+            this.descending = false;
+            return this;
+        }
+
+        public Builder orderByDescending(Sort sort) {
+            this.sort = Objects.requireNonNull(sort, "Sort cannot be null");
+            this.descending = true;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Gränsen måste vara ett positivt tal.");
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public ProductQuery build() {
+            if (minRating != null && maxRating != null && maxRating < minRating) {
+                throw new IllegalArgumentException("Högsta betyget får inte vara lägre än lägsta betyget.");
+            }
+            if (createdFrom != null && createdBefore != null && createdBefore.isBefore(createdFrom)) {
+                throw new IllegalArgumentException("Slutdatumet får inte vara före startdatumet.");
+            }
+            if (modifiedFrom != null && modifiedBefore != null && modifiedBefore.isBefore(modifiedFrom)) {
+                throw new IllegalArgumentException("Slutdatumet får inte vara före startdatumet.");
+            }
+
+            List<Filter> filters = new ArrayList<>();
+            if (id != null) {
+                int wanted = id;
+                filters.add(new Filter("id = " + wanted, Set.of(AccessPath.ID), product -> product.id() == wanted));
+            }
+            if (byCategory) {
+                Category wanted = category;
+                filters.add(new Filter("category = " + wanted, Set.of(AccessPath.CATEGORY, AccessPath.BITMAP),
+                        product -> product.category() == wanted));
+            }
+            if (categories != null) {
+                Set<Category> wanted = categories;
+                filters.add(new Filter("category in " + wanted, Set.of(AccessPath.BITMAP),
+                        product -> wanted.contains(product.category())));
+            }
+            if (name != null) {
+                String wanted = name;
+                filters.add(new Filter("name = '" + wanted + "'", Set.of(), product -> wanted.equals(product.name())));
+            }
+            if (namePrefix != null) {
+                String prefix = namePrefix;
+                filters.add(new Filter("name starts with '" + prefix + "'", Set.of(),
+                        product -> product.name() != null && product.name().startsWith(prefix)));
+            }
+            if (nameSubstring != null) {
+                String substring = nameSubstring;
+                filters.add(new Filter("name contains '" + substring + "'", Set.of(),
+                        product -> product.name() != null && product.name().contains(substring)));
+            }
+            if (minRating != null && maxRating != null) {
+                int min = minRating;
+                int max = maxRating;
+                // The bitmap index only answers ratings exactly within 0-10.
+                Set<AccessPath> coveredBy = min >= 0 && max <= BitmapIndex.MAX_RATING
+                        ? Set.of(AccessPath.BITMAP)
+                        : Set.of();
+                filters.add(new Filter(min + " <= rating <= " + max, coveredBy,
+                        product -> product.rating() >= min && product.rating() <= max));
+            } else if (minRating != null) {
+                int min = minRating;
+                filters.add(new Filter("rating >= " + min, Set.of(), product -> product.rating() >= min));
+            } else if (maxRating != null) {
+                int max = maxRating;
+                filters.add(new Filter("rating <= " + max, Set.of(), product -> product.rating() <= max));
+            }
+            if (createdFrom != null) {
+                LocalDate from = createdFrom;
+                filters.add(new Filter("createdDate >= " + from, Set.of(AccessPath.CREATED_DATE),
+                        product -> product.createdDate() != null && !product.createdDate().isBefore(from)));
+            }
+            if (createdBefore != null) {
+                LocalDate to = createdBefore;
+                filters.add(new Filter("createdDate < " + to, Set.of(AccessPath.CREATED_DATE),
+                        product -> product.createdDate() != null && product.createdDate().isBefore(to)));
+            }
+            if (modifiedFrom != null) {
+                LocalDate from = modifiedFrom;
+                filters.add(new Filter("lastModifiedDate >= " + from, Set.of(),
+                        product -> product.lastModifiedDate() != null && !product.lastModifiedDate().isBefore(from)));
+            }
+            if (modifiedBefore != null) {
+                LocalDate to = modifiedBefore;
+                filters.add(new Filter("lastModifiedDate < " + to, Set.of(),
+                        product -> product.lastModifiedDate() != null && product.lastModifiedDate().isBefore(to)));
+            }
+            if (modifiedSinceCreation) {
+                filters.add(new Filter("createdDate != lastModifiedDate", Set.of(),
+                        product -> !Objects.equals(product.createdDate(), product.lastModifiedDate())));
+            }
+            filters.addAll(custom);
+            return new ProductQuery(this, filters);
+        }
+    }
+}
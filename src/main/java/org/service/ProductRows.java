@@ -0,0 +1,143 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Fixed 32-byte row layout shared by the native-memory stores. Names live in a separate byte area and
+ * rows only hold their offset and length. Everything is little-endian so files are portable.
+ */
+final class ProductRows {
+
+    static final long SIZE = 32;
+
+    static final byte NO_CATEGORY = -1;
+    static final byte DELETED = -2;
+    static final int NO_DATE = Integer.MIN_VALUE;
+    static final int NO_NAME = -1;
+
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ID = 0;
+    private static final long RATING = 4;
+    private static final long CREATED = 8;
+    private static final long MODIFIED = 12;
+    private static final long NAME_OFFSET = 16;
+    private static final long NAME_LENGTH = 24;
+    private static final long CATEGORY = 28;
+
+    private static final Category[] CATEGORIES = Category.values();
+
+    private ProductRows() {
+    }
+
+    static void write(MemorySegment rows, long base, Product product, long nameOffset, int nameLength) {
+        rows.set(INT, base + ID, product.id());
+        rows.set(INT, base + RATING, product.rating());
+        rows.set(INT, base + CREATED, epochDay(product.createdDate()));
+        rows.set(INT, base + MODIFIED, epochDay(product.lastModifiedDate()));
+        rows.set(LONG, base + NAME_OFFSET, nameOffset);
+        rows.set(INT, base + NAME_LENGTH, nameLength);
+        rows.set(ValueLayout.JAVA_BYTE, base + CATEGORY, code(product.category()));
+    }
+
+    static Product read(MemorySegment rows, long base, MemorySegment names, long namesBase) {
+        byte category = category(rows, base);
+        return new Product(
+                id(rows, base),
+                name(rows, base, names, namesBase),
+                category == NO_CATEGORY ? null : CATEGORIES[category],
+                rating(rows, base),
+                date(created(rows, base)),
+                date(rows.get(INT, base + MODIFIED)));
+    }
+
+    static int id(MemorySegment rows, long base) {
+        return rows.get(INT, base + ID);
+    }
+
+    static int rating(MemorySegment rows, long base) {
+        return rows.get(INT, base + RATING);
+    }
+
+    static int created(MemorySegment rows, long base) {
+        return rows.get(INT, base + CREATED);
+    }
+
+    static byte category(MemorySegment rows, long base) {
+        return rows.get(ValueLayout.JAVA_BYTE, base + CATEGORY);
+    }
+
+    static void markDeleted(MemorySegment rows, long base) {
+        rows.set(ValueLayout.JAVA_BYTE, base + CATEGORY, DELETED);
+    }
+
+    static long nameOffset(MemorySegment rows, long base) {
+        return rows.get(LONG, base + NAME_OFFSET);
+    }
+
+    static int nameLength(MemorySegment rows, long base) {
+        return rows.get(INT, base + NAME_LENGTH);
+    }
+
+    static void moveName(MemorySegment rows, long base, long nameOffset) {
+        rows.set(LONG, base + NAME_OFFSET, nameOffset);
+    }
+
+    static byte[] encodeName(String name) {
+        return name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte code(Category category) {
+        return category == null ? NO_CATEGORY : (byte) category.ordinal();
+    }
+
+    /**
+     * Throws {@link IllegalArgumentException} if {@code product} cannot be written as a row. Stores call this before
+     * changing anything, so a rejected product leaves them as they were.
+     */
+    static void validate(Product product) {
+        epochDay(product.createdDate());
+        epochDay(product.lastModifiedDate());
+    }
+
+    static int epochDay(LocalDate date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        long day = date.toEpochDay();
+        if (day <= NO_DATE || day > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Datumet " + date + " ligger utanför det som kan lagras.");
+        }
+        return (int) day;
+    }
+
+    /**
+     * A query bound as a stored day. Any date is accepted; those beyond the stored range become its ends, where
+     * {@link #NO_DATE} below every stored day matches nothing.
+     */
+    static int boundDay(long epochDay) {
+        return Math.clamp(epochDay, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    static LocalDate date(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static String name(MemorySegment rows, long base, MemorySegment names, long namesBase) {
+        int length = nameLength(rows, base);
+        if (length == NO_NAME) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(names, namesBase + nameOffset(rows, base), MemorySegment.ofArray(bytes), 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
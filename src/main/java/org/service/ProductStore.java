@@ -0,0 +1,242 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.index.ModifiedDateIndex;
+import org.index.NameSearchIndex;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Storage and indexes behind a {@link Warehouse}.
+ */
+interface ProductStore {
+
+    int size();
+
+    /**
+     * Whether reads and writes may come from several threads at once.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    Product get(int id);
+
+    void insert(Product product);
+
+    Product upsert(Product product);
+
+    /**
+     * Inserts the products in order. A product that cannot be inserted is passed to {@code rejected} together with
+     * its index in the list, and the rest are still inserted.
+     */
+    default void insertAll(List<Product> products, ObjIntConsumer<IllegalArgumentException> rejected) {
+        for (int i = 0; i < products.size(); i++) {
+            try {
+                insert(products.get(i));
+            } catch (IllegalArgumentException e) {
+                rejected.accept(e, i);
+            }
+        }
+    }
+
+    List<Product> toList();
+
+    Stream<Product> stream();
+
+    List<Product> byCategory(Category category);
+
+    List<Product> createdFrom(LocalDate from);
+
+    List<Product> createdBetween(LocalDate from, LocalDate to);
+
+    List<Product> byRating(int minRating, int maxRating);
+
+    /**
+     * Products whose last modified date differs from their created date, by last modified date and then insertion
+     * order. The default scans every product; indexed stores keep this set up to date as products change.
+     */
+    default List<Product> modified() {
+        return stream()
+                .filter(ModifiedDateIndex::isModified)
+                .sorted(Comparator.comparing(Product::lastModifiedDate, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    /**
+     * The part of {@link #modified()} last modified on or after {@code from}.
+     */
+    default List<Product> modifiedFrom(LocalDate from) {
+        return stream()
+                .filter(product -> ModifiedDateIndex.isModified(product)
+                        && product.lastModifiedDate() != null && !product.lastModifiedDate().isBefore(from))
+                .sorted(Comparator.comparing(Product::lastModifiedDate))
+                .toList();
+    }
+
+    /**
+     * Up to {@code limit} products in {@code category}, highest rating first, then by name and insertion order.
+     * The default keeps a bounded heap over {@link #byCategory}, which is already in name order; indexed stores
+     * read the result straight off a rating-ordered index.
+     */
+    default List<Product> topRated(Category category, int limit) {
+        List<Product> candidates = byCategory(category);
+        // Positions in the name-ordered list break rating ties; the heap's head is the worst product kept.
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(limit, candidates.size()) + 1,
+                Comparator.<Integer>comparingInt(i -> candidates.get(i).rating()).thenComparing(Comparator.reverseOrder()));
+        for (int i = 0; i < candidates.size(); i++) {
+            heap.add(i);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        Product[] top = new Product[heap.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = candidates.get(heap.poll());
+        }
+        return List.of(top);
+    }
+
+    /**
+     * Up to {@code limit} products whose name contains {@code text}, ignoring case, best matches first as ranked by
+     * {@link NameSearchIndex#search}. The default checks every name; indexed stores look the text up in the index.
+     */
+    default List<Product> searchByName(String text, int limit) {
+        return NameSearchIndex.best(stream().iterator(), NameSearchIndex.normalize(text), limit);
+    }
+
+    /**
+     * {@link #byCategory} as a stream. The default materializes the list; index-backed stores read lazily.
+     */
+    default Stream<Product> streamByCategory(Category category) {
+        return byCategory(category).stream();
+    }
+
+    /**
+     * {@link #createdFrom} as a stream. The default materializes the list; index-backed stores read lazily.
+     */
+    default Stream<Product> streamCreatedFrom(LocalDate from) {
+        return createdFrom(from).stream();
+    }
+
+    /**
+     * The page of {@link #byCategory} that follows {@code after}, or the first page when it is {@code null}.
+     * The default runs the full query and resumes after the cursor's product id, which suits stores that scan anyway.
+     */
+    default ProductPage pageByCategory(Category category, PageCursor after, int limit) {
+        List<Product> sorted = byCategory(category);
+        if (after != null) {
+            sorted = resumeAfter(sorted, Product::name, Comparator.nullsFirst(Comparator.naturalOrder()),
+                    after.name(), (int) after.position());
+        }
+        return ProductPage.collect(sorted.iterator(), limit, last -> new PageCursor(last.name(), null, last.id()));
+    }
+
+    /**
+     * The page of {@link #createdFrom} that follows {@code after}, or the first page when it is {@code null}.
+     */
+    default ProductPage pageCreatedFrom(LocalDate from, PageCursor after, int limit) {
+        List<Product> sorted = createdFrom(from);
+        if (after != null) {
+            sorted = resumeAfter(sorted, Product::createdDate, Comparator.nullsFirst(Comparator.naturalOrder()),
+                    after.date(), (int) after.position());
+        }
+        return ProductPage.collect(sorted.iterator(), limit, last -> new PageCursor(null, last.createdDate(), last.id()));
+    }
+
+    /**
+     * About how many rows reading {@code path} for {@code query} yields, or -1 when this store has no index for it.
+     * By default only id lookups and full scans are available.
+     */
+    default long estimate(AccessPath path, ProductQuery query) {
+        return switch (path) {
+            case ID -> get(query.id()) == null ? 0 : 1;
+            case FULL_SCAN -> size();
+            default -> -1;
+        };
+    }
+
+    /**
+     * The candidate rows for {@code query} through {@code path}, in the path's order. Only called for paths that
+     * {@link #estimate} accepts.
+     */
+    default Stream<Product> read(AccessPath path, ProductQuery query) {
+        return switch (path) {
+            case ID -> Stream.ofNullable(get(query.id()));
+            case CATEGORY -> streamByCategory(query.category());
+            case CREATED_DATE -> {
+                Stream<Product> from = streamCreatedFrom(query.createdFrom() == null ? LocalDate.MIN : query.createdFrom());
+                LocalDate to = query.createdBefore();
+                yield to == null ? from : from.takeWhile(product -> product.createdDate().isBefore(to));
+            }
+            case BITMAP -> {
+                // Without a bitmap index, the conditions it would narrow down are checked row by row.
+                Stream<Product> rows = stream();
+                for (ProductQuery.Filter filter : query.filters()) {
+                    if (filter.coveredBy().contains(AccessPath.BITMAP)) {
+                        rows = rows.filter(filter.test());
+                    }
+                }
+                yield rows;
+            }
+            case FULL_SCAN -> stream();
+        };
+    }
+
+    /**
+     * Exactly how many rows {@link #read} would return for {@code path}.
+     */
+    default long count(AccessPath path, ProductQuery query) {
+        return switch (path) {
+            case ID, FULL_SCAN -> estimate(path, query);
+            default -> read(path, query).count();
+        };
+    }
+
+    /**
+     * How many stored rows answering {@code operation} examined, given that it returned {@code rowsReturned}.
+     * Only asked when a query is traced, so it may cost more than the query. The default fits stores with
+     * id, category and created date indexes that snapshot {@link #toList()} without copying.
+     */
+    default long rowsScanned(WarehouseOperation operation, int rowsReturned) {
+        return switch (operation) {
+            case GET_PRODUCTS -> 0;
+            case FIND_PRODUCT_BY_ID -> 1;
+            case FILTER_PRODUCTS_BY_CATEGORY, FIND_PRODUCTS_FROM_CREATED_DATE, FIND_PRODUCTS_CREATED_BETWEEN,
+                 FILTER_PRODUCTS_BY_CATEGORY_PAGE, FIND_PRODUCTS_FROM_CREATED_DATE_PAGE,
+                 FIND_AND_PRINT_MISMATCHED_PRODUCTS, FIND_MODIFIED_PRODUCTS, FIND_PRODUCTS_MODIFIED_SINCE,
+                 FIND_TOP_RATED_PRODUCTS -> rowsReturned;
+            default -> size();
+        };
+    }
+
+    // Products after the one with this key and id; if it is gone, after every product with this key.
+    private static <K> List<Product> resumeAfter(List<Product> sorted, Function<Product, K> keyOf, Comparator<K> order,
+                                                 K key, int id) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(keyOf.apply(sorted.get(mid)), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int start = low;
+        for (int i = low; i < sorted.size() && order.compare(keyOf.apply(sorted.get(i)), key) == 0; i++) {
+            start = i + 1;
+            if (sorted.get(i).id() == id) {
+                break;
+            }
+        }
+        return sorted.subList(start, sorted.size());
+    }
+}
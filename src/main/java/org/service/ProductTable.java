@@ -0,0 +1,104 @@
+package org.service;
+
+import org.entities.Product;
+import org.index.IntObjectMap;
+import org.index.PersistentSortedMap;
+import org.index.ProductIndex;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Products keyed by id, kept in insertion order.
+ * Replacing a product moves it to the end, like a remove followed by an add.
+ * Every change is forwarded to the secondary indexes given at construction.
+ */
+final class ProductTable implements Iterable<Product> {
+
+    private record Stored(Product product, long seq) {
+    }
+
+    private final IntObjectMap<Stored> byId = new IntObjectMap<>();
+    private final ProductIndex[] indexes;
+    private PersistentSortedMap<Long, Product> order = PersistentSortedMap.empty(Comparator.naturalOrder());
+    private long nextSeq;
+
+    ProductTable(ProductIndex... indexes) {
+        this.indexes = indexes.clone();
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    Product get(int id) {
+        Stored stored = byId.get(id);
+        return stored == null ? null : stored.product();
+    }
+
+    // Sequence number of the stored version of a product, as handed to the indexes.
+    long seqOf(int id) {
+        Stored stored = byId.get(id);
+        if (stored == null) {
+            throw new IllegalArgumentException("Produkt med ID " + id + " hittades ej.");
+        }
+        return stored.seq();
+    }
+
+    // The product stored under a sequence number, or null if that version has been replaced.
+    Product bySeq(long seq) {
+        return order.get(seq);
+    }
+
+    boolean contains(int id) {
+        return byId.containsKey(id);
+    }
+
+    void insert(Product product) {
+        if (byId.containsKey(product.id())) {
+            throw new IllegalArgumentException("Produkt med ID " + product.id() + " finns redan.");
+        }
+        append(product);
+    }
+
+    Product upsert(Product product) {
+        Stored previous = byId.get(product.id());
+        if (previous == null) {
+            append(product);
+            return null;
+        }
+        for (ProductIndex index : indexes) {
+            index.remove(previous.product(), previous.seq());
+        }
+        order = order.remove(previous.seq());
+        append(product);
+        return previous.product();
+    }
+
+    /**
+     * Immutable point-in-time view in insertion order. Later writes build a new version and leave this one untouched.
+     */
+    List<Product> snapshot() {
+        return order.values();
+    }
+
+    Stream<Product> stream() {
+        return snapshot().stream();
+    }
+
+    @Override
+    public Iterator<Product> iterator() {
+        return snapshot().iterator();
+    }
+
+    private void append(Product product) {
+        long seq = nextSeq++;
+        byId.put(product.id(), new Stored(product, seq));
+        order = order.put(seq, product);
+        for (ProductIndex index : indexes) {
+            index.insert(product, seq);
+        }
+    }
+}
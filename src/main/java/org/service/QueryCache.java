@@ -0,0 +1,134 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Least-recently-used cache of category and created-date query results, capped by an estimate of their memory.
+ * A change drops only the entries whose category or date range contains the old or new version of the product.
+ * <p>
+ * Results are loaded outside the lock. Every invalidation bumps an epoch, and a result is only kept if the epoch
+ * has not moved while it was loaded, so a result read before a concurrent write is never cached after it.
+ */
+final class QueryCache {
+
+    // Rough sizes on a 64-bit JVM with compressed references; names are counted as Latin-1 strings.
+    private static final long ENTRY_BYTES = 128;
+    private static final long PRODUCT_BYTES = 96;
+
+    private record Key(WarehouseOperation operation, Object first, Object second) {
+
+        boolean touches(Product product) {
+            return switch (operation) {
+                case FILTER_PRODUCTS_BY_CATEGORY -> Objects.equals(first, product.category());
+                case FIND_PRODUCTS_FROM_CREATED_DATE -> product.createdDate() == null
+                        || !product.createdDate().isBefore((LocalDate) first);
+                case FIND_PRODUCTS_CREATED_BETWEEN -> product.createdDate() == null
+                        || !product.createdDate().isBefore((LocalDate) first)
+                        && product.createdDate().isBefore((LocalDate) second);
+                default -> true;
+            };
+        }
+    }
+
+    private record Entry(List<Product> products, long bytes) {
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+    private long epoch;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    QueryCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cachens storlek måste vara ett positivt tal.");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    List<Product> byCategory(Category category, Supplier<List<Product>> loader) {
+        return get(new Key(WarehouseOperation.FILTER_PRODUCTS_BY_CATEGORY, category, null), loader);
+    }
+
+    List<Product> createdFrom(LocalDate from, Supplier<List<Product>> loader) {
+        return get(new Key(WarehouseOperation.FIND_PRODUCTS_FROM_CREATED_DATE, from, null), loader);
+    }
+
+    List<Product> createdBetween(LocalDate from, LocalDate to, Supplier<List<Product>> loader) {
+        return get(new Key(WarehouseOperation.FIND_PRODUCTS_CREATED_BETWEEN, from, to), loader);
+    }
+
+    /**
+     * Drops the entries that {@code previous}, if any, or {@code current} belongs to. Call after the store has
+     * been changed.
+     */
+    synchronized void changed(Product previous, Product current) {
+        epoch++;
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> entry = it.next();
+            if (entry.getKey().touches(current) || previous != null && entry.getKey().touches(previous)) {
+                bytes -= entry.getValue().bytes();
+                invalidations++;
+                it.remove();
+            }
+        }
+    }
+
+    synchronized QueryCacheStats stats() {
+        return new QueryCacheStats(hits, misses, evictions, invalidations, entries.size(), bytes, maxBytes);
+    }
+
+    private List<Product> get(Key key, Supplier<List<Product>> loader) {
+        long loadedAt;
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached.products();
+            }
+            misses++;
+            loadedAt = epoch;
+        }
+        List<Product> products = List.copyOf(loader.get());
+        long size = estimateBytes(products);
+        synchronized (this) {
+            if (loadedAt == epoch && size <= maxBytes && !entries.containsKey(key)) {
+                entries.put(key, new Entry(products, size));
+                bytes += size;
+                evict();
+            }
+        }
+        return products;
+    }
+
+    // Oldest entries first, which is least recently used since the map is in access order.
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= it.next().bytes();
+            evictions++;
+            it.remove();
+        }
+    }
+
+    private static long estimateBytes(List<Product> products) {
+        long size = ENTRY_BYTES;
+        for (Product product : products) {
+            size += PRODUCT_BYTES + (product.name() == null ? 0 : product.name().length());
+        }
+        return size;
+    }
+}
@@ -0,0 +1,16 @@
+package org.service;
+
+/**
+ * Counters of a warehouse's query result cache since it was enabled. Evictions are entries dropped to stay under
+ * the memory cap; invalidations are entries dropped because a change touched their category or dates.
+ */
+public record QueryCacheStats(long hits, long misses, long evictions, long invalidations, int entries,
+                              long estimatedBytes, long maxBytes) {
+
+    static final QueryCacheStats DISABLED = new QueryCacheStats(0, 0, 0, 0, 0, 0, 0);
+
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
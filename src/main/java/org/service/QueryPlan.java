@@ -0,0 +1,31 @@
+package org.service;
+
+import java.util.List;
+
+/**
+ * How a warehouse answers a {@link ProductQuery}: the access path that produces candidate rows, about how many
+ * rows it reads, the residual filters checked on each candidate, and whether the result still has to be sorted.
+ */
+public record QueryPlan(ProductQuery query, AccessPath accessPath, long estimatedRows, List<String> accessConditions,
+                        List<String> residualFilters, boolean sorts) {
+
+    /**
+     * The plan as a few readable lines.
+     */
+    public String explain() {
+        StringBuilder out = new StringBuilder();
+        out.append("Åtkomst:   ").append(accessPath);
+        if (!accessConditions.isEmpty()) {
+            out.append(" [").append(String.join(" AND ", accessConditions)).append(']');
+        }
+        out.append(", ca ").append(estimatedRows).append(" rader").append(System.lineSeparator());
+        out.append("Filter:    ").append(residualFilters.isEmpty() ? "-" : String.join(" AND ", residualFilters))
+                .append(System.lineSeparator());
+        out.append("Sortering: ").append(query.sort() == null ? "-" : query.describeSort()
+                        + (sorts ? "" : " (given av åtkomstvägen)"))
+                .append(System.lineSeparator());
+        out.append("Gräns:     ").append(query.limit() == 0 ? "-" : String.valueOf(query.limit()))
+                .append(System.lineSeparator());
+        return out.toString();
+    }
+}
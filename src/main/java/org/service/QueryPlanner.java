@@ -0,0 +1,87 @@
+package org.service;
+
+import org.entities.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Picks the access path a {@link ProductStore} estimates to read the fewest rows for a query, and evaluates the
+ * query's other conditions as residual filters on what that path returns.
+ */
+final class QueryPlanner {
+
+    private QueryPlanner() {
+    }
+
+    static QueryPlan plan(ProductStore store, ProductQuery query) {
+        AccessPath best = AccessPath.FULL_SCAN;
+        long bestRows = store.estimate(AccessPath.FULL_SCAN, query);
+        for (AccessPath path : AccessPath.values()) {
+            if (path == AccessPath.FULL_SCAN || !applies(path, query)) {
+                continue;
+            }
+            long rows = store.estimate(path, query);
+            if (rows >= 0 && (rows < bestRows || best == AccessPath.FULL_SCAN && rows == bestRows)) {
+                best = path;
+                bestRows = rows;
+            }
+        }
+
+        List<String> accessConditions = new ArrayList<>();
+        List<String> residualFilters = new ArrayList<>();
+        for (ProductQuery.Filter filter : query.filters()) {
+            (filter.coveredBy().contains(best) ? accessConditions : residualFilters).add(filter.description());
+        }
+        boolean sorts = query.sort() != null && (query.descending() || !best.isOrderedBy(query.sort()));
+        return new QueryPlan(query, best, bestRows, List.copyOf(accessConditions), List.copyOf(residualFilters), sorts);
+    }
+
+    static List<Product> execute(ProductStore store, QueryPlan plan) {
+        ProductQuery query = plan.query();
+        Stream<Product> rows = store.read(plan.accessPath(), query);
+        Predicate<Product> residual = residual(query, plan.accessPath());
+        if (residual != null) {
+            rows = rows.filter(residual);
+        }
+        if (plan.sorts()) {
+            rows = rows.sorted(query.comparator());
+        }
+        if (query.limit() > 0) {
+            rows = rows.limit(query.limit());
+        }
+        return rows.toList();
+    }
+
+    // Counts without reading a product when the access path answers every condition.
+    static long count(ProductStore store, QueryPlan plan) {
+        ProductQuery query = plan.query();
+        Predicate<Product> residual = residual(query, plan.accessPath());
+        long count = residual == null
+                ? store.count(plan.accessPath(), query)
+                : store.read(plan.accessPath(), query).filter(residual).count();
+        return query.limit() > 0 ? Math.min(count, query.limit()) : count;
+    }
+
+    private static boolean applies(AccessPath path, ProductQuery query) {
+        return switch (path) {
+            case ID -> query.id() != null;
+            case CATEGORY -> query.byCategory();
+            case CREATED_DATE -> query.byCreatedDate();
+            case BITMAP -> query.byCategory() || query.categories() != null || query.byRating() || query.byCreatedDate();
+            case FULL_SCAN -> true;
+        };
+    }
+
+    private static Predicate<Product> residual(ProductQuery query, AccessPath path) {
+        Predicate<Product> residual = null;
+        for (ProductQuery.Filter filter : query.filters()) {
+            if (!filter.coveredBy().contains(path)) {
+                residual = residual == null ? filter.test() : residual.and(filter.test());
+            }
+        }
+        return residual;
+    }
+}
@@ -0,0 +1,16 @@
+package org.service;
+
+import org.entities.Category;
+
+import java.util.List;
+
+/**
+ * Rating aggregates for one category at one moment. {@code histogram} has one count per rating 0-10;
+ * ratings outside that scale are included in the other fields only. Min and max are 0 for an empty category.
+ */
+public record RatingStats(Category category, long count, double average, int min, int max, List<Long> histogram) {
+
+    public long countOf(int rating) {
+        return histogram.get(rating);
+    }
+}
@@ -0,0 +1,26 @@
+package org.service;
+
+final class ScalarColumnScan implements ColumnScan {
+
+    @Override
+    public int[] equalTo(byte[] column, int length, byte value) {
+        Rows rows = new Rows();
+        for (int i = 0; i < length; i++) {
+            if (column[i] == value) {
+                rows.add(i);
+            }
+        }
+        return rows.toArray();
+    }
+
+    @Override
+    public int[] between(int[] column, int length, int min, int max) {
+        Rows rows = new Rows();
+        for (int i = 0; i < length; i++) {
+            if (column[i] >= min && column[i] <= max) {
+                rows.add(i);
+            }
+        }
+        return rows.toArray();
+    }
+}
@@ -0,0 +1,112 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+
+import java.lang.foreign.MemorySegment;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Queries shared by the stores that keep {@link ProductRows} in a memory segment.
+ * Rows are scanned in place and only matching rows are decoded into {@code Product} records.
+ */
+abstract class SegmentProductStore implements ProductStore {
+
+    abstract MemorySegment rowSegment();
+
+    abstract long rowsBase();
+
+    abstract MemorySegment nameSegment();
+
+    abstract long namesBase();
+
+    abstract int rowCount();
+
+    abstract void checkOpen();
+
+    @Override
+    public List<Product> toList() {
+        return Collections.unmodifiableList(stream().toList());
+    }
+
+    @Override
+    public Stream<Product> stream() {
+        checkOpen();
+        return IntStream.range(0, rowCount())
+                .filter(row -> category(row) != ProductRows.DELETED)
+                .mapToObj(this::materialize);
+    }
+
+    @Override
+    public List<Product> byCategory(Category category) {
+        byte code = ProductRows.code(category);
+        List<Product> result = scan(row -> category(row) == code);
+        result.sort(Comparator.comparing(Product::name, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return result;
+    }
+
+    @Override
+    public List<Product> createdFrom(LocalDate from) {
+        return createdBetween(ProductRows.boundDay(from.toEpochDay()), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Product> createdBetween(LocalDate from, LocalDate to) {
+        return createdBetween(ProductRows.boundDay(from.toEpochDay()), ProductRows.boundDay(to.toEpochDay() - 1));
+    }
+
+    @Override
+    public List<Product> byRating(int minRating, int maxRating) {
+        MemorySegment rows = rowSegment();
+        return scan(row -> {
+            int rating = ProductRows.rating(rows, base(row));
+            return rating >= minRating && rating <= maxRating && category(row) != ProductRows.DELETED;
+        });
+    }
+
+    @Override
+    public long rowsScanned(WarehouseOperation operation, int rowsReturned) {
+        return operation == WarehouseOperation.FIND_PRODUCT_BY_ID ? 1 : rowCount();
+    }
+
+    Product materialize(int row) {
+        return ProductRows.read(rowSegment(), base(row), nameSegment(), namesBase());
+    }
+
+    byte category(int row) {
+        return ProductRows.category(rowSegment(), base(row));
+    }
+
+    long base(int row) {
+        return rowsBase() + row * ProductRows.SIZE;
+    }
+
+    private List<Product> createdBetween(int fromDay, int toDayInclusive) {
+        int min = Math.max(fromDay, ProductRows.NO_DATE + 1);
+        MemorySegment rows = rowSegment();
+        List<Product> result = scan(row -> {
+            int created = ProductRows.created(rows, base(row));
+            return created >= min && created <= toDayInclusive && category(row) != ProductRows.DELETED;
+        });
+        result.sort(Comparator.comparing(Product::createdDate));
+        return result;
+    }
+
+    private List<Product> scan(IntPredicate matches) {
+        checkOpen();
+        List<Product> result = new ArrayList<>();
+        for (int row = 0, rows = rowCount(); row < rows; row++) {
+            if (matches.test(row)) {
+                result.add(materialize(row));
+            }
+        }
+        return result;
+    }
+}
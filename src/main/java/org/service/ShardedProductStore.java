@@ -0,0 +1,283 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.index.NameSearchIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe store that splits products by a hash of their id over several {@link ConcurrentProductStore}
+ * shards, each with its own indexes and its own writer lock. Lookups and writes go to one shard, so writers to
+ * different shards never wait for each other. Other queries ask every shard, in parallel once the store is large
+ * enough to pay for it, and merge the sorted answers, which come out in the same order as from one store.
+ * <p>
+ * Each shard answers from one consistent version, but a query spanning shards may see a write to one shard and not
+ * an earlier write to another.
+ */
+final class ShardedProductStore implements ProductStore {
+
+    // Below this many products a query is cheaper than handing its parts to other threads.
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    private static final Comparator<Product> BY_NAME =
+            Comparator.comparing(Product::name, Comparator.nullsFirst(Comparator.naturalOrder()));
+    private static final Comparator<Product> BY_CREATED_DATE =
+            Comparator.comparing(Product::createdDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+    private static final Comparator<Product> BY_MODIFIED_DATE =
+            Comparator.comparing(Product::lastModifiedDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+    private static final Comparator<Product> BY_RATING =
+            Comparator.comparingInt(Product::rating).reversed().thenComparing(BY_NAME);
+    private static final Comparator<Product> INSERTION_ORDER = (a, b) -> 0;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentProductStore[] shards;
+
+    ShardedProductStore(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Antalet shards måste vara ett positivt tal.");
+        }
+        shards = new ConcurrentProductStore[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new ConcurrentProductStore(sequence);
+        }
+    }
+
+    int shardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ConcurrentProductStore shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public Product get(int id) {
+        return shardOf(id).get(id);
+    }
+
+    @Override
+    public void insert(Product product) {
+        shardOf(product.id()).insert(product);
+    }
+
+    @Override
+    public Product upsert(Product product) {
+        return shardOf(product.id()).upsert(product);
+    }
+
+    /**
+     * Every shard inserts its part of the batch, in parallel for large batches. The batch's sequence numbers are
+     * reserved up front, so it is stored in batch order. Rejected products are reported afterwards, in batch order,
+     * on the calling thread.
+     */
+    @Override
+    public void insertAll(List<Product> products, ObjIntConsumer<IllegalArgumentException> rejected) {
+        List<List<Integer>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            parts.add(new ArrayList<>(products.size() / shards.length + 1));
+        }
+        for (int i = 0; i < products.size(); i++) {
+            parts.get(indexOf(products.get(i).id())).add(i);
+        }
+        IllegalArgumentException[] errors = new IllegalArgumentException[products.size()];
+        long firstSeq = sequence.getAndAdd(products.size());
+        fanOut(products.size() + size(), shard -> {
+            for (int index : parts.get(shard)) {
+                try {
+                    shards[shard].insert(products.get(index), firstSeq + index);
+                } catch (IllegalArgumentException e) {
+                    errors[index] = e;
+                }
+            }
+            return null;
+        });
+        for (int i = 0; i < errors.length; i++) {
+            if (errors[i] != null) {
+                rejected.accept(errors[i], i);
+            }
+        }
+    }
+
+    @Override
+    public List<Product> toList() {
+        return merge(ProductStore::toList, INSERTION_ORDER, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Stream<Product> stream() {
+        return toList().stream();
+    }
+
+    @Override
+    public List<Product> byCategory(Category category) {
+        return merge(shard -> shard.byCategory(category), BY_NAME, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Product> createdFrom(LocalDate from) {
+        return merge(shard -> shard.createdFrom(from), BY_CREATED_DATE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Product> createdBetween(LocalDate from, LocalDate to) {
+        return merge(shard -> shard.createdBetween(from, to), BY_CREATED_DATE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Product> byRating(int minRating, int maxRating) {
+        return merge(shard -> shard.byRating(minRating, maxRating), INSERTION_ORDER, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Product> modified() {
+        return merge(ProductStore::modified, BY_MODIFIED_DATE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Product> modifiedFrom(LocalDate from) {
+        return merge(shard -> shard.modifiedFrom(from), BY_MODIFIED_DATE, Integer.MAX_VALUE);
+    }
+
+    // The best limit of the whole store are among the best limit of every shard.
+    @Override
+    public List<Product> topRated(Category category, int limit) {
+        return merge(shard -> shard.topRated(category, limit), BY_RATING, limit);
+    }
+
+    @Override
+    public List<Product> searchByName(String text, int limit) {
+        List<Product> candidates = merge(shard -> shard.searchByName(text, limit), INSERTION_ORDER, Integer.MAX_VALUE);
+        return NameSearchIndex.best(candidates.iterator(), NameSearchIndex.normalize(text), limit);
+    }
+
+    @Override
+    public long estimate(AccessPath path, ProductQuery query) {
+        return switch (path) {
+            case CATEGORY, CREATED_DATE -> {
+                long rows = 0;
+                for (ConcurrentProductStore shard : shards) {
+                    rows += shard.estimate(path, query);
+                }
+                yield rows;
+            }
+            default -> ProductStore.super.estimate(path, query);
+        };
+    }
+
+    @Override
+    public long count(AccessPath path, ProductQuery query) {
+        return switch (path) {
+            case CATEGORY, CREATED_DATE -> estimate(path, query);
+            default -> ProductStore.super.count(path, query);
+        };
+    }
+
+    private ConcurrentProductStore shardOf(int id) {
+        return shards[indexOf(id)];
+    }
+
+    // Ids are often consecutive, so they are mixed before taking the remainder.
+    private int indexOf(int id) {
+        int hash = id * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    // Runs task for every shard index, on the common fork-join pool when there are enough rows to be worth it.
+    private <T> List<T> fanOut(int rows, IntFunction<T> task) {
+        IntStream indexes = IntStream.range(0, shards.length);
+        if (rows >= PARALLEL_THRESHOLD && shards.length > 1) {
+            indexes = indexes.parallel();
+        }
+        return indexes.mapToObj(task).toList();
+    }
+
+    /**
+     * Runs {@code query} on a snapshot of every shard and merges the answers, each sorted by {@code order} and then
+     * by sequence number, into up to {@code limit} products in that same order.
+     */
+    private List<Product> merge(Function<ProductStore, List<Product>> query, Comparator<Product> order, int limit) {
+        List<Run> runs = fanOut(size(), shard -> {
+            ConcurrentProductStore snapshot = shards[shard].snapshot();
+            return new Run(snapshot, query.apply(snapshot));
+        });
+        int total = 0;
+        PriorityQueue<Run> heads = new PriorityQueue<>(runs.size(), (a, b) -> {
+            int byOrder = order.compare(a.head(), b.head());
+            return byOrder != 0 ? byOrder : Long.compare(a.headSeq(), b.headSeq());
+        });
+        for (Run run : runs) {
+            total += run.products.size();
+            if (run.advance()) {
+                heads.add(run);
+            }
+        }
+        List<Product> merged = new ArrayList<>(Math.min(total, limit));
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Run run = heads.poll();
+            merged.add(run.head());
+            if (run.advance()) {
+                heads.add(run);
+            }
+        }
+        return merged;
+    }
+
+    // One shard's sorted answer and the position of its next product. The sequence number is only looked up when
+    // the order ties, which for names and dates is rare.
+    private static final class Run {
+
+        private static final long UNKNOWN = Long.MIN_VALUE;
+
+        private final ConcurrentProductStore snapshot;
+        private final List<Product> products;
+        private int next;
+        private Product head;
+        private long headSeq;
+
+        Run(ConcurrentProductStore snapshot, List<Product> products) {
+            this.snapshot = snapshot;
+            this.products = products;
+        }
+
+        boolean advance() {
+            if (next == products.size()) {
+                return false;
+            }
+            head = products.get(next++);
+            headSeq = UNKNOWN;
+            return true;
+        }
+
+        Product head() {
+            return head;
+        }
+
+        long headSeq() {
+            if (headSeq == UNKNOWN) {
+                headSeq = snapshot.seqOf(head.id());
+            }
+            return headSeq;
+        }
+    }
+}
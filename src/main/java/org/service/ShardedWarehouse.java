@@ -0,0 +1,32 @@
+package org.service;
+
+/**
+ * {@link Warehouse} that can be shared between threads and spreads its products over several shards by a hash of
+ * their id. Lookups and writes touch one shard, so writes to different shards run side by side; category, date and
+ * rating queries ask every shard in parallel and merge the answers into the usual order.
+ * Each shard is consistent on its own, but a query does not see all shards at one point in time.
+ */
+public class ShardedWarehouse extends Warehouse {
+
+    private final ShardedProductStore store;
+
+    /**
+     * One shard per available processor.
+     */
+    public ShardedWarehouse() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedWarehouse(int shards) {
+        this(new ShardedProductStore(shards));
+    }
+
+    private ShardedWarehouse(ShardedProductStore store) {
+        super(store);
+        this.store = store;
+    }
+
+    public int shardCount() {
+        return store.shardCount();
+    }
+}
@@ -0,0 +1,43 @@
+package org.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for work a store does outside any single operation: growing its storage or compacting deleted rows.
+ * These are the pauses that show up as latency outliers on the operation that triggered them.
+ */
+@Name("org.service.StoreMaintenance")
+@Label("Store Maintenance")
+@Category("Warehouse")
+@Description("A product store growing its storage or compacting away deleted rows")
+final class StoreMaintenanceEvent extends Event {
+
+    @Label("Store")
+    String store;
+
+    @Label("Action")
+    String action;
+
+    @Label("Size Before")
+    @Description("Stored rows for a compaction, capacity for growth")
+    long sizeBefore;
+
+    @Label("Size After")
+    @Description("Stored rows for a compaction, capacity for growth")
+    long sizeAfter;
+
+    void finish(ProductStore store, String action, long sizeBefore, long sizeAfter) {
+        end();
+        if (shouldCommit()) {
+            this.store = store.getClass().getSimpleName();
+            this.action = action;
+            this.sizeBefore = sizeBefore;
+            this.sizeAfter = sizeAfter;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.service;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels on the incubating Vector API. Only loaded when {@code jdk.incubator.vector} is in the boot layer.
+ */
+final class VectorColumnScan implements ColumnScan {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public int[] equalTo(byte[] column, int length, byte value) {
+        Rows rows = new Rows();
+        int i = 0;
+        for (int upper = BYTES.loopBound(length); i < upper; i += BYTES.length()) {
+            rows.addAll(ByteVector.fromArray(BYTES, column, i).eq(value).toLong(), i);
+        }
+        for (; i < length; i++) {
+            if (column[i] == value) {
+                rows.add(i);
+            }
+        }
+        return rows.toArray();
+    }
+
+    @Override
+    public int[] between(int[] column, int length, int min, int max) {
+        Rows rows = new Rows();
+        int i = 0;
+        for (int upper = INTS.loopBound(length); i < upper; i += INTS.length()) {
+            IntVector values = IntVector.fromArray(INTS, column, i);
+            rows.addAll(values.compare(VectorOperators.GE, min).and(values.compare(VectorOperators.LE, max)).toLong(), i);
+        }
+        for (; i < length; i++) {
+            if (column[i] >= min && column[i] <= max) {
+                rows.add(i);
+            }
+        }
+        return rows.toArray();
+    }
+}
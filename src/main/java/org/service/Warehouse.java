@@ -7,26 +7,135 @@ import org.exceptions.ProductNotFoundException;
 
 import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Flow;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import java.time.LocalDate;
 
 
 public class Warehouse {
 
-    private final List<Product> products = new ArrayList<>();
+    private final ProductStore products;
+    private final WarehouseMetrics metrics = new WarehouseMetrics();
+    private volatile CategoryRatings ratings;
+    private volatile QueryCache cache;
+    private final ChangeFeed changeFeed = new ChangeFeed();
+
+    public Warehouse() {
+        this(new IndexedProductStore());
+    }
+
+    Warehouse(ProductStore products) {
+        this.products = products;
+        // Thread-safe stores are counted up front so no concurrent write is missed; single-threaded ones on the
+        // first read, which keeps opening a mapped file instant.
+        if (products.size() == 0 || products.isThreadSafe()) {
+            this.ratings = CategoryRatings.of(products.stream());
+        }
+    }
 
     public List<Product> getProducts() {
-        return List.copyOf(products);
+        return query(WarehouseOperation.GET_PRODUCTS, null, null, products::toList);
     }
 
-    public void addProduct(Product product) {
-        if (product == null) {
-        throw new NullPointerException("Product cannot be null");
+    public boolean isEmpty() {
+        return measure(WarehouseOperation.IS_EMPTY, () -> products.size() == 0);
+    }
+
+    /**
+     * Latency, failure and result size statistics for every measured method since this warehouse was created.
+     */
+    public WarehouseStats stats() {
+        return metrics.snapshot();
+    }
+
+    /**
+     * Rating count, average, min, max and histogram for {@code category}, kept up to date by every change.
+     */
+    public RatingStats ratingStats(Category category) {
+        return measure(WarehouseOperation.RATING_STATS, () -> {
+            Objects.requireNonNull(category, "Category cannot be null");
+            return ratings().stats(category);
+        });
+    }
+
+    /**
+     * {@link #ratingStats(Category)} for every category.
+     */
+    public Map<Category, RatingStats> ratingStats() {
+        return measure(WarehouseOperation.RATING_STATS, () -> ratings().stats());
+    }
+
+    /**
+     * Caches the results of {@link #filterProductsByCategory(Category)}, {@link #findProductsFromCreatedDate} and
+     * {@link #findProductsCreatedBetween} in up to about {@code maxBytes} of memory, least recently used first out.
+     * A change only drops the cached results for its product's category and dates. Cached results are unmodifiable.
+     * Enabling the cache again starts a new, empty one.
+     */
+    public void enableQueryCache(long maxBytes) {
+        cache = new QueryCache(maxBytes);
     }
-        products.add(product);
+
+    public QueryCacheStats queryCacheStats() {
+        QueryCache current = cache;
+        return current == null ? QueryCacheStats.DISABLED : current.stats();
+    }
+
+    /**
+     * Publishes every later add and update as a {@link ProductChange} with the product before and after it.
+     * Each subscriber gets its own buffer of {@code bufferSize} changes that it drains with
+     * {@link Flow.Subscription#request}; {@code policy} decides what happens when the buffer is full. Writers never
+     * wait for subscribers. Closing a closeable warehouse completes its subscribers.
+     */
+    public Flow.Publisher<ProductChange> changes(int bufferSize, OverflowPolicy policy) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffertstorleken måste vara ett positivt tal.");
+        }
+        return changeFeed.publisher(bufferSize, policy);
+    }
+
+    // Changes published but not yet in a subscriber's buffer.
+    long pendingChanges() {
+        return changeFeed.pending();
+    }
+
+    public void addProduct(Product product) {
+        mutate(WarehouseOperation.ADD_PRODUCT, product == null ? 0 : product.id(), () -> {
+            if (product == null) {
+                throw new NullPointerException("Product cannot be null");
+            }
+            add(product);
+            return null;
+        });
     }
 
     public void verifyProduct(int id, String name, Category category, int rating, LocalDate createdDate, LocalDate lastModifiedDate) {
+        mutate(WarehouseOperation.VERIFY_PRODUCT, id, () -> {
+            validateProduct(id, name, category, rating);
+
+            add(new Product(id, name, category, rating, createdDate, lastModifiedDate));
+            return null;
+        });
+    }
+
+    // Unmeasured, so that each public add is recorded once under its own operation.
+    private void add(Product product) {
+        changeFeed.lock(product.id());
+        try {
+            products.insert(product);
+            CategoryRatings current = ratings;
+            if (current != null) {
+                current.added(product);
+            }
+            invalidate(null, product);
+            changeFeed.publish(WarehouseOperation.ADD_PRODUCT, null, product);
+        } finally {
+            changeFeed.unlock(product.id());
+        }
+    }
+
+    static void validateProduct(int id, String name, Category category, int rating) {
 
         if (id <= 0) {
             throw new IllegalArgumentException("ID måste vara ett positivt tal.");
@@ -43,9 +152,27 @@ public class Warehouse {
         if (category == null) {
             throw new IllegalArgumentException("Du måste ange FRUIT, VEGETABLE, MEAT, FISH eller DAIRY.");
         }
+    }
 
-        var product = new Product(id, name, category, rating, createdDate, lastModifiedDate);
-        addProduct(product);
+    void addProducts(List<Product> batch, ObjIntConsumer<IllegalArgumentException> rejected) {
+        BitSet failed = new BitSet(batch.size());
+        changeFeed.lockAll();
+        try {
+            products.insertAll(batch, (e, index) -> {
+                failed.set(index);
+                rejected.accept(e, index);
+            });
+            CategoryRatings current = ratings;
+            for (int i = failed.nextClearBit(0); i < batch.size(); i = failed.nextClearBit(i + 1)) {
+                if (current != null) {
+                    current.added(batch.get(i));
+                }
+                invalidate(null, batch.get(i));
+                changeFeed.publish(WarehouseOperation.ADD_PRODUCT, null, batch.get(i));
+            }
+        } finally {
+            changeFeed.unlockAll();
+        }
     }
 
     public void addProductFromUserInput() {
@@ -105,10 +232,13 @@ public class Warehouse {
     }
 
     public Product findProductById(int id) {
-        return products.stream()
-                .filter(product -> product.id() == id)
-                .findFirst()
-                .orElseThrow(() -> new ProductNotFoundException("Produkt med ID " + id + " hittades ej."));
+        return query(WarehouseOperation.FIND_PRODUCT_BY_ID, id, null, () -> {
+            Product product = products.get(id);
+            if (product == null) {
+                throw new ProductNotFoundException("Produkt med ID " + id + " hittades ej.");
+            }
+            return product;
+        });
     }
 
     public void findProductByIdFromUserInput() {
@@ -185,17 +315,131 @@ public class Warehouse {
 
 
     public List<Product> filterProductsByCategory(Category category) {
-        return products.stream()
-                .filter(product -> product.category() == category)
-                .sorted(Comparator.comparing(Product::name))
-                .collect(Collectors.toList());
+        return query(WarehouseOperation.FILTER_PRODUCTS_BY_CATEGORY, category, null, () -> {
+            QueryCache current = cache;
+            return current == null
+                    ? products.byCategory(category)
+                    : current.byCategory(category, () -> products.byCategory(category));
+        });
+    }
+
+    /**
+     * One page of {@link #filterProductsByCategory(Category)}. Pass {@code null} as cursor for the first page and
+     * {@link ProductPage#nextCursor()} for the next; indexed warehouses seek straight to the cursor.
+     */
+    public ProductPage filterProductsByCategory(Category category, int pageSize, String cursor) {
+        return query(WarehouseOperation.FILTER_PRODUCTS_BY_CATEGORY_PAGE, category, pageSize, () ->
+                products.pageByCategory(category, pageCursor(pageSize, cursor), pageSize));
+    }
+
+    /**
+     * {@link #filterProductsByCategory(Category)} read lazily where the warehouse has an index for it.
+     * Unless the warehouse is thread-safe, consume the stream before changing the warehouse.
+     */
+    public Stream<Product> streamProductsByCategory(Category category) {
+        return measure(WarehouseOperation.STREAM_PRODUCTS_BY_CATEGORY, () -> products.streamByCategory(category));
     }
 
 
     public List<Product> findProductsFromCreatedDate(LocalDate date) {
-        return products.stream()
-                .filter(product -> !product.createdDate().isBefore(date))
-                .collect(Collectors.toList());
+        return query(WarehouseOperation.FIND_PRODUCTS_FROM_CREATED_DATE, date, null, () -> {
+            Objects.requireNonNull(date, "Date cannot be null");
+            QueryCache current = cache;
+            return current == null
+                    ? products.createdFrom(date)
+                    : current.createdFrom(date, () -> products.createdFrom(date));
+        });
+    }
+
+    /**
+     * One page of {@link #findProductsFromCreatedDate(LocalDate)}, paginated like
+     * {@link #filterProductsByCategory(Category, int, String)}.
+     */
+    public ProductPage findProductsFromCreatedDate(LocalDate date, int pageSize, String cursor) {
+        return query(WarehouseOperation.FIND_PRODUCTS_FROM_CREATED_DATE_PAGE, date, pageSize, () -> {
+            Objects.requireNonNull(date, "Date cannot be null");
+            return products.pageCreatedFrom(date, pageCursor(pageSize, cursor), pageSize);
+        });
+    }
+
+    /**
+     * {@link #findProductsFromCreatedDate(LocalDate)} read lazily where the warehouse has an index for it.
+     * Unless the warehouse is thread-safe, consume the stream before changing the warehouse.
+     */
+    public Stream<Product> streamProductsFromCreatedDate(LocalDate date) {
+        return measure(WarehouseOperation.STREAM_PRODUCTS_FROM_CREATED_DATE, () -> {
+            Objects.requireNonNull(date, "Date cannot be null");
+            return products.streamCreatedFrom(date);
+        });
+    }
+
+    public List<Product> findProductsCreatedBetween(LocalDate from, LocalDate to) {
+        return query(WarehouseOperation.FIND_PRODUCTS_CREATED_BETWEEN, from, to, () -> {
+            Objects.requireNonNull(from, "From date cannot be null");
+            Objects.requireNonNull(to, "To date cannot be null");
+            if (to.isBefore(from)) {
+                throw new IllegalArgumentException("Slutdatumet får inte vara före startdatumet.");
+            }
+            QueryCache current = cache;
+            return current == null
+                    ? products.createdBetween(from, to)
+                    : current.createdBetween(from, to, () -> products.createdBetween(from, to));
+        });
+    }
+
+    public List<Product> findProductsByRating(int minRating, int maxRating) {
+        return query(WarehouseOperation.FIND_PRODUCTS_BY_RATING, minRating, maxRating, () -> {
+            if (maxRating < minRating) {
+                throw new IllegalArgumentException("Högsta betyget får inte vara lägre än lägsta betyget.");
+            }
+            return products.byRating(minRating, maxRating);
+        });
+    }
+
+    /**
+     * The {@code limit} highest-rated products in {@code category}, ties broken by name. Indexed warehouses read
+     * them straight off a rating-ordered index, so the cost grows with {@code limit} rather than the category.
+     */
+    public List<Product> findTopRatedProducts(Category category, int limit) {
+        return query(WarehouseOperation.FIND_TOP_RATED_PRODUCTS, category, limit, () -> {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Gränsen måste vara ett positivt tal.");
+            }
+            return products.topRated(category, limit);
+        });
+    }
+
+    /**
+     * Up to {@code limit} products whose name contains {@code text}, ignoring case. Exact names rank first, then
+     * names starting with the text, then names with a word starting with it, then shorter names. Indexed warehouses
+     * look the text up in a name index and follow renames, so no name is scanned.
+     */
+    public List<Product> searchProductsByName(String text, int limit) {
+        return query(WarehouseOperation.SEARCH_PRODUCTS_BY_NAME, text, limit, () -> {
+            if (text == null || text.isBlank()) {
+                throw new IllegalArgumentException("Söktexten får inte vara tom.");
+            }
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Gränsen måste vara ett positivt tal.");
+            }
+            return products.searchByName(text, limit);
+        });
+    }
+
+    public void searchProductsByNameFromUserInput() {
+        Scanner scanner = new Scanner(System.in);
+        System.out.print("Ange hela eller delar av produktens namn: ");
+        String text = scanner.nextLine();
+        try {
+            List<Product> found = searchProductsByName(text, 20);
+            if (found.isEmpty()) {
+                System.out.println("Inga produkter matchar \"" + text + "\".");
+            } else {
+                found.forEach(System.out::println);
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
     }
 
     public void findProductsFromCreatedDateFromUserInput() {
@@ -222,23 +466,90 @@ public class Warehouse {
         }
     }
 
+    /**
+     * Prints the products whose last modified date differs from their created date, oldest modification first.
+     */
     public void findAndPrintMismatchedProducts() {
-        List<Product> mismatchedProducts = products.stream()
-                .filter(product -> !product.createdDate().equals(product.lastModifiedDate()))
-                .toList();
-
-        if (mismatchedProducts.isEmpty()) {
-            System.out.println("Hittar inga modifierade produkter.");
-        } else {
-            System.out.println("Produkter som modifierats:");
-            mismatchedProducts.forEach(System.out::println);
-        }
+        query(WarehouseOperation.FIND_AND_PRINT_MISMATCHED_PRODUCTS, null, null, () -> {
+            List<Product> mismatchedProducts = products.modified();
+
+            if (mismatchedProducts.isEmpty()) {
+                System.out.println("Hittar inga modifierade produkter.");
+            } else {
+                System.out.println("Produkter som modifierats:");
+                mismatchedProducts.forEach(System.out::println);
+            }
+            return mismatchedProducts;
+        });
     }
 
-    public void updateProductInWarehouse(Product updatedProduct) {
-        products.removeIf(product -> product.id() == updatedProduct.id());
+    /**
+     * Products modified after they were created, oldest modification first; the same products
+     * {@link #findAndPrintMismatchedProducts()} prints.
+     */
+    public List<Product> findModifiedProducts() {
+        return query(WarehouseOperation.FIND_MODIFIED_PRODUCTS, null, null, products::modified);
+    }
+
+    /**
+     * Products modified after they were created whose last modified date is on or after {@code date}, oldest
+     * modification first.
+     */
+    public List<Product> findProductsModifiedSince(LocalDate date) {
+        return query(WarehouseOperation.FIND_PRODUCTS_MODIFIED_SINCE, date, null, () -> {
+            Objects.requireNonNull(date, "Date cannot be null");
+            return products.modifiedFrom(date);
+        });
+    }
+
+    /**
+     * Runs {@code query} through the plan that {@link #explain(ProductQuery)} shows.
+     */
+    public List<Product> find(ProductQuery query) {
+        return query(WarehouseOperation.FIND, query, null, () -> {
+            Objects.requireNonNull(query, "Query cannot be null");
+            return QueryPlanner.execute(products, QueryPlanner.plan(products, query));
+        });
+    }
+
+    /**
+     * The access path, estimated row count, residual filters and sorting {@link #find(ProductQuery)} would use.
+     */
+    public QueryPlan explain(ProductQuery query) {
+        return measure(WarehouseOperation.EXPLAIN, () -> {
+            Objects.requireNonNull(query, "Query cannot be null");
+            return QueryPlanner.plan(products, query);
+        });
+    }
 
-        products.add(updatedProduct);
+    /**
+     * How many products {@link #find(ProductQuery)} would return. When the access path answers every condition,
+     * as the bitmap index does for category, rating and month conditions, no product is read.
+     */
+    public long count(ProductQuery query) {
+        return measure(WarehouseOperation.COUNT, () -> {
+            Objects.requireNonNull(query, "Query cannot be null");
+            return QueryPlanner.count(products, QueryPlanner.plan(products, query));
+        });
+    }
+
+    public void updateProductInWarehouse(Product updatedProduct) {
+        int id = updatedProduct == null ? 0 : updatedProduct.id();
+        mutate(WarehouseOperation.UPDATE_PRODUCT_IN_WAREHOUSE, id, () -> {
+            changeFeed.lock(id);
+            try {
+                Product previous = products.upsert(updatedProduct);
+                CategoryRatings current = ratings;
+                if (current != null) {
+                    current.replaced(previous, updatedProduct);
+                }
+                invalidate(previous, updatedProduct);
+                changeFeed.publish(WarehouseOperation.UPDATE_PRODUCT_IN_WAREHOUSE, previous, updatedProduct);
+                return previous;
+            } finally {
+                changeFeed.unlock(id);
+            }
+        });
     }
 
     public void modifyProductByIdFromUserInput() {
@@ -318,4 +629,87 @@ public class Warehouse {
             System.out.println("Felaktig inmatning, försök igen.");
         }
     }
-}
\ No newline at end of file
+
+    private CategoryRatings ratings() {
+        CategoryRatings current = ratings;
+        if (current == null) {
+            current = CategoryRatings.of(products.stream());
+            ratings = current;
+        }
+        return current;
+    }
+
+    boolean isThreadSafe() {
+        return products.isThreadSafe();
+    }
+
+    void closeChanges() {
+        changeFeed.close();
+    }
+
+    private void invalidate(Product previous, Product current) {
+        QueryCache queries = cache;
+        if (queries != null) {
+            queries.changed(previous, current);
+        }
+    }
+
+    private static PageCursor pageCursor(int pageSize, String cursor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Sidstorleken måste vara ett positivt tal.");
+        }
+        return cursor == null ? null : PageCursor.decode(cursor);
+    }
+
+    private <T> T measure(WarehouseOperation operation, Supplier<T> body) {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = body.get();
+        } catch (RuntimeException e) {
+            metrics.failed(operation, start);
+            throw e;
+        }
+        metrics.succeeded(operation, start);
+        return result;
+    }
+
+    // Queries also emit a WarehouseQueryEvent; a single product counts as one returned row.
+    private <T> T query(WarehouseOperation operation, Object first, Object second, Supplier<T> body) {
+        WarehouseQueryEvent event = new WarehouseQueryEvent();
+        event.begin();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = body.get();
+        } catch (RuntimeException e) {
+            metrics.failed(operation, start);
+            event.fail(operation, first, second);
+            throw e;
+        }
+        int rows = result instanceof List<?> list ? list.size()
+                : result instanceof ProductPage page ? page.products().size()
+                : 1;
+        metrics.returned(operation, start, rows);
+        event.finish(operation, first, second, rows, products);
+        return result;
+    }
+
+    // Mutations also emit a WarehouseMutationEvent; a non-null result is the product that was replaced.
+    private <T> T mutate(WarehouseOperation operation, int productId, Supplier<T> body) {
+        WarehouseMutationEvent event = new WarehouseMutationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = body.get();
+        } catch (RuntimeException e) {
+            metrics.failed(operation, start);
+            event.finish(operation, productId, false, true);
+            throw e;
+        }
+        metrics.succeeded(operation, start);
+        event.finish(operation, productId, result != null, false);
+        return result;
+    }
+}
@@ -0,0 +1,293 @@
+package org.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.entities.Category;
+import org.entities.Product;
+import org.exceptions.ProductNotFoundException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * JSON over HTTP for a {@link Warehouse}, on the JDK's built-in server with one virtual thread per request.
+ * <ul>
+ *     <li>{@code GET /products} – every product, or with {@code category}, {@code createdFrom} and
+ *     {@code createdBefore} (ISO dates, the latter exclusive) those that match</li>
+ *     <li>{@code GET /products/modified} – products modified after creation, optionally {@code since} a date</li>
+ *     <li>{@code GET /products/{id}} – one product</li>
+ *     <li>{@code POST /products} – add a product, 201 on success</li>
+ *     <li>{@code PUT /products/{id}} – add or replace a product; dates left out keep their current value or
+ *     become today</li>
+ * </ul>
+ * Lists are written product by product through a small buffer, and thread-safe warehouses are read lazily, so a
+ * response is never built up in memory. Errors are {@code {"error": "..."}} with status 400, 404 or 405.
+ * Warehouses that are not thread-safe are used by one request at a time; their results are copied first, so a
+ * slow client does not hold the lock while its response is written.
+ */
+public final class WarehouseHttpServer implements AutoCloseable {
+
+    private static final String PRODUCTS = "/products";
+    private static final int BUFFER_SIZE = 8192;
+    private static final String NO_DELAY = "sun.net.httpserver.nodelay";
+
+    private final Warehouse warehouse;
+    private final ReentrantLock lock;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private WarehouseHttpServer(Warehouse warehouse, HttpServer server) {
+        this.warehouse = warehouse;
+        this.lock = warehouse.isThreadSafe() ? null : new ReentrantLock();
+        this.server = server;
+        server.createContext(PRODUCTS, this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts serving {@code warehouse} on {@code address}; port 0 picks a free port. {@code backlog} is how many
+     * connections may wait to be accepted, 0 meaning the system default.
+     */
+    public static WarehouseHttpServer start(Warehouse warehouse, InetSocketAddress address, int backlog) {
+        // Headers and body go out as separate writes; with Nagle on, the body waits for the client's delayed ACK.
+        // Read once, when the first server is created.
+        if (System.getProperty(NO_DELAY) == null) {
+            System.setProperty(NO_DELAY, "true");
+        }
+        try {
+            WarehouseHttpServer server = new WarehouseHttpServer(warehouse, HttpServer.create(address, backlog));
+            server.server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting connections and lets requests in progress finish.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            try {
+                if (path.equals(PRODUCTS) || path.equals(PRODUCTS + "/")) {
+                    switch (method) {
+                        case "GET" -> list(exchange);
+                        case "POST" -> add(exchange);
+                        default -> error(exchange, 405, "Metoden stöds inte.");
+                    }
+                } else if (path.equals(PRODUCTS + "/modified")) {
+                    if (method.equals("GET")) {
+                        modified(exchange);
+                    } else {
+                        error(exchange, 405, "Metoden stöds inte.");
+                    }
+                } else {
+                    int id = id(path.substring(PRODUCTS.length() + 1));
+                    switch (method) {
+                        case "GET" -> single(exchange, 200, locked(() -> warehouse.findProductById(id)));
+                        case "PUT" -> update(exchange, id);
+                        default -> error(exchange, 405, "Metoden stöds inte.");
+                    }
+                }
+            } catch (ProductNotFoundException e) {
+                error(exchange, 404, e.getMessage());
+            } catch (IllegalArgumentException | NullPointerException e) {
+                failed(exchange, e);
+                error(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                failed(exchange, e);
+                error(exchange, 500, "Ett internt fel inträffade.");
+            }
+        }
+    }
+
+    // Once a streamed answer has started its status cannot change, so the connection is just closed.
+    private static void failed(HttpExchange exchange, RuntimeException e) {
+        if (exchange.getResponseCode() != -1) {
+            throw e;
+        }
+    }
+
+    private void list(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange);
+        Category category = ProductJson.category(query.get("category"));
+        LocalDate from = ProductJson.date(query.get("createdFrom"));
+        LocalDate before = ProductJson.date(query.get("createdBefore"));
+        if (category == null && from == null && before == null) {
+            array(exchange, locked(warehouse::getProducts).iterator());
+        } else if (from == null && before == null) {
+            array(exchange, lock == null
+                    ? warehouse.streamProductsByCategory(category).iterator()
+                    : locked(() -> warehouse.filterProductsByCategory(category)).iterator());
+        } else {
+            Stream<Product> created;
+            if (from == null) {
+                // No lower bound to start a date range at, so all products are filtered and sorted here instead.
+                created = locked(warehouse::getProducts).stream()
+                        .filter(product -> product.createdDate() != null)
+                        .sorted(Comparator.comparing(Product::createdDate));
+            } else if (lock == null) {
+                created = warehouse.streamProductsFromCreatedDate(from);
+            } else {
+                created = locked(() -> before == null
+                        ? warehouse.findProductsFromCreatedDate(from)
+                        : warehouse.findProductsCreatedBetween(from, before)).stream();
+            }
+            if (before != null) {
+                created = created.takeWhile(product -> product.createdDate().isBefore(before));
+            }
+            if (category != null) {
+                created = created.filter(product -> product.category() == category);
+            }
+            array(exchange, created.iterator());
+        }
+    }
+
+    private void modified(HttpExchange exchange) throws IOException {
+        LocalDate since = ProductJson.date(query(exchange).get("since"));
+        array(exchange, locked(() -> since == null
+                ? warehouse.findModifiedProducts()
+                : warehouse.findProductsModifiedSince(since)).iterator());
+    }
+
+    private void add(HttpExchange exchange) throws IOException {
+        ProductJson.Fields fields = ProductJson.read(body(exchange));
+        LocalDate today = LocalDate.now();
+        Product product = locked(() -> {
+            warehouse.verifyProduct(required(fields.id(), "id"), fields.name(), fields.category(),
+                    required(fields.rating(), "rating"),
+                    fields.createdDate() == null ? today : fields.createdDate(),
+                    fields.lastModifiedDate() == null ? today : fields.lastModifiedDate());
+            return warehouse.findProductById(fields.id());
+        });
+        single(exchange, 201, product);
+    }
+
+    private void update(HttpExchange exchange, int id) throws IOException {
+        ProductJson.Fields fields = ProductJson.read(body(exchange));
+        if (fields.id() != null && fields.id() != id) {
+            throw new IllegalArgumentException("ID i adressen och i produkten skiljer sig åt.");
+        }
+        int rating = required(fields.rating(), "rating");
+        Warehouse.validateProduct(id, fields.name(), fields.category(), rating);
+        LocalDate today = LocalDate.now();
+        Product product = locked(() -> {
+            LocalDate created = fields.createdDate();
+            if (created == null) {
+                try {
+                    created = warehouse.findProductById(id).createdDate();
+                } catch (ProductNotFoundException e) {
+                    created = today;
+                }
+            }
+            Product updated = new Product(id, fields.name(), fields.category(), rating, created,
+                    fields.lastModifiedDate() == null ? today : fields.lastModifiedDate());
+            warehouse.updateProductInWarehouse(updated);
+            return updated;
+        });
+        single(exchange, 200, product);
+    }
+
+    private <T> T locked(Supplier<T> body) {
+        if (lock == null) {
+            return body.get();
+        }
+        lock.lock();
+        try {
+            return body.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void single(HttpExchange exchange, int status, Product product) throws IOException {
+        try (Writer out = open(exchange, status)) {
+            ProductJson.write(product, out);
+        }
+    }
+
+    private static void array(HttpExchange exchange, Iterator<Product> products) throws IOException {
+        try (Writer out = open(exchange, 200)) {
+            ProductJson.writeArray(products, out);
+        }
+    }
+
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        try (Writer out = open(exchange, status)) {
+            ProductJson.writeError(message == null ? "Ogiltig förfrågan." : message, out);
+        }
+    }
+
+    // Chunked, so the length need not be known before the body is written.
+    private static Writer open(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+    }
+
+    private static String body(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.put(key, value);
+        }
+        return parameters;
+    }
+
+    private static int id(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new ProductNotFoundException("Det finns ingen resurs på den adressen.");
+        }
+    }
+
+    private static int required(Integer value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException("Fältet " + field + " saknas.");
+        }
+        return value;
+    }
+}
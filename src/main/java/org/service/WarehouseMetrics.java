@@ -0,0 +1,59 @@
+package org.service;
+
+import org.metrics.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms, failure counters and result size histograms per {@link WarehouseOperation}.
+ * Recording takes no locks, so a {@link ConcurrentWarehouse} can be measured from any number of threads.
+ */
+final class WarehouseMetrics {
+
+    private static final WarehouseOperation[] OPERATIONS = WarehouseOperation.values();
+
+    private final long createdAt = System.nanoTime();
+    private final Histogram[] latencies = new Histogram[OPERATIONS.length];
+    private final Histogram[] resultSizes = new Histogram[OPERATIONS.length];
+    private final LongAdder[] failures = new LongAdder[OPERATIONS.length];
+
+    WarehouseMetrics() {
+        for (WarehouseOperation operation : OPERATIONS) {
+            int i = operation.ordinal();
+            latencies[i] = new Histogram();
+            resultSizes[i] = operation.isFilter() ? new Histogram() : null;
+            failures[i] = new LongAdder();
+        }
+    }
+
+    void succeeded(WarehouseOperation operation, long startNanos) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    void returned(WarehouseOperation operation, long startNanos, int resultSize) {
+        succeeded(operation, startNanos);
+        Histogram sizes = resultSizes[operation.ordinal()];
+        if (sizes != null) {
+            sizes.record(resultSize);
+        }
+    }
+
+    void failed(WarehouseOperation operation, long startNanos) {
+        succeeded(operation, startNanos);
+        failures[operation.ordinal()].increment();
+    }
+
+    WarehouseStats snapshot() {
+        List<OperationStats> operations = new ArrayList<>(OPERATIONS.length);
+        for (WarehouseOperation operation : OPERATIONS) {
+            int i = operation.ordinal();
+            var latency = latencies[i].snapshot();
+            operations.add(new OperationStats(operation, latency.count(), failures[i].sum(), latency,
+                    resultSizes[i] == null ? null : resultSizes[i].snapshot()));
+        }
+        return new WarehouseStats(Duration.ofNanos(System.nanoTime() - createdAt), List.copyOf(operations));
+    }
+}
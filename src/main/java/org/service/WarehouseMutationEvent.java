@@ -0,0 +1,45 @@
+package org.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for a change to a {@link Warehouse}, including the index maintenance the store does for it.
+ */
+@Name("org.service.WarehouseMutation")
+@Label("Warehouse Mutation")
+@Category("Warehouse")
+@Description("An insert or update of one product")
+@StackTrace(false)
+@Threshold("10 ms")
+final class WarehouseMutationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Product ID")
+    int productId;
+
+    @Label("Replaced")
+    @Description("Whether an existing product with the same ID was replaced")
+    boolean replaced;
+
+    @Label("Failed")
+    boolean failed;
+
+    void finish(WarehouseOperation operation, int productId, boolean replaced, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation.methodName();
+            this.productId = productId;
+            this.replaced = replaced;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
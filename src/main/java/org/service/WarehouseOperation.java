@@ -0,0 +1,70 @@
+package org.service;
+
+/**
+ * The {@link Warehouse} methods that are measured. The interactive {@code ...FromUserInput} methods are left out,
+ * since their time is mostly spent waiting for the user; the methods they call are measured instead.
+ */
+public enum WarehouseOperation {
+    GET_PRODUCTS("getProducts", false),
+    IS_EMPTY("isEmpty", false),
+    ADD_PRODUCT("addProduct", false),
+    VERIFY_PRODUCT("verifyProduct", false),
+    FIND_PRODUCT_BY_ID("findProductById", false),
+    FILTER_PRODUCTS_BY_CATEGORY("filterProductsByCategory", true),
+    FILTER_PRODUCTS_BY_CATEGORY_PAGE("filterProductsByCategory(page)", true),
+    STREAM_PRODUCTS_BY_CATEGORY("streamProductsByCategory", false),
+    FIND_PRODUCTS_FROM_CREATED_DATE("findProductsFromCreatedDate", true),
+    FIND_PRODUCTS_FROM_CREATED_DATE_PAGE("findProductsFromCreatedDate(page)", true),
+    STREAM_PRODUCTS_FROM_CREATED_DATE("streamProductsFromCreatedDate", false),
+    FIND_PRODUCTS_CREATED_BETWEEN("findProductsCreatedBetween", true),
+    FIND_PRODUCTS_BY_RATING("findProductsByRating", true),
+    FIND_TOP_RATED_PRODUCTS("findTopRatedProducts", true),
+    SEARCH_PRODUCTS_BY_NAME("searchProductsByName", true),
+    FIND_AND_PRINT_MISMATCHED_PRODUCTS("findAndPrintMismatchedProducts", true),
+    FIND_MODIFIED_PRODUCTS("findModifiedProducts", true),
+    FIND_PRODUCTS_MODIFIED_SINCE("findProductsModifiedSince", true),
+    FIND("find", true),
+    EXPLAIN("explain", false),
+    COUNT("count", false),
+    RATING_STATS("ratingStats", false),
+    UPDATE_PRODUCT_IN_WAREHOUSE("updateProductInWarehouse", false);
+
+    private final String methodName;
+    private final boolean filter;
+
+    WarehouseOperation(String methodName, boolean filter) {
+        this.methodName = methodName;
+        this.filter = filter;
+    }
+
+    public String methodName() {
+        return methodName;
+    }
+
+    /**
+     * Whether the operation returns a filtered subset, and so has a result size distribution.
+     */
+    public boolean isFilter() {
+        return filter;
+    }
+
+    // The condition a query call selects on, for tracing.
+    String predicate(Object first, Object second) {
+        return switch (this) {
+            case GET_PRODUCTS -> "all";
+            case FIND_PRODUCT_BY_ID -> "id = " + first;
+            case FILTER_PRODUCTS_BY_CATEGORY -> "category = " + first;
+            case FIND_PRODUCTS_FROM_CREATED_DATE -> "createdDate >= " + first;
+            case FILTER_PRODUCTS_BY_CATEGORY_PAGE -> "category = " + first + " limit " + second;
+            case FIND_PRODUCTS_FROM_CREATED_DATE_PAGE -> "createdDate >= " + first + " limit " + second;
+            case FIND_PRODUCTS_CREATED_BETWEEN -> first + " <= createdDate < " + second;
+            case FIND_PRODUCTS_BY_RATING -> first + " <= rating <= " + second;
+            case FIND_TOP_RATED_PRODUCTS -> "category = " + first + " order by rating desc, name limit " + second;
+            case SEARCH_PRODUCTS_BY_NAME -> "lower(name) contains '" + first + "' limit " + second;
+            case FIND_AND_PRINT_MISMATCHED_PRODUCTS, FIND_MODIFIED_PRODUCTS -> "createdDate != lastModifiedDate";
+            case FIND_PRODUCTS_MODIFIED_SINCE -> "createdDate != lastModifiedDate AND lastModifiedDate >= " + first;
+            case FIND -> String.valueOf(first);
+            default -> "";
+        };
+    }
+}
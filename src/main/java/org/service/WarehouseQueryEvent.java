@@ -0,0 +1,60 @@
+package org.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for a {@link Warehouse} query. Fields are only filled in when the event will be committed, so a
+ * disabled event costs a begin/end pair the JIT removes. Only queries slower than the threshold are recorded by
+ * default; lower it with {@code -XX:StartFlightRecording:org.service.WarehouseQuery#threshold=0ms}.
+ */
+@Name("org.service.WarehouseQuery")
+@Label("Warehouse Query")
+@Category("Warehouse")
+@Description("A read from a warehouse, with the rows the store examined and returned")
+@StackTrace(false)
+@Threshold("10 ms")
+final class WarehouseQueryEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Predicate")
+    String predicate;
+
+    @Label("Rows Scanned")
+    long rowsScanned;
+
+    @Label("Rows Returned")
+    long rowsReturned;
+
+    @Label("Failed")
+    boolean failed;
+
+    void finish(WarehouseOperation operation, Object first, Object second, int rows, ProductStore store) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation.methodName();
+            this.predicate = operation.predicate(first, second);
+            this.rowsScanned = store.rowsScanned(operation, rows);
+            this.rowsReturned = rows;
+            commit();
+        }
+    }
+
+    // A query that threw returned nothing, and how far it got is unknown, so no rows are reported.
+    void fail(WarehouseOperation operation, Object first, Object second) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation.methodName();
+            this.predicate = operation.predicate(first, second);
+            this.failed = true;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.service;
+
+import org.metrics.HistogramSnapshot;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Snapshot of a warehouse's {@link OperationStats}, one per {@link WarehouseOperation} in declaration order.
+ */
+public record WarehouseStats(Duration uptime, List<OperationStats> operations) {
+
+    public OperationStats of(WarehouseOperation operation) {
+        return operations.get(operation.ordinal());
+    }
+
+    /**
+     * Calls per second since the warehouse was created.
+     */
+    public double throughput(WarehouseOperation operation) {
+        double seconds = uptime.toNanos() / 1e9;
+        return seconds == 0 ? 0 : of(operation).calls() / seconds;
+    }
+
+    /**
+     * A table of the operations that have been called, latencies in microseconds.
+     */
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%-31s %9s %6s %9s %9s %9s %9s %9s %17s%n",
+                "Operation", "Anrop", "Fel", "Anrop/s", "p50 µs", "p99 µs", "p999 µs", "max µs", "Träffar p50/p99"));
+        for (OperationStats stats : operations) {
+            if (stats.calls() == 0) {
+                continue;
+            }
+            HistogramSnapshot latency = stats.latencyNanos();
+            HistogramSnapshot sizes = stats.resultSizes();
+            out.append(String.format(Locale.ROOT, "%-31s %9d %6d %9.1f %9.1f %9.1f %9.1f %9.1f %17s%n",
+                    stats.operation().methodName(), stats.calls(), stats.failures(), throughput(stats.operation()),
+                    latency.p50() / 1e3, latency.p99() / 1e3, latency.p999() / 1e3, latency.max() / 1e3,
+                    sizes == null ? "-" : sizes.p50() + "/" + sizes.p99()));
+        }
+        return out.toString();
+    }
+}
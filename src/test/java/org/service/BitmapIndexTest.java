@@ -0,0 +1,170 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.index.RoaringBitmap;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitmapIndexTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @Test
+    public void testRoaringBitmapMatchesASortedSet() {
+        SplittableRandom random = new SplittableRandom(7);
+        RoaringBitmap a = new RoaringBitmap();
+        RoaringBitmap b = new RoaringBitmap();
+        TreeSet<Integer> expectedA = new TreeSet<>();
+        TreeSet<Integer> expectedB = new TreeSet<>();
+        // Dense enough in the first containers to turn them into bitmaps, and back again after removals.
+        for (int i = 0; i < 40_000; i++) {
+            int value = random.nextInt(3 << 16);
+            a.add(value);
+            expectedA.add(value);
+            int other = random.nextInt(1 << 20);
+            b.add(other);
+            expectedB.add(other);
+        }
+        for (int value = 0; value < 1 << 16; value++) {
+            if (value % 20 != 0) {
+                a.remove(value);
+                expectedA.remove(value);
+            }
+        }
+        a.add(-1);
+        expectedA.add(-1);
+
+        // Act
+        RoaringBitmap and = RoaringBitmap.and(a, b);
+        RoaringBitmap or = RoaringBitmap.or(a, b);
+        RoaringBitmap union = RoaringBitmap.or(List.of(a, b, a));
+
+        // Assert
+        TreeSet<Integer> expectedAnd = new TreeSet<>(expectedA);
+        expectedAnd.retainAll(expectedB);
+        TreeSet<Integer> expectedOr = new TreeSet<>(expectedA);
+        expectedOr.addAll(expectedB);
+        assertEquals(expectedA.size(), a.cardinality());
+        assertEquals(unsignedOrder(expectedA), a.stream().boxed().toList());
+        assertEquals(unsignedOrder(expectedAnd), and.stream().boxed().toList());
+        assertEquals(unsignedOrder(expectedOr), or.stream().boxed().toList());
+        assertEquals(unsignedOrder(expectedOr), union.stream().boxed().toList());
+        assertEquals(expectedOr.size(), union.cardinality());
+        assertEquals(unsignedOrder(expectedB), b.stream().boxed().toList(), "The union must not change its inputs.");
+        assertEquals(expectedAnd.size(), RoaringBitmap.andCardinality(a, b));
+        assertTrue(a.contains(-1));
+        assertFalse(a.contains(1 << 21));
+    }
+
+    @Test
+    public void testConjunctionsUseTheBitmapIndex() {
+        Warehouse warehouse = new Warehouse();
+        fill(warehouse);
+        ProductQuery query = ProductQuery.builder().category(Category.FRUIT).ratingBetween(7, 9)
+                .createdFrom(LocalDate.of(2020, 3, 10)).build();
+
+        // Act
+        QueryPlan plan = warehouse.explain(query);
+        List<Product> found = warehouse.find(query);
+
+        // Assert
+        assertEquals(AccessPath.BITMAP, plan.accessPath());
+        assertEquals(List.of("category = FRUIT", "7 <= rating <= 9"), plan.accessConditions());
+        assertEquals(List.of("createdDate >= 2020-03-10"), plan.residualFilters());
+        assertEquals(scan(warehouse, product -> product.category() == Category.FRUIT
+                && product.rating() >= 7 && product.rating() <= 9
+                && !product.createdDate().isBefore(LocalDate.of(2020, 3, 10))), found);
+        assertEquals(found.size(), warehouse.count(query));
+    }
+
+    @Test
+    public void testDisjunctionsAreCountedFromBitmaps() {
+        Warehouse warehouse = new Warehouse();
+        fill(warehouse);
+        ProductQuery query = ProductQuery.builder().categoryIn(Category.MEAT, Category.FISH).ratingAtMost(3).build();
+
+        // Act
+        long count = warehouse.count(query);
+
+        // Assert
+        assertTrue(warehouse.explain(query).residualFilters().contains("rating <= 3"));
+        assertEquals(scan(warehouse, product -> (product.category() == Category.MEAT
+                || product.category() == Category.FISH) && product.rating() <= 3).size(), count);
+        assertEquals(List.of("category in [MEAT, FISH]", "0 <= rating <= 3"), warehouse.explain(ProductQuery.builder()
+                .categoryIn(Category.FISH, Category.MEAT).ratingBetween(0, 3).build()).accessConditions());
+    }
+
+    @Test
+    public void testUpdatesMoveRowsBetweenBitmaps() {
+        Warehouse warehouse = new Warehouse();
+        fill(warehouse);
+        ProductQuery tens = ProductQuery.builder().rating(10).category(Category.DAIRY).build();
+        long before = warehouse.count(tens);
+
+        // Act
+        warehouse.updateProductInWarehouse(new Product(4, "Milk", Category.DAIRY, 10, START, START));
+        warehouse.updateProductInWarehouse(new Product(4, "Milk", Category.DAIRY, 10, START, START.plusDays(1)));
+
+        // Assert
+        assertEquals(before + 1, warehouse.count(tens));
+        assertTrue(warehouse.find(tens).contains(new Product(4, "Milk", Category.DAIRY, 10, START, START.plusDays(1))));
+        assertEquals(1, warehouse.count(ProductQuery.builder().id(4).build()));
+    }
+
+    @Test
+    public void testRatingsOutsideTheScaleAreStillFound() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+        warehouse.addProduct(new Product(2, "Golden Apple", Category.FRUIT, 15, START, START));
+
+        // Act
+        List<Product> found = warehouse.find(ProductQuery.builder().category(Category.FRUIT).ratingAtLeast(9).build());
+
+        // Assert
+        assertEquals(List.of(new Product(2, "Golden Apple", Category.FRUIT, 15, START, START)), found);
+        assertEquals(0, warehouse.count(ProductQuery.builder().ratingBetween(9, 10).build()));
+    }
+
+    @Test
+    public void testStoresWithoutBitmapsReadTheBitmapConditionsByScanning() {
+        ConcurrentProductStore store = new ConcurrentProductStore();
+        Category[] categories = Category.values();
+        for (int id = 1; id <= 200; id++) {
+            store.insert(new Product(id, "P" + id, categories[id % categories.length], id % 11, START, START));
+        }
+        ProductQuery query = ProductQuery.builder().categoryIn(Category.MEAT, Category.FISH).ratingBetween(0, 3).build();
+
+        // Act
+        List<Product> rows = store.read(AccessPath.BITMAP, query).toList();
+
+        // Assert
+        assertEquals(store.stream().filter(product -> (product.category() == Category.MEAT
+                || product.category() == Category.FISH) && product.rating() <= 3).toList(), rows);
+        assertEquals(rows.size(), store.count(AccessPath.BITMAP, query));
+    }
+
+    // 2000 products over five months; id 4 starts out as dairy rated 4.
+    private static void fill(Warehouse warehouse) {
+        Category[] categories = Category.values();
+        for (int id = 1; id <= 2000; id++) {
+            warehouse.addProduct(new Product(id, "P" + id, categories[id % categories.length], id % 11,
+                    START.plusDays(id % 150), START.plusDays(id % 150)));
+        }
+    }
+
+    private static List<Product> scan(Warehouse warehouse, Predicate<Product> condition) {
+        return warehouse.getProducts().stream().filter(condition).toList();
+    }
+
+    private static List<Integer> unsignedOrder(TreeSet<Integer> values) {
+        return values.stream().sorted(Integer::compareUnsigned).toList();
+    }
+}
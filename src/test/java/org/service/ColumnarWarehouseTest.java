@@ -0,0 +1,131 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarWarehouseTest {
+
+    private static final Category[] CATEGORIES = {Category.FRUIT, Category.VEGETABLE, Category.MEAT, Category.FISH, Category.DAIRY};
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @Test
+    public void testBestScanUsesVectorApiWhenModuleIsPresent() {
+        boolean vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+        // Act
+        ColumnScan scan = ColumnScan.best();
+
+        // Assert
+        assertEquals(vectorModule, scan instanceof VectorColumnScan, "The vector scan should be used only when the module is present.");
+    }
+
+    @Test
+    public void testRejectedUpdateLeavesTheProductUnchanged() {
+        Warehouse warehouse = new ColumnarWarehouse();
+        Product carrot = new Product(1, "Carrot", Category.VEGETABLE, 9, START, START);
+        warehouse.addProduct(carrot);
+
+        // Act
+        assertThrows(IllegalArgumentException.class, () -> warehouse.updateProductInWarehouse(
+                new Product(1, "Carrot", Category.VEGETABLE, 9, LocalDate.MAX, LocalDate.MAX)));
+        assertThrows(IllegalArgumentException.class, () -> warehouse.addProduct(
+                new Product(2, "Pear", Category.FRUIT, 5, START, LocalDate.MIN)));
+
+        // Assert
+        assertEquals(carrot, warehouse.findProductById(1));
+        assertEquals(List.of(carrot), warehouse.getProducts());
+        assertEquals(List.of(carrot), warehouse.findProductsFromCreatedDate(LocalDate.MIN));
+        assertEquals(List.of(carrot), warehouse.findProductsCreatedBetween(LocalDate.MIN, LocalDate.MAX));
+        assertEquals(List.of(), warehouse.findProductsFromCreatedDate(LocalDate.MAX));
+        assertEquals(List.of(), warehouse.findProductsCreatedBetween(LocalDate.MIN, LocalDate.MIN));
+    }
+
+    @Test
+    public void testCompactionDropsNamesNoLongerInUse() {
+        ColumnarProductStore store = new ColumnarProductStore();
+        for (int id = 1; id <= 100; id++) {
+            store.insert(new Product(id, "Name" + id, Category.FRUIT, 5, START, START));
+        }
+
+        // Act
+        for (int round = 1; round <= 100; round++) {
+            for (int id = 1; id <= 100; id++) {
+                store.upsert(new Product(id, "Name" + id + "-" + round, Category.FRUIT, 5, START, START));
+            }
+        }
+
+        // Assert
+        assertTrue(store.nameCount() <= 2 * 1024 + 100, "names: " + store.nameCount());
+        assertEquals("Name42-100", store.get(42).name());
+        assertEquals(100, store.size());
+    }
+
+    @Test
+    public void testScalarScanMatchesIndexedWarehouse() {
+        assertMatchesIndexedWarehouse(new ScalarColumnScan());
+    }
+
+    @Test
+    public void testVectorScanMatchesIndexedWarehouse() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return;
+        }
+        assertMatchesIndexedWarehouse(new VectorColumnScan());
+    }
+
+    @Test
+    public void testColumnarWarehouseKeepsUpdateOrderAndDuplicateCheck() {
+        ColumnarWarehouse warehouse = new ColumnarWarehouse();
+        warehouse.addProduct(new Product(1, "Carrot", Category.VEGETABLE, 9, START, START));
+        warehouse.addProduct(new Product(2, "Apple", Category.FRUIT, 8, START, START));
+
+        // Act
+        warehouse.updateProductInWarehouse(new Product(1, "Updated Carrot", Category.FRUIT, 10, START, START.plusDays(1)));
+
+        // Assert
+        assertEquals(List.of(2, 1), warehouse.getProducts().stream().map(Product::id).toList(), "An updated product should move to the end.");
+        assertEquals(List.of("Apple", "Updated Carrot"), warehouse.filterProductsByCategory(Category.FRUIT).stream().map(Product::name).toList());
+        assertTrue(warehouse.filterProductsByCategory(Category.VEGETABLE).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> warehouse.addProduct(new Product(2, "Pear", Category.FRUIT, 5, START, START)));
+    }
+
+    private void assertMatchesIndexedWarehouse(ColumnScan scan) {
+        Warehouse expected = new Warehouse();
+        Warehouse actual = new Warehouse(new ColumnarProductStore(scan));
+        Random random = new Random(42);
+
+        // Act: enough updates to trigger compaction of deleted rows.
+        for (int i = 0; i < 6_000; i++) {
+            int id = 1 + random.nextInt(2_000);
+            Product product = new Product(id, "P" + random.nextInt(500), CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    random.nextInt(11), START.plusDays(random.nextInt(1_000)), START.plusDays(random.nextInt(1_000)));
+            expected.updateProductInWarehouse(product);
+            actual.updateProductInWarehouse(product);
+        }
+
+        // Assert
+        assertEquals(expected.getProducts(), actual.getProducts(), "Both stores should keep the same insertion order.");
+        for (Category category : Category.values()) {
+            assertEquals(expected.filterProductsByCategory(category), actual.filterProductsByCategory(category));
+        }
+        for (int day = 0; day < 1_000; day += 97) {
+            LocalDate from = START.plusDays(day);
+            assertEquals(expected.findProductsFromCreatedDate(from), actual.findProductsFromCreatedDate(from));
+            assertEquals(expected.findProductsCreatedBetween(from, from.plusDays(50)), actual.findProductsCreatedBetween(from, from.plusDays(50)));
+        }
+        for (int min = 0; min <= 10; min++) {
+            assertEquals(expected.findProductsByRating(min, 10), actual.findProductsByRating(min, 10));
+            assertEquals(expected.findProductsByRating(min, min), actual.findProductsByRating(min, min));
+        }
+        for (Product product : expected.getProducts()) {
+            assertEquals(product, actual.findProductById(product.id()));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandScriptTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    private static String run(Warehouse warehouse, String script, Writer out) throws IOException {
+        CommandScript.Summary summary = new CommandScript(warehouse, new BufferedReader(new StringReader(script)), out).run();
+        return summary.commands() + "/" + summary.failures();
+    }
+
+    @Test
+    public void testCommandsChangeAndQueryTheWarehouse() throws IOException {
+        Warehouse warehouse = new Warehouse();
+        StringWriter out = new StringWriter();
+        String script = """
+                # seed
+                add 1 FRUIT 8 2020-01-01 2020-01-01 Granny Smith
+                add 2 meat 6 2020-01-11 2020-01-13 Steak
+
+                update 1 FRUIT 9 2020-01-01 2020-01-05 Granny Smith
+                get 1
+                category FRUIT
+                created-between 2020-01-05 2020-01-31
+                modified 2020-01-12
+                top FRUIT 1
+                search 5 smith
+                """;
+
+        // Act
+        String summary = run(warehouse, script, out);
+
+        // Assert
+        Product apple = new Product(1, "Granny Smith", Category.FRUIT, 9, START, START.plusDays(4));
+        Product steak = new Product(2, "Steak", Category.MEAT, 6, START.plusDays(10), START.plusDays(12));
+        assertEquals("9/0", summary);
+        assertEquals(apple, warehouse.findProductById(1));
+        assertEquals(String.join("\n", apple.toString(), apple.toString(), steak.toString(), steak.toString(),
+                apple.toString(), apple.toString()) + "\n", out.toString());
+    }
+
+    @Test
+    public void testFailedCommandsAreReportedAndTheScriptGoesOn() throws IOException {
+        Warehouse warehouse = new Warehouse();
+        StringWriter out = new StringWriter();
+        String script = """
+                get 7
+                add 1 FRUIT 11 2020-01-01 2020-01-01 Apple
+                add 1 FRUIT 5 2020-01-01 2020-01-01 Apple
+                add 1 FRUIT 5 2020-01-01 2020-01-01 Apple
+                category TOYS
+                sell 1
+                get 1 2
+                """;
+
+        // Act
+        String summary = run(warehouse, script, out);
+
+        // Assert
+        assertEquals("7/6", summary);
+        String[] lines = out.toString().split("\n");
+        assertEquals(6, lines.length);
+        assertEquals("Fel på rad 1: Produkt med ID 7 hittades ej.", lines[0]);
+        assertTrue(lines[1].startsWith("Fel på rad 2: "));
+        assertTrue(lines[2].startsWith("Fel på rad 4: "));
+        assertEquals("Fel på rad 5: Okänd kategori: TOYS", lines[3]);
+        assertEquals("Fel på rad 6: Okänt kommando: sell", lines[4]);
+        assertEquals("Fel på rad 7: Kommandot har för många argument.", lines[5]);
+    }
+
+    @Test
+    public void testModifiedWithoutADateListsEveryModifiedProduct() throws IOException {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+        warehouse.addProduct(new Product(2, "Kiwi", Category.FRUIT, 5, START, null));
+        warehouse.addProduct(new Product(3, "Steak", Category.MEAT, 6, START, START.plusDays(2)));
+        StringWriter out = new StringWriter();
+
+        // Act
+        String summary = run(warehouse, "modified\n", out);
+
+        // Assert
+        assertEquals("1/0", summary);
+        StringBuilder expected = new StringBuilder();
+        warehouse.findModifiedProducts().forEach(product -> expected.append(product).append('\n'));
+        assertEquals(expected.toString(), out.toString());
+        assertEquals(2, out.toString().lines().count());
+    }
+
+    @Test
+    public void testOutputIsFlushedOnlyWhenTheInputRunsDry() throws IOException {
+        Warehouse warehouse = new Warehouse();
+        StringBuilder script = new StringBuilder();
+        for (int id = 1; id <= 10_000; id++) {
+            script.append("add ").append(id).append(" DAIRY 5 2020-01-01 2020-01-01 Cheese ").append(id).append('\n');
+            script.append("get ").append(id).append('\n');
+        }
+        int[] flushes = new int[1];
+        StringWriter written = new StringWriter();
+        Writer out = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                written.write(buffer, offset, length);
+            }
+
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        // Act
+        String summary = run(warehouse, script.toString(), out);
+
+        // Assert
+        assertEquals("20000/0", summary);
+        assertEquals(10_000, written.toString().lines().count());
+        assertTrue(flushes[0] <= 2, "flushes: " + flushes[0]);
+    }
+}
@@ -0,0 +1,196 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentWarehouseTest {
+
+    private static final int THREADS = 8;
+    private static final Category[] CATEGORIES = {Category.FRUIT, Category.VEGETABLE, Category.MEAT, Category.FISH, Category.DAIRY};
+
+    private final LocalDate currentDate = LocalDate.now();
+
+    @Test
+    public void testConcurrentAddsAreNotLost() throws Exception {
+        ConcurrentWarehouse warehouse = new ConcurrentWarehouse();
+        int perThread = 5_000;
+
+        // Act
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < perThread; i++) {
+                int id = thread * perThread + i + 1;
+                warehouse.addProduct(new Product(id, "P" + id, CATEGORIES[id % CATEGORIES.length], id % 11, currentDate, currentDate));
+            }
+            return null;
+        });
+
+        // Assert
+        assertEquals(THREADS * perThread, warehouse.getProducts().size(), "No add should be lost.");
+        for (int id = 1; id <= THREADS * perThread; id++) {
+            assertEquals("P" + id, warehouse.findProductById(id).name(), "Every added product should be found.");
+        }
+    }
+
+    @Test
+    public void testConcurrentDuplicateAddsOnlyOneWins() throws Exception {
+        ConcurrentWarehouse warehouse = new ConcurrentWarehouse();
+        int ids = 2_000;
+        AtomicInteger successes = new AtomicInteger();
+
+        // Act
+        runConcurrently(THREADS, thread -> {
+            for (int id = 1; id <= ids; id++) {
+                try {
+                    warehouse.addProduct(new Product(id, "T" + thread, Category.FRUIT, 5, currentDate, currentDate));
+                    successes.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    // Another thread added this id first.
+                }
+            }
+            return null;
+        });
+
+        // Assert
+        assertEquals(ids, successes.get(), "Exactly one add per id should succeed.");
+        assertEquals(ids, warehouse.getProducts().size());
+        assertEquals(ids, warehouse.filterProductsByCategory(Category.FRUIT).size());
+    }
+
+    @Test
+    public void testReadersSeeConsistentSnapshotsDuringUpdates() throws Exception {
+        ConcurrentWarehouse warehouse = new ConcurrentWarehouse();
+        int productCount = 1_000;
+        int rounds = 200;
+        for (int id = 1; id <= productCount; id++) {
+            warehouse.addProduct(encode(id, 0));
+        }
+        int writers = THREADS / 2;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger writersLeft = new AtomicInteger(writers);
+
+        // Act
+        runConcurrently(THREADS, thread -> {
+            if (thread < writers) {
+                for (int round = 1; round <= rounds; round++) {
+                    for (int id = thread + 1; id <= productCount; id += writers) {
+                        warehouse.updateProductInWarehouse(encode(id, round));
+                    }
+                }
+                if (writersLeft.decrementAndGet() == 0) {
+                    writing.set(false);
+                }
+                return null;
+            }
+            while (writing.get()) {
+                List<Product> snapshot = warehouse.getProducts();
+                assertEquals(productCount, snapshot.size(), "A snapshot should never miss or duplicate a product.");
+                Set<Integer> seen = new HashSet<>();
+                for (Product product : snapshot) {
+                    assertTrue(seen.add(product.id()), "A snapshot should contain every id once.");
+                    assertConsistent(product);
+                }
+
+                int total = 0;
+                for (Category category : CATEGORIES) {
+                    List<Product> inCategory = warehouse.filterProductsByCategory(category);
+                    for (int i = 0; i < inCategory.size(); i++) {
+                        assertEquals(category, inCategory.get(i).category(), "Only products of the category should be returned.");
+                        assertConsistent(inCategory.get(i));
+                        if (i > 0) {
+                            assertTrue(inCategory.get(i - 1).name().compareTo(inCategory.get(i).name()) <= 0, "Products should be sorted by name.");
+                        }
+                    }
+                    total += inCategory.size();
+                }
+                assertTrue(total > 0);
+
+                int id = 1 + (int) (Math.random() * productCount);
+                Product product = warehouse.findProductById(id);
+                assertEquals(id, product.id());
+                assertConsistent(product);
+            }
+            return null;
+        });
+
+        // Assert
+        for (int id = 1; id <= productCount; id++) {
+            assertEquals(encode(id, rounds), warehouse.findProductById(id), "The last update of every product should win.");
+        }
+        assertEquals(productCount, warehouse.getProducts().size());
+    }
+
+    @Test
+    public void testGetProductsIsPointInTimeSnapshot() {
+        ConcurrentWarehouse warehouse = new ConcurrentWarehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, currentDate, currentDate));
+        List<Product> before = warehouse.getProducts();
+
+        // Act
+        warehouse.addProduct(new Product(2, "Carrot", Category.VEGETABLE, 9, currentDate, currentDate));
+        warehouse.updateProductInWarehouse(new Product(1, "Green Apple", Category.FRUIT, 9, currentDate, currentDate));
+
+        // Assert
+        assertEquals(1, before.size(), "An earlier snapshot should not see later writes.");
+        assertEquals("Apple", before.get(0).name());
+        assertEquals(List.of("Carrot", "Green Apple"), warehouse.getProducts().stream().map(Product::name).toList());
+        assertThrows(UnsupportedOperationException.class, () -> before.add(new Product(3, "Milk", Category.DAIRY, 5, currentDate, currentDate)));
+    }
+
+    // The name and rating both encode the round, so a product mixing two versions is detectable.
+    private Product encode(int id, int round) {
+        Category category = CATEGORIES[(id + round) % CATEGORIES.length];
+        return new Product(id, "P" + id + "-" + round + "-" + category, category, round % 11, currentDate, currentDate.plusDays(round));
+    }
+
+    private void assertConsistent(Product product) {
+        String[] parts = product.name().split("-");
+        int round = Integer.parseInt(parts[1]);
+        assertEquals("P" + product.id(), parts[0], "Name should belong to the product id.");
+        assertEquals(product.category().name(), parts[2], "Name and category should come from the same write.");
+        assertEquals(round % 11, product.rating(), "Name and rating should come from the same write.");
+        assertEquals(currentDate.plusDays(round), product.lastModifiedDate(), "Name and date should come from the same write.");
+    }
+
+    private interface Task {
+        Void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(int threads, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int index = thread;
+                Callable<Void> callable = () -> {
+                    start.await();
+                    return task.run(index);
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournaledWarehouseTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testJournalReplaysAfterReopen() {
+        Path journal = tempDir.resolve("warehouse.journal");
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            warehouse.addProduct(new Product(1, "Carrot", Category.VEGETABLE, 9, START, START));
+            warehouse.verifyProduct(2, "Äpple", Category.FRUIT, 8, START, START);
+            warehouse.updateProductInWarehouse(new Product(1, "Updated Carrot", Category.VEGETABLE, 10, START, START.plusDays(1)));
+            assertThrows(IllegalArgumentException.class, () -> warehouse.addProduct(new Product(2, "Pear", Category.FRUIT, 5, START, START)));
+        }
+
+        // Act
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            // Assert
+            assertEquals(List.of(new Product(2, "Äpple", Category.FRUIT, 8, START, START),
+                    new Product(1, "Updated Carrot", Category.VEGETABLE, 10, START, START.plusDays(1))), warehouse.getProducts());
+        }
+    }
+
+    @Test
+    public void testReplayToleratesTornFinalRecord() throws IOException {
+        Path journal = tempDir.resolve("warehouse.journal");
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            warehouse.addProduct(new Product(1, "Carrot", Category.VEGETABLE, 9, START, START));
+            warehouse.addProduct(new Product(2, "Apple", Category.FRUIT, 8, START, START));
+        }
+        long intactSize = Files.size(journal);
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            warehouse.addProduct(new Product(3, "Steak", Category.MEAT, 7, START, START));
+        }
+        // Cut the last record in half, as a crash in the middle of a write would.
+        long tornSize = intactSize + (Files.size(journal) - intactSize) / 2;
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(tornSize);
+        }
+
+        // Act
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            // Assert
+            assertEquals(List.of(1, 2), warehouse.getProducts().stream().map(Product::id).toList(), "The torn record should be dropped.");
+            assertEquals(intactSize, Files.size(journal), "The torn tail should be cut off.");
+            warehouse.addProduct(new Product(3, "Steak", Category.MEAT, 7, START, START));
+        }
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            assertEquals(List.of(1, 2, 3), warehouse.getProducts().stream().map(Product::id).toList(), "Writes after recovery should replay.");
+        }
+    }
+
+    @Test
+    public void testReplayStopsAtCorruptRecord() throws IOException {
+        Path journal = tempDir.resolve("warehouse.journal");
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            warehouse.addProduct(new Product(1, "Carrot", Category.VEGETABLE, 9, START, START));
+        }
+        long intactSize = Files.size(journal);
+        Files.write(journal, new byte[]{40, 0, 0, 0, 1, 2, 3, 4, 5, 6, 7}, StandardOpenOption.APPEND);
+
+        // Act
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            // Assert
+            assertEquals(1, warehouse.getProducts().size());
+            assertEquals(intactSize, Files.size(journal));
+        }
+    }
+
+    @Test
+    public void testEverySyncPolicyReplays() {
+        for (JournalSync sync : JournalSync.values()) {
+            Path journal = tempDir.resolve(sync + ".journal");
+            try (JournaledWarehouse warehouse = new JournaledWarehouse(journal, sync, Duration.ofMillis(5))) {
+                for (int id = 1; id <= 500; id++) {
+                    warehouse.addProduct(new Product(id, "P" + id, Category.FISH, id % 11, START, START));
+                }
+            }
+
+            // Act
+            try (JournaledWarehouse warehouse = new JournaledWarehouse(journal, sync, Duration.ofMillis(5))) {
+                // Assert
+                assertEquals(500, warehouse.getProducts().size(), "All writes should replay with " + sync + ".");
+            }
+        }
+    }
+
+    @Test
+    public void testUnrecordableProductsLeaveTheWarehouseUnchanged() {
+        Path journal = tempDir.resolve("warehouse.journal");
+        Product carrot = new Product(1, "Carrot", Category.VEGETABLE, 9, START, START);
+        String tooLong = "a".repeat(1 << 20);
+        List<Integer> rejected = new ArrayList<>();
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            warehouse.addProduct(carrot);
+
+            // Act
+            assertThrows(IllegalArgumentException.class, () -> warehouse.updateProductInWarehouse(
+                    new Product(1, tooLong, Category.VEGETABLE, 9, START, START)));
+            assertThrows(IllegalArgumentException.class, () -> warehouse.addProduct(
+                    new Product(2, "Pear", Category.FRUIT, 5, START, LocalDate.MAX)));
+            warehouse.addProducts(List.of(new Product(3, tooLong, Category.FRUIT, 5, START, START),
+                    new Product(4, "Plum", Category.FRUIT, 6, START, START)), (e, index) -> rejected.add(index));
+
+            // Assert
+            assertEquals(List.of(0), rejected);
+            assertEquals(carrot, warehouse.findProductById(1));
+            assertEquals(List.of(1, 4), warehouse.getProducts().stream().map(Product::id).toList());
+        }
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            assertEquals(List.of(1, 4), warehouse.getProducts().stream().map(Product::id).toList());
+        }
+    }
+
+    @Test
+    public void testWritesAfterCloseChangeNothing() {
+        Path journal = tempDir.resolve("warehouse.journal");
+        JournaledWarehouse warehouse = new JournaledWarehouse(journal);
+        warehouse.addProduct(new Product(1, "Carrot", Category.VEGETABLE, 9, START, START));
+        warehouse.close();
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> warehouse.addProduct(new Product(2, "Apple", Category.FRUIT, 8, START, START)));
+        assertThrows(IllegalStateException.class, () -> warehouse.updateProductInWarehouse(
+                new Product(1, "Carrot", Category.VEGETABLE, 3, START, START.plusDays(1))));
+
+        // Assert
+        assertEquals(List.of(new Product(1, "Carrot", Category.VEGETABLE, 9, START, START)), warehouse.getProducts());
+        assertEquals(0, warehouse.ratingStats(Category.FRUIT).count());
+        try (JournaledWarehouse reopened = new JournaledWarehouse(journal)) {
+            assertEquals(warehouse.getProducts(), reopened.getProducts());
+        }
+    }
+
+    @Test
+    public void testFailedCommitTakesTheChangeBack() {
+        Path journal = tempDir.resolve("warehouse.journal");
+        Product carrot = new Product(1, "Carrot", Category.VEGETABLE, 9, START, START);
+        JournaledWarehouse warehouse = new JournaledWarehouse(journal);
+        warehouse.addProduct(carrot);
+        warehouse.addProduct(new Product(2, "Apple", Category.FRUIT, 8, START, START));
+
+        // Act
+        // An interrupted write closes the journal's channel, so the commit fails.
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(RuntimeException.class, () -> warehouse.updateProductInWarehouse(
+                    new Product(1, "Carrot", Category.VEGETABLE, 2, START, START.plusDays(1))));
+        } finally {
+            Thread.interrupted();
+        }
+        assertThrows(RuntimeException.class, () -> warehouse.addProduct(new Product(3, "Pear", Category.FRUIT, 5, START, START)));
+        List<Integer> rejected = new ArrayList<>();
+        assertThrows(RuntimeException.class, () -> warehouse.addProducts(
+                List.of(new Product(4, "Plum", Category.FRUIT, 6, START, START)), (e, index) -> rejected.add(index)));
+        assertThrows(RuntimeException.class, warehouse::close);
+
+        // Assert
+        assertEquals(List.of(carrot, new Product(2, "Apple", Category.FRUIT, 8, START, START)), warehouse.getProducts());
+        assertEquals(carrot, warehouse.findProductById(1));
+        assertEquals(List.of(carrot), warehouse.filterProductsByCategory(Category.VEGETABLE));
+        assertEquals(1, warehouse.ratingStats(Category.FRUIT).count());
+        assertEquals(List.of(), rejected);
+        try (JournaledWarehouse reopened = new JournaledWarehouse(journal)) {
+            assertEquals(warehouse.getProducts(), reopened.getProducts());
+        }
+    }
+
+    @Test
+    public void testConcurrentWritersShareSyncs() throws Exception {
+        Path journal = tempDir.resolve("warehouse.journal");
+        int threads = 8;
+        int perThread = 250;
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * perThread;
+                writers.add(new Thread(() -> {
+                    for (int i = 1; i <= perThread; i++) {
+                        warehouse.addProduct(new Product(offset + i, "P" + (offset + i), Category.FRUIT, 5, START, START));
+                    }
+                }));
+            }
+
+            // Act
+            writers.forEach(Thread::start);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+
+            // Assert
+            assertTrue(warehouse.syncCount() <= threads * perThread, "There should never be more syncs than writes.");
+        }
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            assertEquals(threads * perThread, warehouse.getProducts().size(), "No write should be lost.");
+        }
+    }
+}
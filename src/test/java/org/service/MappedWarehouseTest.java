@@ -0,0 +1,104 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedWarehouseTest {
+
+    private static final Category[] CATEGORIES = {Category.FRUIT, Category.VEGETABLE, Category.MEAT, Category.FISH, Category.DAIRY};
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testProductsSurviveReopen() {
+        Path file = tempDir.resolve("warehouse.db");
+        try (MappedWarehouse warehouse = new MappedWarehouse(file)) {
+            warehouse.addProduct(new Product(1, "Carrot", Category.VEGETABLE, 9, START, START));
+            warehouse.addProduct(new Product(2, "Äpple", Category.FRUIT, 8, START, START));
+            warehouse.updateProductInWarehouse(new Product(1, "Updated Carrot", Category.VEGETABLE, 10, START, START.plusDays(1)));
+        }
+
+        // Act
+        try (MappedWarehouse warehouse = new MappedWarehouse(file)) {
+            // Assert
+            assertEquals(List.of(new Product(2, "Äpple", Category.FRUIT, 8, START, START),
+                    new Product(1, "Updated Carrot", Category.VEGETABLE, 10, START, START.plusDays(1))), warehouse.getProducts());
+            assertEquals("Äpple", warehouse.findProductById(2).name());
+            assertThrows(IllegalArgumentException.class, () -> warehouse.addProduct(new Product(2, "Pear", Category.FRUIT, 5, START, START)));
+        }
+    }
+
+    @Test
+    public void testGrowthAndCompactionMatchIndexedWarehouse() {
+        Path file = tempDir.resolve("warehouse.db");
+        Warehouse expected = new Warehouse();
+        Random random = new Random(11);
+
+        try (MappedWarehouse warehouse = new MappedWarehouse(file)) {
+            // Act: more rows than the initial capacity, and enough updates to trigger compaction.
+            for (int i = 0; i < 8_000; i++) {
+                int id = 1 + random.nextInt(3_000);
+                Product product = new Product(id, "Product " + random.nextInt(500), CATEGORIES[random.nextInt(CATEGORIES.length)],
+                        random.nextInt(11), START.plusDays(random.nextInt(1_000)), START.plusDays(random.nextInt(1_000)));
+                expected.updateProductInWarehouse(product);
+                warehouse.updateProductInWarehouse(product);
+            }
+        }
+
+        // Assert
+        try (MappedWarehouse actual = new MappedWarehouse(file)) {
+            assertEquals(expected.getProducts(), actual.getProducts(), "The reopened file should keep the same insertion order.");
+            for (Category category : Category.values()) {
+                assertEquals(expected.filterProductsByCategory(category), actual.filterProductsByCategory(category));
+            }
+            LocalDate from = START.plusDays(300);
+            assertEquals(expected.findProductsFromCreatedDate(from), actual.findProductsFromCreatedDate(from));
+            assertEquals(expected.findProductsCreatedBetween(from, from.plusDays(100)), actual.findProductsCreatedBetween(from, from.plusDays(100)));
+            assertEquals(expected.findProductsByRating(7, 10), actual.findProductsByRating(7, 10));
+            for (Product product : expected.getProducts()) {
+                assertEquals(product, actual.findProductById(product.id()));
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsFileThatIsNotAWarehouse() throws IOException {
+        Path file = tempDir.resolve("other.txt");
+        Files.writeString(file, "not a warehouse file, just some text that is long enough to hold a header");
+
+        assertThrows(UncheckedIOException.class, () -> new MappedWarehouse(file));
+    }
+
+    @Test
+    public void testRejectedUpdateLeavesTheFileUnchanged() {
+        Path file = tempDir.resolve("warehouse.db");
+        Product carrot = new Product(1, "Carrot", Category.VEGETABLE, 9, START, START);
+        try (MappedWarehouse warehouse = new MappedWarehouse(file)) {
+            warehouse.addProduct(carrot);
+
+            // Act
+            assertThrows(IllegalArgumentException.class, () -> warehouse.updateProductInWarehouse(
+                    new Product(1, "Carrot", Category.VEGETABLE, 9, LocalDate.MAX, LocalDate.MAX)));
+
+            // Assert
+            assertEquals(List.of(carrot), warehouse.findProductsFromCreatedDate(LocalDate.MIN));
+        }
+        try (MappedWarehouse warehouse = new MappedWarehouse(file)) {
+            assertEquals(List.of(carrot), warehouse.getProducts());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ModifiedProductsTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testModifiedSinceMatchesAScanForEveryWarehouse() throws Exception {
+        for (Supplier<Warehouse> kind : WarehouseKinds.all(tempDir)) {
+            Warehouse warehouse = kind.get();
+            try {
+                fill(warehouse);
+                LocalDate since = START.plusDays(20);
+
+                // Act
+                List<Product> found = warehouse.findProductsModifiedSince(since);
+
+                // Assert
+                List<Product> expected = warehouse.getProducts().stream()
+                        .filter(product -> !product.createdDate().equals(product.lastModifiedDate()))
+                        .filter(product -> !product.lastModifiedDate().isBefore(since))
+                        .sorted(Comparator.comparing(Product::lastModifiedDate))
+                        .toList();
+                assertFalse(expected.isEmpty());
+                assertEquals(expected, found, warehouse.getClass().getSimpleName());
+            } finally {
+                WarehouseKinds.close(warehouse);
+            }
+        }
+    }
+
+    @Test
+    public void testReportFollowsUpdates() {
+        Warehouse warehouse = new ConcurrentWarehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+        warehouse.addProduct(new Product(2, "Pear", Category.FRUIT, 6, START, START.plusDays(5)));
+        warehouse.addProduct(new Product(3, "Steak", Category.MEAT, 5, START, START));
+
+        // Act
+        warehouse.updateProductInWarehouse(new Product(1, "Apple", Category.FRUIT, 9, START, START.plusDays(2)));
+        warehouse.updateProductInWarehouse(new Product(2, "Pear", Category.FRUIT, 6, START, START));
+        warehouse.updateProductInWarehouse(new Product(3, "Steak", Category.MEAT, 7, START, START.plusDays(1)));
+
+        // Assert
+        assertEquals(List.of(3, 1), warehouse.findProductsModifiedSince(START).stream().map(Product::id).toList());
+        assertEquals(List.of(1), warehouse.findProductsModifiedSince(START.plusDays(2)).stream().map(Product::id).toList());
+    }
+
+    @Test
+    public void testMismatchedReportIsOrderedByModification() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START.plusDays(9)));
+        warehouse.addProduct(new Product(2, "Pear", Category.FRUIT, 6, START, START.plusDays(3)));
+        warehouse.addProduct(new Product(3, "Steak", Category.MEAT, 5, START, START));
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+
+        // Act
+        try {
+            warehouse.findAndPrintMismatchedProducts();
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        // Assert
+        String printed = output.toString();
+        assertTrue(printed.indexOf("Pear") < printed.indexOf("Apple"), printed);
+        assertFalse(printed.contains("Steak"), printed);
+    }
+
+    @Test
+    public void testNullDateIsRejected() {
+        // Assert
+        assertThrows(NullPointerException.class, () -> new Warehouse().findProductsModifiedSince(null));
+    }
+
+    // Every third product is modified on creation, and every fifth is modified again later.
+    private static void fill(Warehouse warehouse) {
+        for (int id = 1; id <= 90; id++) {
+            LocalDate created = START.plusDays(id % 10);
+            LocalDate modified = id % 3 == 0 ? created.plusDays(id % 30) : created;
+            warehouse.addProduct(new Product(id, "P" + id, Category.FRUIT, id % 11, created, modified));
+        }
+        for (int id = 5; id <= 90; id += 5) {
+            Product product = warehouse.findProductById(id);
+            warehouse.updateProductInWarehouse(new Product(id, product.name(), product.category(), 10,
+                    product.createdDate(), START.plusDays(15 + id % 20)));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameSearchTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSearchIgnoresCaseAndRanksBetterMatchesFirst() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Smoked Salmon", Category.FISH, 8, START, START));
+        warehouse.addProduct(new Product(2, "Salmon", Category.FISH, 7, START, START));
+        warehouse.addProduct(new Product(3, "Salmonella Test Kit", Category.MEAT, 1, START, START));
+        warehouse.addProduct(new Product(4, "Psalm Book", Category.DAIRY, 2, START, START));
+        warehouse.addProduct(new Product(5, "Salmi", Category.MEAT, 5, START, START));
+        warehouse.addProduct(new Product(6, null, Category.MEAT, 5, START, START));
+
+        // Act
+        List<Product> found = warehouse.searchProductsByName("SALM", 10);
+
+        // Assert
+        assertEquals(List.of(5, 2, 3, 1, 4), found.stream().map(Product::id).toList());
+        assertEquals(List.of(5, 2), warehouse.searchProductsByName("salm", 2).stream().map(Product::id).toList());
+        assertEquals(List.of(2), warehouse.searchProductsByName("salmon", 1).stream().map(Product::id).toList());
+        assertTrue(warehouse.searchProductsByName("salmonx", 10).isEmpty());
+    }
+
+    @Test
+    public void testShortSearchesUseSingleAndDoubleCharacters() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Kiwi", Category.FRUIT, 8, START, START));
+        warehouse.addProduct(new Product(2, "Äpple", Category.FRUIT, 7, START, START));
+        warehouse.addProduct(new Product(3, "Ost", Category.DAIRY, 6, START, START));
+
+        // Assert
+        assertEquals(List.of(1), warehouse.searchProductsByName("w", 10).stream().map(Product::id).toList());
+        assertEquals(List.of(2), warehouse.searchProductsByName("äP", 10).stream().map(Product::id).toList());
+        assertEquals(List.of(3), warehouse.searchProductsByName("ost", 10).stream().map(Product::id).toList());
+    }
+
+    @Test
+    public void testRenamedProductsAreFoundByTheirNewName() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Carrot", Category.VEGETABLE, 6, START, START));
+
+        // Act
+        warehouse.updateProductInWarehouse(new Product(1, "Baby Carrots", Category.VEGETABLE, 6, START,
+                START.plusDays(1)));
+
+        // Assert
+        assertEquals(List.of("Baby Carrots"),
+                warehouse.searchProductsByName("baby", 5).stream().map(Product::name).toList());
+        assertEquals(1, warehouse.searchProductsByName("carrot", 5).size());
+        warehouse.updateProductInWarehouse(new Product(1, "Parsnip", Category.VEGETABLE, 6, START, START.plusDays(2)));
+        assertTrue(warehouse.searchProductsByName("carrot", 5).isEmpty());
+    }
+
+    @Test
+    public void testEveryWarehouseFindsTheSameProducts() throws Exception {
+        String[] words = {"Apple", "Pineapple", "Grape", "Grapefruit", "Apricot", "Papaya"};
+        List<List<Product>> results = new ArrayList<>();
+        for (Supplier<Warehouse> kind : WarehouseKinds.all(tempDir)) {
+            Warehouse warehouse = kind.get();
+            try {
+                for (int id = 1; id <= 120; id++) {
+                    warehouse.addProduct(new Product(id, words[id % words.length] + " " + id, Category.FRUIT, id % 11,
+                            START, START));
+                }
+
+                // Act
+                results.add(warehouse.searchProductsByName("APP", 15));
+            } finally {
+                WarehouseKinds.close(warehouse);
+            }
+        }
+
+        // Assert
+        assertEquals(15, results.getFirst().size());
+        assertTrue(results.getFirst().getFirst().name().startsWith("Apple"));
+        results.forEach(result -> assertEquals(results.getFirst(), result));
+    }
+
+    @Test
+    public void testBlankSearchAndInvalidLimitAreRejected() {
+        Warehouse warehouse = new Warehouse();
+
+        // Assert
+        assertThrows(IllegalArgumentException.class, () -> warehouse.searchProductsByName(" ", 5));
+        assertThrows(IllegalArgumentException.class, () -> warehouse.searchProductsByName("a", 0));
+    }
+}
@@ -0,0 +1,104 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapWarehouseTest {
+
+    private static final Category[] CATEGORIES = {Category.FRUIT, Category.VEGETABLE, Category.MEAT, Category.FISH, Category.DAIRY};
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @Test
+    public void testQueriesMatchIndexedWarehouse() {
+        Warehouse expected = new Warehouse();
+        Random random = new Random(7);
+
+        try (OffHeapWarehouse actual = new OffHeapWarehouse(4)) {
+            // Act: small initial capacity and many updates exercise growth and compaction.
+            for (int i = 0; i < 6_000; i++) {
+                int id = 1 + random.nextInt(2_000);
+                Product product = new Product(id, "Pröduct " + random.nextInt(500), CATEGORIES[random.nextInt(CATEGORIES.length)],
+                        random.nextInt(11), START.plusDays(random.nextInt(1_000)), START.plusDays(random.nextInt(1_000)));
+                expected.updateProductInWarehouse(product);
+                actual.updateProductInWarehouse(product);
+            }
+
+            // Assert
+            assertEquals(expected.getProducts(), actual.getProducts(), "Both stores should keep the same insertion order.");
+            for (Category category : Category.values()) {
+                assertEquals(expected.filterProductsByCategory(category), actual.filterProductsByCategory(category));
+            }
+            for (int day = 0; day < 1_000; day += 97) {
+                LocalDate from = START.plusDays(day);
+                assertEquals(expected.findProductsFromCreatedDate(from), actual.findProductsFromCreatedDate(from));
+                assertEquals(expected.findProductsCreatedBetween(from, from.plusDays(50)), actual.findProductsCreatedBetween(from, from.plusDays(50)));
+            }
+            for (int min = 0; min <= 10; min++) {
+                assertEquals(expected.findProductsByRating(min, 10), actual.findProductsByRating(min, 10));
+            }
+            for (Product product : expected.getProducts()) {
+                assertEquals(product, actual.findProductById(product.id()));
+            }
+        }
+    }
+
+    @Test
+    public void testEnsureCapacityGrowsAndKeepsRows() {
+        try (OffHeapWarehouse warehouse = new OffHeapWarehouse(2)) {
+            warehouse.addProduct(new Product(1, "Carrot", Category.VEGETABLE, 9, START, START));
+            warehouse.addProduct(new Product(2, null, null, 8, null, null));
+
+            // Act
+            warehouse.ensureCapacity(100);
+
+            // Assert
+            assertEquals(100, warehouse.capacity());
+            assertEquals(List.of(new Product(1, "Carrot", Category.VEGETABLE, 9, START, START), new Product(2, null, null, 8, null, null)),
+                    warehouse.getProducts());
+            assertThrows(IllegalArgumentException.class, () -> warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 5, START, START)));
+        }
+    }
+
+    @Test
+    public void testClosedWarehouseCannotBeUsed() {
+        OffHeapWarehouse warehouse = new OffHeapWarehouse();
+        warehouse.addProduct(new Product(1, "Carrot", Category.VEGETABLE, 9, START, START));
+
+        // Act
+        warehouse.close();
+        warehouse.close();
+
+        // Assert
+        assertThrows(IllegalStateException.class, () -> warehouse.findProductById(1));
+        assertThrows(IllegalStateException.class, warehouse::getProducts);
+    }
+
+    @Test
+    public void testRejectedUpdateLeavesTheProductUnchanged() {
+        Product carrot = new Product(1, "Carrot", Category.VEGETABLE, 9, START, START);
+        try (OffHeapWarehouse warehouse = new OffHeapWarehouse()) {
+            warehouse.addProduct(carrot);
+
+            // Act
+            assertThrows(IllegalArgumentException.class, () -> warehouse.updateProductInWarehouse(
+                    new Product(1, "Carrot", Category.VEGETABLE, 9, LocalDate.MAX, LocalDate.MAX)));
+            assertThrows(IllegalArgumentException.class, () -> warehouse.addProduct(
+                    new Product(2, "Pear", Category.FRUIT, 5, START, LocalDate.MIN)));
+
+            // Assert
+            assertEquals(carrot, warehouse.findProductById(1));
+            assertEquals(List.of(carrot), warehouse.getProducts());
+            assertEquals(List.of(carrot), warehouse.findProductsFromCreatedDate(LocalDate.MIN));
+            assertEquals(List.of(carrot), warehouse.findProductsCreatedBetween(LocalDate.MIN, LocalDate.MAX));
+            assertEquals(List.of(), warehouse.findProductsFromCreatedDate(LocalDate.MAX));
+            assertEquals(List.of(), warehouse.findProductsCreatedBetween(LocalDate.MIN, LocalDate.MIN));
+        }
+    }
+}
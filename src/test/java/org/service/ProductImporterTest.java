@@ -0,0 +1,151 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductImporterTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testImportCsvWithHeaderAndQuotedNames() throws IOException {
+        Path feed = tempDir.resolve("feed.csv");
+        Files.writeString(feed, """
+                id,name,category,rating,createdDate,lastModifiedDate
+                1,"Apple, red",FRUIT,8,2020-01-01,2020-01-02
+                2,"The ""best"" carrot",vegetable,9,2020-01-01,2020-01-01
+                """);
+        Warehouse warehouse = new Warehouse();
+
+        // Act
+        ProductImporter.ImportReport report = new ProductImporter(warehouse).importFile(feed);
+
+        // Assert
+        assertEquals(2, report.imported());
+        assertEquals(0, report.rejected());
+        assertEquals(List.of(new Product(1, "Apple, red", Category.FRUIT, 8, START, START.plusDays(1)),
+                new Product(2, "The \"best\" carrot", Category.VEGETABLE, 9, START, START)), warehouse.getProducts());
+    }
+
+    @Test
+    public void testImportReportsEveryBadRowAndKeepsGoing() {
+        String csv = """
+                1,Apple,FRUIT,8
+                0,Zero,FRUIT,5
+                3,Pear,FRUIT,11
+                4,,FRUIT,5
+                5,Bread,BAKERY,5
+                six,Salmon,FISH,5
+                1,Apple again,FRUIT,5
+
+                8,Milk,DAIRY,7,2020-13-01,2020-01-01
+                9,Steak,MEAT,6
+                """;
+        Warehouse warehouse = new Warehouse();
+
+        // Act
+        ProductImporter.ImportReport report = new ProductImporter(warehouse).importFrom(new StringReader(csv), ImportFormat.CSV);
+
+        // Assert
+        assertEquals(2, report.imported());
+        assertEquals(7, report.rejected());
+        assertEquals(List.of(
+                new ProductImporter.RowError(2, "ID måste vara ett positivt tal."),
+                new ProductImporter.RowError(3, "Betyget måste vara mellan 0 och 10."),
+                new ProductImporter.RowError(4, "Du måste ange ett namn."),
+                new ProductImporter.RowError(5, "Okänd kategori: BAKERY."),
+                new ProductImporter.RowError(6, "ID måste vara ett heltal."),
+                new ProductImporter.RowError(7, "Produkt med ID 1 finns redan."),
+                new ProductImporter.RowError(9, "Felaktigt datumformat, vänligen ange datum i formatet ÅÅÅÅ-MM-DD.")), report.errors());
+        assertEquals(List.of(1, 9), warehouse.getProducts().stream().map(Product::id).toList());
+        assertEquals(LocalDate.now(), warehouse.findProductById(9).createdDate(), "Missing dates should default to today.");
+    }
+
+    @Test
+    public void testImportNdjson() throws IOException {
+        Path feed = tempDir.resolve("feed.ndjson");
+        Files.writeString(feed, """
+                {"id": 1, "name": "Lax \\u00e4r god", "category": "FISH", "rating": 7, "createdDate": "2020-01-01", "lastModifiedDate": "2020-01-01", "supplier": "X"}
+                {"id": 2, "name": null, "category": "FISH", "rating": 7}
+                {"id": 3, "name": "Broken", "category": "FISH", "rating": 7
+                {"name": "Cod", "rating": 4, "id": 4, "category": "fish"}
+                """);
+        Warehouse warehouse = new Warehouse();
+
+        // Act
+        ProductImporter.ImportReport report = new ProductImporter(warehouse).importFile(feed);
+
+        // Assert
+        assertEquals(2, report.imported());
+        assertEquals(List.of(2L, 3L), report.errors().stream().map(ProductImporter.RowError::line).toList());
+        assertEquals("Du måste ange ett namn.", report.errors().get(0).message());
+        assertEquals(new Product(1, "Lax är god", Category.FISH, 7, START, START), warehouse.findProductById(1));
+        assertEquals("Cod", warehouse.findProductById(4).name());
+    }
+
+    @Test
+    public void testParallelChunksKeepFileOrder() {
+        StringBuilder csv = new StringBuilder();
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 1; id <= 20_000; id++) {
+            if (id % 1000 == 0) {
+                csv.append(id).append(",Bad,FRUIT,42\n");
+            } else {
+                csv.append(id).append(",P").append(id).append(",MEAT,").append(id % 11).append('\n');
+                expected.add(id);
+            }
+        }
+        Warehouse warehouse = new Warehouse();
+
+        // Act
+        ProductImporter.ImportReport report = new ProductImporter(warehouse, 64, 4, 5)
+                .importFrom(new StringReader(csv.toString()), ImportFormat.CSV);
+
+        // Assert
+        assertEquals(expected.size(), report.imported());
+        assertEquals(20, report.rejected());
+        assertEquals(List.of(1000L, 2000L, 3000L, 4000L, 5000L),
+                report.errors().stream().map(ProductImporter.RowError::line).toList(), "Only the first errors should be kept.");
+        assertEquals(expected, warehouse.getProducts().stream().map(Product::id).toList());
+    }
+
+    @Test
+    public void testImportIntoJournaledWarehouseReplays() {
+        Path journal = tempDir.resolve("warehouse.journal");
+        String csv = "1,Apple,FRUIT,8\n2,Pear,FRUIT,6\n1,Duplicate,FRUIT,6\n";
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            // Act
+            ProductImporter.ImportReport report = new ProductImporter(warehouse).importFrom(new StringReader(csv), ImportFormat.CSV);
+
+            // Assert
+            assertEquals(2, report.imported());
+            assertEquals(1, warehouse.syncCount(), "A chunk should be made durable with one sync.");
+        }
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(journal)) {
+            assertEquals(List.of("Apple", "Pear"), warehouse.getProducts().stream().map(Product::name).toList());
+        }
+    }
+
+    @Test
+    public void testUnknownExtensionIsRejected() {
+        Warehouse warehouse = new Warehouse();
+
+        // Assert
+        assertThrows(IllegalArgumentException.class, () -> new ProductImporter(warehouse).importFile(tempDir.resolve("feed.xml")));
+    }
+}
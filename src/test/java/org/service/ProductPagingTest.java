@@ -0,0 +1,145 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductPagingTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCategoryPagesMatchFullResultForEveryWarehouse() throws Exception {
+        for (Supplier<Warehouse> kind : WarehouseKinds.all(tempDir)) {
+            Warehouse warehouse = kind.get();
+            try {
+                fill(warehouse);
+
+                // Act
+                List<Product> paged = new ArrayList<>();
+                String cursor = null;
+                int pages = 0;
+                do {
+                    ProductPage page = warehouse.filterProductsByCategory(Category.FRUIT, 7, cursor);
+                    assertTrue(page.products().size() <= 7);
+                    paged.addAll(page.products());
+                    cursor = page.nextCursor();
+                    pages++;
+                } while (cursor != null);
+
+                // Assert
+                List<Product> expected = warehouse.filterProductsByCategory(Category.FRUIT);
+                assertEquals(expected, paged, warehouse.getClass().getSimpleName());
+                assertEquals((expected.size() + 6) / 7, pages, warehouse.getClass().getSimpleName());
+                assertEquals(expected, warehouse.streamProductsByCategory(Category.FRUIT).toList());
+            } finally {
+                WarehouseKinds.close(warehouse);
+            }
+        }
+    }
+
+    @Test
+    public void testDatePagesMatchFullResultForEveryWarehouse() throws Exception {
+        for (Supplier<Warehouse> kind : WarehouseKinds.all(tempDir)) {
+            Warehouse warehouse = kind.get();
+            try {
+                fill(warehouse);
+                LocalDate from = START.plusDays(3);
+
+                // Act
+                List<Product> paged = new ArrayList<>();
+                String cursor = null;
+                do {
+                    ProductPage page = warehouse.findProductsFromCreatedDate(from, 4, cursor);
+                    paged.addAll(page.products());
+                    cursor = page.nextCursor();
+                } while (cursor != null);
+
+                // Assert
+                List<Product> expected = warehouse.findProductsFromCreatedDate(from);
+                assertEquals(expected, paged, warehouse.getClass().getSimpleName());
+                assertEquals(expected, warehouse.streamProductsFromCreatedDate(from).toList());
+            } finally {
+                WarehouseKinds.close(warehouse);
+            }
+        }
+    }
+
+    @Test
+    public void testPagingSurvivesInsertsBeforeTheCursor() {
+        Warehouse warehouse = new Warehouse();
+        fill(warehouse);
+        ProductPage first = warehouse.filterProductsByCategory(Category.FRUIT, 5, null);
+
+        // Act
+        warehouse.addProduct(new Product(1000, "Aaa", Category.FRUIT, 5, START, START));
+        ProductPage second = warehouse.filterProductsByCategory(Category.FRUIT, 5, first.nextCursor());
+
+        // Assert
+        List<Product> all = warehouse.filterProductsByCategory(Category.FRUIT);
+        int resumeAt = all.indexOf(first.products().getLast()) + 1;
+        assertEquals(all.subList(resumeAt, resumeAt + 5), second.products());
+    }
+
+    @Test
+    public void testLastPageHasNoCursor() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 5, START, START));
+        warehouse.addProduct(new Product(2, "Pear", Category.FRUIT, 5, START, START));
+
+        // Act
+        ProductPage page = warehouse.filterProductsByCategory(Category.FRUIT, 2, null);
+        ProductPage empty = warehouse.filterProductsByCategory(Category.DAIRY, 2, null);
+
+        // Assert
+        assertEquals(2, page.products().size());
+        assertFalse(page.hasNext());
+        assertTrue(empty.products().isEmpty());
+        assertNull(empty.nextCursor());
+    }
+
+    @Test
+    public void testInvalidPageArgumentsAreRejected() {
+        Warehouse warehouse = new Warehouse();
+
+        // Assert
+        assertThrows(IllegalArgumentException.class, () -> warehouse.filterProductsByCategory(Category.FRUIT, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> warehouse.filterProductsByCategory(Category.FRUIT, 5, "not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> warehouse.findProductsFromCreatedDate(START, 5, "AAAA"));
+        assertThrows(NullPointerException.class, () -> warehouse.findProductsFromCreatedDate(null, 5, null));
+    }
+
+    @Test
+    public void testStreamIsLazy() {
+        Warehouse warehouse = new ConcurrentWarehouse();
+        fill(warehouse);
+
+        // Act
+        List<Product> firstTwo = warehouse.streamProductsByCategory(Category.FRUIT).limit(2).toList();
+
+        // Assert
+        assertEquals(warehouse.filterProductsByCategory(Category.FRUIT).subList(0, 2), firstTwo);
+    }
+
+    // Repeated names and dates make sure ties are broken consistently across pages.
+    private static void fill(Warehouse warehouse) {
+        String[] names = {"Pear", "Apple", "Kiwi", "Apple", "Banana", "Kiwi", null};
+        for (int id = 1; id <= 60; id++) {
+            Category category = id % 3 == 0 ? Category.MEAT : Category.FRUIT;
+            warehouse.addProduct(new Product(id, names[id % names.length], category, id % 11, START.plusDays(id % 9), START));
+        }
+        warehouse.updateProductInWarehouse(new Product(4, "Apple", Category.FRUIT, 10, START.plusDays(4), START.plusDays(5)));
+    }
+}
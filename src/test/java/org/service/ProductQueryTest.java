@@ -0,0 +1,165 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductQueryTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testResultsMatchAFilteredScanForEveryWarehouse() throws Exception {
+        List<ProductQuery> queries = List.of(
+                ProductQuery.builder().category(Category.MEAT).ratingAtLeast(5).build(),
+                ProductQuery.builder().createdFrom(START.plusDays(10)).createdBefore(START.plusDays(20))
+                        .orderByDescending(ProductQuery.Sort.ID).build(),
+                ProductQuery.builder().category(Category.FRUIT).orderBy(ProductQuery.Sort.NAME).limit(5).build(),
+                ProductQuery.builder().nameStartsWith("Ki").modifiedSinceCreation().build(),
+                ProductQuery.builder().id(42).category(Category.FRUIT).build(),
+                ProductQuery.builder().ratingBetween(2, 3).orderBy(ProductQuery.Sort.ID).build());
+        for (Supplier<Warehouse> kind : WarehouseKinds.all(tempDir)) {
+            Warehouse warehouse = kind.get();
+            try {
+                fill(warehouse);
+
+                for (ProductQuery query : queries) {
+                    // Act
+                    List<Product> found = warehouse.find(query);
+
+                    // Assert
+                    if (query.sort() == null) {
+                        found = found.stream().sorted(Comparator.comparingInt(Product::id)).toList();
+                    }
+                    assertEquals(expected(warehouse, query), found, warehouse.getClass().getSimpleName() + ": " + query);
+                }
+            } finally {
+                WarehouseKinds.close(warehouse);
+            }
+        }
+    }
+
+    @Test
+    public void testPlannerPicksTheMostSelectiveIndex() {
+        Warehouse warehouse = new Warehouse();
+        fill(warehouse);
+
+        // Act
+        QueryPlan byId = warehouse.explain(ProductQuery.builder().id(7).category(Category.MEAT).build());
+        QueryPlan byCategory = warehouse.explain(ProductQuery.builder().category(Category.DAIRY)
+                .createdFrom(START).build());
+        QueryPlan byDate = warehouse.explain(ProductQuery.builder().category(Category.FRUIT)
+                .createdFrom(START.plusDays(3)).createdBefore(START.plusDays(4)).build());
+        QueryPlan byName = warehouse.explain(ProductQuery.builder().nameContains("iw").build());
+
+        // Assert
+        assertEquals(AccessPath.ID, byId.accessPath());
+        assertEquals(List.of("category = MEAT"), byId.residualFilters());
+        assertEquals(AccessPath.CATEGORY, byCategory.accessPath());
+        assertEquals(10, byCategory.estimatedRows());
+        assertEquals(AccessPath.CREATED_DATE, byDate.accessPath());
+        assertEquals(List.of("createdDate >= 2020-01-04", "createdDate < 2020-01-05"), byDate.accessConditions());
+        assertEquals(AccessPath.FULL_SCAN, byName.accessPath());
+        assertEquals(100, byName.estimatedRows());
+    }
+
+    @Test
+    public void testConcurrentEstimatesAreExact() {
+        Warehouse warehouse = new ConcurrentWarehouse();
+        fill(warehouse);
+        ProductQuery query = ProductQuery.builder().createdFrom(START.plusDays(5)).createdBefore(START.plusDays(8)).build();
+
+        // Act
+        QueryPlan plan = warehouse.explain(query);
+
+        // Assert
+        assertEquals(AccessPath.CREATED_DATE, plan.accessPath());
+        assertEquals(warehouse.find(query).size(), plan.estimatedRows());
+    }
+
+    @Test
+    public void testScanStoresFallBackToFullScan() {
+        Warehouse warehouse = new ColumnarWarehouse();
+        fill(warehouse);
+
+        // Act
+        QueryPlan plan = warehouse.explain(ProductQuery.builder().category(Category.DAIRY).build());
+
+        // Assert
+        assertEquals(AccessPath.FULL_SCAN, plan.accessPath());
+        assertEquals(List.of("category = DAIRY"), plan.residualFilters());
+    }
+
+    @Test
+    public void testIndexOrderReplacesSorting() {
+        Warehouse warehouse = new Warehouse();
+        fill(warehouse);
+        ProductQuery query = ProductQuery.builder().category(Category.FRUIT).orderBy(ProductQuery.Sort.NAME).limit(3).build();
+
+        // Act
+        QueryPlan plan = warehouse.explain(query);
+        String explained = plan.explain();
+
+        // Assert
+        assertFalse(plan.sorts());
+        assertTrue(warehouse.explain(ProductQuery.builder().category(Category.FRUIT)
+                .orderByDescending(ProductQuery.Sort.NAME).build()).sorts());
+        assertTrue(explained.contains("CATEGORY [category = FRUIT]"), explained);
+        assertTrue(explained.contains("name asc (given av åtkomstvägen)"), explained);
+        assertTrue(explained.contains("Gräns:     3"), explained);
+    }
+
+    @Test
+    public void testFindIsMeasured() {
+        Warehouse warehouse = new Warehouse();
+        fill(warehouse);
+
+        // Act
+        warehouse.find(ProductQuery.builder().category(Category.MEAT).build());
+
+        // Assert
+        assertEquals(1, warehouse.stats().of(WarehouseOperation.FIND).calls());
+        assertEquals(30, warehouse.stats().of(WarehouseOperation.FIND).resultSizes().max());
+    }
+
+    @Test
+    public void testInvalidQueriesAreRejected() {
+        // Assert
+        assertThrows(IllegalArgumentException.class, () -> ProductQuery.builder().ratingBetween(8, 2).build());
+        assertThrows(IllegalArgumentException.class, () -> ProductQuery.builder()
+                .createdFrom(START.plusDays(1)).createdBefore(START).build());
+        assertThrows(IllegalArgumentException.class, () -> ProductQuery.builder().limit(0));
+        assertThrows(NullPointerException.class, () -> new Warehouse().find(null));
+    }
+
+    // The same query answered by filtering every product; unsorted queries are compared in id order.
+    private static List<Product> expected(Warehouse warehouse, ProductQuery query) {
+        var rows = warehouse.getProducts().stream()
+                .filter(product -> query.filters().stream().allMatch(filter -> filter.test().test(product)))
+                .sorted(query.sort() == null ? Comparator.comparingInt(Product::id) : query.comparator());
+        return query.limit() > 0 ? rows.limit(query.limit()).toList() : rows.toList();
+    }
+
+    // 100 products: every tenth is dairy, a third are meat and the rest fruit, created over 25 days.
+    private static void fill(Warehouse warehouse) {
+        String[] names = {"Pear", "Apple", "Kiwi", "Banana", "Plum"};
+        for (int id = 1; id <= 100; id++) {
+            Category category = id % 10 == 0 ? Category.DAIRY : id % 3 == 0 ? Category.MEAT : Category.FRUIT;
+            LocalDate created = START.plusDays(id % 25);
+            warehouse.addProduct(new Product(id, names[id % names.length], category, id % 11, created,
+                    id % 4 == 0 ? created.plusDays(1) : created));
+        }
+    }
+}
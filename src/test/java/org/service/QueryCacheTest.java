@@ -0,0 +1,137 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryCacheTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    private static Warehouse cachedWarehouse() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+        warehouse.addProduct(new Product(2, "Steak", Category.MEAT, 6, START.plusDays(10), START.plusDays(10)));
+        warehouse.addProduct(new Product(3, "Salmon", Category.FISH, 7, START.plusDays(20), START.plusDays(20)));
+        warehouse.enableQueryCache(1 << 20);
+        return warehouse;
+    }
+
+    @Test
+    public void testRepeatedQueriesAreServedFromTheCache() {
+        Warehouse warehouse = cachedWarehouse();
+
+        // Act
+        List<Product> first = warehouse.filterProductsByCategory(Category.FRUIT);
+        List<Product> second = warehouse.filterProductsByCategory(Category.FRUIT);
+        warehouse.findProductsFromCreatedDate(START.plusDays(5));
+        warehouse.findProductsFromCreatedDate(START.plusDays(5));
+
+        // Assert
+        assertSame(first, second);
+        QueryCacheStats stats = warehouse.queryCacheStats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.entries());
+        assertEquals(0.5, stats.hitRate());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(first.getFirst()));
+    }
+
+    @Test
+    public void testChangesOnlyDropEntriesForTheirCategoryAndDates() {
+        Warehouse warehouse = cachedWarehouse();
+        warehouse.filterProductsByCategory(Category.FRUIT);
+        warehouse.filterProductsByCategory(Category.MEAT);
+        warehouse.findProductsFromCreatedDate(START.plusDays(15));
+        warehouse.findProductsCreatedBetween(START, START.plusDays(5));
+
+        // Act
+        warehouse.addProduct(new Product(4, "Pear", Category.FRUIT, 5, START.plusDays(30), START.plusDays(30)));
+
+        // Assert
+        assertEquals(2, warehouse.queryCacheStats().invalidations());
+        assertEquals(2, warehouse.queryCacheStats().entries());
+        assertEquals(List.of("Apple", "Pear"),
+                warehouse.filterProductsByCategory(Category.FRUIT).stream().map(Product::name).toList());
+        assertEquals(1, warehouse.findProductsCreatedBetween(START, START.plusDays(5)).size());
+        assertEquals(1, warehouse.queryCacheStats().hits());
+    }
+
+    @Test
+    public void testUpdatesDropEntriesForBothTheOldAndNewVersion() {
+        Warehouse warehouse = cachedWarehouse();
+        warehouse.filterProductsByCategory(Category.MEAT);
+        warehouse.filterProductsByCategory(Category.FISH);
+        warehouse.filterProductsByCategory(Category.FRUIT);
+
+        // Act
+        warehouse.updateProductInWarehouse(new Product(2, "Steak", Category.FISH, 6, START.plusDays(10), START.plusDays(11)));
+
+        // Assert
+        assertEquals(1, warehouse.queryCacheStats().entries());
+        assertTrue(warehouse.filterProductsByCategory(Category.MEAT).isEmpty());
+        assertEquals(2, warehouse.filterProductsByCategory(Category.FISH).size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvictedAtTheMemoryCap() {
+        Warehouse warehouse = new Warehouse();
+        for (int id = 1; id <= 300; id++) {
+            warehouse.addProduct(new Product(id, "Product " + id, Category.values()[id % 5], 5, START.plusDays(id),
+                    START.plusDays(id)));
+        }
+        warehouse.enableQueryCache(30_000);
+
+        // Act
+        warehouse.findProductsFromCreatedDate(START.plusDays(200));
+        warehouse.findProductsFromCreatedDate(START.plusDays(250));
+        warehouse.findProductsFromCreatedDate(START.plusDays(200));
+        warehouse.findProductsFromCreatedDate(START.plusDays(150));
+
+        // Assert
+        QueryCacheStats stats = warehouse.queryCacheStats();
+        assertEquals(1, stats.evictions());
+        assertTrue(stats.estimatedBytes() <= stats.maxBytes());
+        warehouse.findProductsFromCreatedDate(START.plusDays(200));
+        assertEquals(2, warehouse.queryCacheStats().hits());
+        assertEquals(List.of(), warehouse.findProductsFromCreatedDate(START.plusDays(1000)));
+        assertThrows(IllegalArgumentException.class, () -> warehouse.enableQueryCache(0));
+    }
+
+    @Test
+    public void testConcurrentWritesNeverLeaveStaleResults() throws InterruptedException {
+        Warehouse warehouse = new ConcurrentWarehouse();
+        warehouse.enableQueryCache(1 << 20);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            readers.add(new Thread(() -> {
+                while (writing.get()) {
+                    warehouse.filterProductsByCategory(Category.FRUIT);
+                    warehouse.findProductsFromCreatedDate(START);
+                }
+            }));
+        }
+
+        // Act
+        readers.forEach(Thread::start);
+        for (int id = 1; id <= 2000; id++) {
+            warehouse.addProduct(new Product(id, "P" + id, Category.values()[id % 2], 5, START, START));
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        // Assert
+        assertEquals(1000, warehouse.filterProductsByCategory(Category.FRUIT).size());
+        assertEquals(2000, warehouse.findProductsFromCreatedDate(START).size());
+    }
+}
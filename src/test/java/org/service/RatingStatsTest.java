@@ -0,0 +1,136 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RatingStatsTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testStatsFollowAddsAndUpdates() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+        warehouse.addProduct(new Product(2, "Pear", Category.FRUIT, 4, START, START));
+        warehouse.addProduct(new Product(3, "Steak", Category.MEAT, 6, START, START));
+
+        // Act
+        warehouse.updateProductInWarehouse(new Product(2, "Pear", Category.FRUIT, 10, START, START));
+        warehouse.updateProductInWarehouse(new Product(3, "Salmon", Category.FISH, 2, START, START));
+        RatingStats fruit = warehouse.ratingStats(Category.FRUIT);
+
+        // Assert
+        assertEquals(2, fruit.count());
+        assertEquals(9.0, fruit.average());
+        assertEquals(8, fruit.min());
+        assertEquals(10, fruit.max());
+        assertEquals(1, fruit.countOf(10));
+        assertEquals(0, fruit.countOf(4));
+        assertEquals(0, warehouse.ratingStats(Category.MEAT).count());
+        assertEquals(0, warehouse.ratingStats(Category.MEAT).max());
+        assertEquals(2, warehouse.ratingStats(Category.FISH).min());
+    }
+
+    @Test
+    public void testRatingsOutsideTheScaleKeepMinAndMaxExact() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+        warehouse.addProduct(new Product(2, "Golden Apple", Category.FRUIT, 15, START, START));
+
+        // Act
+        RatingStats before = warehouse.ratingStats(Category.FRUIT);
+        warehouse.updateProductInWarehouse(new Product(2, "Golden Apple", Category.FRUIT, 9, START, START));
+        RatingStats after = warehouse.ratingStats(Category.FRUIT);
+
+        // Assert
+        assertEquals(15, before.max());
+        assertEquals(11.5, before.average());
+        assertEquals(9, after.max());
+        assertEquals(2, after.histogram().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void testStatsMatchAScanAfterConcurrentWrites() throws InterruptedException {
+        Warehouse warehouse = new ConcurrentWarehouse();
+        Category[] categories = {Category.FRUIT, Category.MEAT, Category.FISH};
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicBoolean consistent = new AtomicBoolean(true);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int base = t * 1000;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    int id = base + i;
+                    warehouse.addProduct(new Product(id, "P" + id, categories[id % 3], id % 11, START, START));
+                    warehouse.updateProductInWarehouse(new Product(id, "P" + id, categories[(id + 1) % 3], (id * 7) % 11,
+                            START, START));
+                }
+            }));
+        }
+        Thread reader = new Thread(() -> {
+            while (writing.get()) {
+                RatingStats stats = warehouse.ratingStats(Category.FRUIT);
+                if (stats.count() != stats.histogram().stream().mapToLong(Long::longValue).sum()) {
+                    consistent.set(false);
+                }
+            }
+        });
+
+        // Act
+        reader.start();
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        writing.set(false);
+        reader.join();
+
+        // Assert
+        assertTrue(consistent.get(), "Every snapshot should have a histogram that adds up to its count.");
+        Map<Category, RatingStats> stats = warehouse.ratingStats();
+        for (Category category : categories) {
+            List<Product> inCategory = warehouse.filterProductsByCategory(category);
+            assertEquals(inCategory.size(), stats.get(category).count());
+            assertEquals(inCategory.stream().mapToInt(Product::rating).average().orElse(0), stats.get(category).average(), 1e-9);
+            assertEquals(inCategory.stream().filter(product -> product.rating() == 3).count(), stats.get(category).countOf(3));
+        }
+    }
+
+    @Test
+    public void testImportedAndReopenedProductsAreCounted() throws IOException {
+        Path file = tempDir.resolve("products.csv");
+        Files.writeString(file, "1,Apple,FRUIT,8\n2,Pear,FRUIT,6\n1,Duplicate,FRUIT,1\n");
+        Path mapped = tempDir.resolve("products.db");
+        try (MappedWarehouse warehouse = new MappedWarehouse(mapped)) {
+            new ProductImporter(warehouse).importFile(file);
+
+            // Assert
+            assertEquals(2, warehouse.ratingStats(Category.FRUIT).count());
+        }
+
+        // Act
+        try (MappedWarehouse reopened = new MappedWarehouse(mapped)) {
+            reopened.addProduct(new Product(3, "Kiwi", Category.FRUIT, 10, START, START));
+
+            // Assert
+            assertEquals(3, reopened.ratingStats(Category.FRUIT).count());
+            assertEquals(8.0, reopened.ratingStats(Category.FRUIT).average());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedWarehouseTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+    private static final Category[] CATEGORIES = {Category.FRUIT, Category.VEGETABLE, Category.MEAT, Category.FISH, Category.DAIRY};
+
+    // Few names and dates, so the merge has plenty of ties to order by insertion.
+    private static Product product(Random random, int id) {
+        LocalDate created = START.plusDays(random.nextInt(40));
+        LocalDate modified = random.nextInt(3) == 0 ? created.plusDays(1 + random.nextInt(5)) : created;
+        return new Product(id, "Name" + random.nextInt(50), CATEGORIES[random.nextInt(CATEGORIES.length)],
+                random.nextInt(11), created, modified);
+    }
+
+    @Test
+    public void testShardedAnswersMatchASingleStore() {
+        Random random = new Random(7);
+        Warehouse single = new ConcurrentWarehouse();
+        ShardedWarehouse sharded = new ShardedWarehouse(5);
+        // Enough products that queries fan out in parallel.
+        for (int id = 1; id <= 20_000; id++) {
+            Product product = product(random, id);
+            single.addProduct(product);
+            sharded.addProduct(product);
+        }
+        for (int i = 0; i < 2_000; i++) {
+            Product product = product(random, 1 + random.nextInt(20_000));
+            single.updateProductInWarehouse(product);
+            sharded.updateProductInWarehouse(product);
+        }
+
+        // Assert
+        assertEquals(5, sharded.shardCount());
+        assertEquals(single.getProducts(), sharded.getProducts());
+        for (Category category : CATEGORIES) {
+            assertEquals(single.filterProductsByCategory(category), sharded.filterProductsByCategory(category));
+            assertEquals(single.findTopRatedProducts(category, 25), sharded.findTopRatedProducts(category, 25));
+        }
+        assertEquals(single.findProductsFromCreatedDate(START.plusDays(20)), sharded.findProductsFromCreatedDate(START.plusDays(20)));
+        assertEquals(single.findProductsCreatedBetween(START.plusDays(3), START.plusDays(9)),
+                sharded.findProductsCreatedBetween(START.plusDays(3), START.plusDays(9)));
+        assertEquals(single.findProductsModifiedSince(START.plusDays(30)), sharded.findProductsModifiedSince(START.plusDays(30)));
+        assertEquals(single.findProductsByRating(4, 6), sharded.findProductsByRating(4, 6));
+        assertEquals(single.searchProductsByName("me1", 30), sharded.searchProductsByName("me1", 30));
+        assertEquals(single.findProductById(1234), sharded.findProductById(1234));
+    }
+
+    @Test
+    public void testBatchImportKeepsBatchOrderAndReportsRejects() {
+        ShardedWarehouse warehouse = new ShardedWarehouse(3);
+        warehouse.addProduct(new Product(5, "Existing", Category.FRUIT, 5, START, START));
+        List<Product> batch = new ArrayList<>();
+        for (int id = 20_000; id > 0; id--) {
+            batch.add(new Product(id, "Same", Category.DAIRY, 5, START, START));
+        }
+        List<Integer> rejected = new ArrayList<>();
+
+        // Act
+        warehouse.addProducts(batch, (e, index) -> rejected.add(index));
+
+        // Assert
+        assertEquals(List.of(20_000 - 5), rejected);
+        List<Product> dairy = warehouse.filterProductsByCategory(Category.DAIRY);
+        assertEquals(19_999, dairy.size());
+        assertEquals(20_000, dairy.getFirst().id());
+        assertEquals(1, dairy.getLast().id());
+        assertEquals(5, warehouse.getProducts().getFirst().id());
+    }
+
+    @Test
+    public void testConcurrentWritersToDifferentShardsLoseNothing() throws Exception {
+        ShardedWarehouse warehouse = new ShardedWarehouse(8);
+        List<Future<?>> writers = new ArrayList<>();
+
+        // Act
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        int id = thread * 5_000 + i + 1;
+                        warehouse.addProduct(new Product(id, "P" + id, CATEGORIES[id % CATEGORIES.length], id % 11, START, START));
+                        warehouse.updateProductInWarehouse(new Product(id, "Q" + id, Category.MEAT, 3, START, START.plusDays(1)));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        }
+
+        // Assert
+        assertEquals(40_000, warehouse.getProducts().size());
+        assertEquals(40_000, warehouse.filterProductsByCategory(Category.MEAT).size());
+        assertEquals(40_000, warehouse.findProductsModifiedSince(START).size());
+        assertEquals("Q777", warehouse.findProductById(777).name());
+        assertThrows(IllegalArgumentException.class, () -> new ShardedWarehouse(0));
+    }
+}
@@ -0,0 +1,84 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopRatedTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testTopRatedMatchesAFullSortForEveryWarehouse() throws Exception {
+        for (Supplier<Warehouse> kind : WarehouseKinds.all(tempDir)) {
+            Warehouse warehouse = kind.get();
+            try {
+                fill(warehouse);
+
+                for (int limit : new int[]{1, 7, 40, 500}) {
+                    // Act
+                    List<Product> top = warehouse.findTopRatedProducts(Category.FRUIT, limit);
+
+                    // Assert
+                    List<Product> expected = warehouse.filterProductsByCategory(Category.FRUIT).stream()
+                            .sorted(Comparator.comparingInt(Product::rating).reversed())
+                            .limit(limit)
+                            .toList();
+                    assertEquals(expected, top, warehouse.getClass().getSimpleName() + " limit " + limit);
+                }
+            } finally {
+                WarehouseKinds.close(warehouse);
+            }
+        }
+    }
+
+    @Test
+    public void testEditsMoveProductsBetweenBuckets() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 9, START, START));
+        warehouse.addProduct(new Product(2, "Pear", Category.FRUIT, 7, START, START));
+        warehouse.addProduct(new Product(3, "Kiwi", Category.FRUIT, 7, START, START));
+
+        // Act
+        warehouse.updateProductInWarehouse(new Product(1, "Apple", Category.FRUIT, 2, START, START));
+        warehouse.updateProductInWarehouse(new Product(4, "Plum", Category.FRUIT, 10, START, START));
+        warehouse.updateProductInWarehouse(new Product(2, "Pear", Category.VEGETABLE, 8, START, START));
+
+        // Assert
+        assertEquals(List.of(4, 3, 1), warehouse.findTopRatedProducts(Category.FRUIT, 5).stream().map(Product::id).toList());
+        assertEquals(List.of(2), warehouse.findTopRatedProducts(Category.VEGETABLE, 5).stream().map(Product::id).toList());
+        assertTrue(warehouse.findTopRatedProducts(Category.DAIRY, 3).isEmpty());
+    }
+
+    @Test
+    public void testLimitMustBePositive() {
+        // Assert
+        assertThrows(IllegalArgumentException.class, () -> new Warehouse().findTopRatedProducts(Category.FRUIT, 0));
+    }
+
+    // Names repeat so the name tiebreak and, below it, insertion order both matter.
+    private static void fill(Warehouse warehouse) {
+        String[] names = {"Pear", "Apple", "Kiwi", "Apple", "Banana", null};
+        for (int id = 1; id <= 300; id++) {
+            Category category = id % 4 == 0 ? Category.MEAT : Category.FRUIT;
+            warehouse.addProduct(new Product(id, names[id % names.length], category, (id * 7) % 11, START, START));
+        }
+        for (int id = 10; id <= 300; id += 10) {
+            Product product = warehouse.findProductById(id);
+            warehouse.updateProductInWarehouse(new Product(id, product.name(), Category.FRUIT, (id * 3) % 11,
+                    START, START));
+        }
+    }
+}
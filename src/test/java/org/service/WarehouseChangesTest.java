@@ -0,0 +1,254 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarehouseChangesTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    // Records what it is sent and requests only what it is told to.
+    private static final class Recorder implements Flow.Subscriber<ProductChange> {
+
+        final LinkedBlockingQueue<ProductChange> received = new LinkedBlockingQueue<>();
+        final CountDownLatch subscribed = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        private final long initialRequest;
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+        volatile boolean completed;
+
+        Recorder(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(ProductChange item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            finished.countDown();
+        }
+
+        List<ProductChange> take(int count) throws InterruptedException {
+            List<ProductChange> changes = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                ProductChange change = received.poll(5, TimeUnit.SECONDS);
+                assertNotNull(change, "Timed out waiting for change " + (i + 1));
+                changes.add(change);
+            }
+            return changes;
+        }
+    }
+
+    private static Recorder subscribe(Warehouse warehouse, int bufferSize, OverflowPolicy policy, long initialRequest)
+            throws InterruptedException {
+        Recorder recorder = new Recorder(initialRequest);
+        warehouse.changes(bufferSize, policy).subscribe(recorder);
+        assertTrue(recorder.subscribed.await(5, TimeUnit.SECONDS));
+        return recorder;
+    }
+
+    private static Product product(int id, String name, int rating) {
+        return new Product(id, name, Category.FRUIT, rating, START, START);
+    }
+
+    @Test
+    public void testAddsAndUpdatesArePublishedWithBeforeAndAfter() throws InterruptedException {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(product(1, "Unseen", 1));
+        Recorder recorder = subscribe(warehouse, 16, OverflowPolicy.BLOCK, Long.MAX_VALUE);
+
+        // Act
+        warehouse.addProduct(product(2, "Apple", 7));
+        warehouse.updateProductInWarehouse(product(2, "Apple", 9));
+        warehouse.updateProductInWarehouse(product(3, "Pear", 5));
+
+        // Assert
+        List<ProductChange> changes = recorder.take(3);
+        assertEquals(List.of(1L, 2L, 3L), changes.stream().map(ProductChange::sequence).toList());
+        assertTrue(changes.get(0).isInsert());
+        assertEquals(WarehouseOperation.ADD_PRODUCT, changes.get(0).operation());
+        assertEquals(product(2, "Apple", 7), changes.get(1).before());
+        assertEquals(product(2, "Apple", 9), changes.get(1).after());
+        assertTrue(changes.get(2).isInsert());
+        assertEquals(WarehouseOperation.UPDATE_PRODUCT_IN_WAREHOUSE, changes.get(2).operation());
+    }
+
+    @Test
+    public void testDropOldestKeepsTheNewestChanges() throws InterruptedException {
+        Warehouse warehouse = new Warehouse();
+        Recorder slow = subscribe(warehouse, 3, OverflowPolicy.DROP_OLDEST, 0);
+        Recorder fast = subscribe(warehouse, 64, OverflowPolicy.BLOCK, Long.MAX_VALUE);
+
+        // Act
+        for (int id = 1; id <= 10; id++) {
+            warehouse.addProduct(product(id, "P" + id, 5));
+        }
+        fast.take(10);
+        slow.subscription.request(10);
+
+        // Assert
+        assertEquals(List.of(8L, 9L, 10L), slow.take(3).stream().map(ProductChange::sequence).toList());
+        assertNull(slow.received.poll(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testDisconnectSignalsAnErrorToTheSlowSubscriberOnly() throws InterruptedException {
+        Warehouse warehouse = new Warehouse();
+        Recorder slow = subscribe(warehouse, 2, OverflowPolicy.DISCONNECT, 0);
+        Recorder fast = subscribe(warehouse, 64, OverflowPolicy.DISCONNECT, Long.MAX_VALUE);
+
+        // Act
+        for (int id = 1; id <= 5; id++) {
+            warehouse.addProduct(product(id, "P" + id, 5));
+        }
+
+        // Assert
+        assertTrue(slow.finished.await(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, slow.error);
+        assertEquals(5, fast.take(5).size());
+        assertNull(fast.error);
+    }
+
+    @Test
+    public void testBlockedSubscriberDoesNotHoldUpWritersAndLosesNothing() throws InterruptedException {
+        Warehouse warehouse = new Warehouse();
+        Recorder blocked = subscribe(warehouse, 500, OverflowPolicy.BLOCK, 0);
+
+        // Act
+        for (int id = 1; id <= 1000; id++) {
+            warehouse.addProduct(product(id, "P" + id, id % 11));
+        }
+        blocked.subscription.request(Long.MAX_VALUE);
+
+        // Assert
+        List<ProductChange> changes = blocked.take(1000);
+        assertEquals(1000, changes.getLast().sequence());
+        assertEquals(1000, changes.getLast().after().id());
+    }
+
+    @Test
+    public void testStalledBlockSubscriberDoesNotHoldUpOtherSubscribers() throws InterruptedException {
+        Warehouse warehouse = new Warehouse();
+        Recorder stalled = subscribe(warehouse, 64, OverflowPolicy.BLOCK, 0);
+        Recorder live = subscribe(warehouse, 4, OverflowPolicy.DROP_OLDEST, Long.MAX_VALUE);
+
+        // Act
+        List<ProductChange> received = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            warehouse.addProduct(product(id, "P" + id, 5));
+            received.addAll(live.take(1));
+        }
+
+        // Assert
+        assertEquals(100, received.getLast().sequence());
+        assertTrue(stalled.received.isEmpty());
+        assertEquals(36, warehouse.pendingChanges(), "Only the stalled subscription's backlog should remain.");
+        stalled.subscription.request(Long.MAX_VALUE);
+        assertEquals(100, stalled.take(100).getLast().sequence());
+        assertEquals(0, warehouse.pendingChanges());
+    }
+
+    @Test
+    public void testBlockSubscriberIsDisconnectedWhenItsBacklogIsFull() throws InterruptedException {
+        Warehouse warehouse = new Warehouse();
+        Recorder stalled = subscribe(warehouse, 4, OverflowPolicy.BLOCK, 0);
+        Recorder live = subscribe(warehouse, 64, OverflowPolicy.BLOCK, Long.MAX_VALUE);
+
+        // Act
+        for (int id = 1; id <= 9; id++) {
+            warehouse.addProduct(product(id, "P" + id, 5));
+        }
+
+        // Assert
+        assertTrue(stalled.finished.await(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, stalled.error);
+        assertTrue(stalled.received.isEmpty());
+        assertEquals(9, live.take(9).getLast().sequence());
+        assertNull(live.error);
+        assertEquals(0, warehouse.pendingChanges());
+    }
+
+    @Test
+    public void testChangesToOneProductArriveInStoreOrder() throws InterruptedException {
+        Warehouse warehouse = new ConcurrentWarehouse();
+        Recorder recorder = subscribe(warehouse, 1024, OverflowPolicy.BLOCK, Long.MAX_VALUE);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int writer = t;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    warehouse.updateProductInWarehouse(product(i % 10, "W" + writer, i));
+                }
+            }));
+        }
+
+        // Act
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // Assert
+        Map<Integer, Product> replica = new HashMap<>();
+        for (ProductChange change : recorder.take(2000)) {
+            assertEquals(replica.get(change.after().id()), change.before());
+            replica.put(change.after().id(), change.after());
+        }
+        for (int id = 0; id < 10; id++) {
+            assertEquals(warehouse.findProductById(id), replica.get(id));
+        }
+    }
+
+    @Test
+    public void testClosingTheWarehouseCompletesSubscribers() throws InterruptedException {
+        Recorder recorder;
+        try (JournaledWarehouse warehouse = new JournaledWarehouse(tempDir.resolve("changes.journal"))) {
+            recorder = subscribe(warehouse, 8, OverflowPolicy.BLOCK, Long.MAX_VALUE);
+            warehouse.addProduct(product(1, "Apple", 7));
+        }
+
+        // Assert
+        assertTrue(recorder.finished.await(5, TimeUnit.SECONDS));
+        assertTrue(recorder.completed);
+        assertEquals(1, recorder.received.size());
+        assertThrows(IllegalArgumentException.class, () -> new Warehouse().changes(0, OverflowPolicy.BLOCK));
+    }
+}
@@ -0,0 +1,139 @@
+package org.service;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.entities.Category;
+import org.entities.Product;
+import org.exceptions.ProductNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarehouseEventsTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testQueriesAreRecorded() throws IOException {
+        Warehouse warehouse = new Warehouse();
+        for (int id = 1; id <= 10; id++) {
+            warehouse.addProduct(new Product(id, "P" + id, id <= 4 ? Category.FRUIT : Category.MEAT, id, START, START));
+        }
+
+        // Act
+        List<RecordedEvent> events = record("org.service.WarehouseQuery", () -> {
+            warehouse.filterProductsByCategory(Category.FRUIT);
+            warehouse.findProductsByRating(3, 5);
+            warehouse.findProductById(7);
+        });
+
+        // Assert
+        assertEquals(3, events.size());
+        assertQuery(events.get(0), "filterProductsByCategory", "category = FRUIT", 4, 4);
+        assertQuery(events.get(1), "findProductsByRating", "3 <= rating <= 5", 10, 3);
+        assertQuery(events.get(2), "findProductById", "id = 7", 1, 1);
+    }
+
+    @Test
+    public void testFailedQueriesAreRecorded() throws IOException {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+
+        // Act
+        List<RecordedEvent> events = record("org.service.WarehouseQuery", () -> {
+            assertThrows(ProductNotFoundException.class, () -> warehouse.findProductById(7));
+            warehouse.findProductById(1);
+        });
+
+        // Assert
+        assertEquals(2, events.size());
+        assertQuery(events.get(0), "findProductById", "id = 7", 0, 0);
+        assertTrue(events.get(0).getBoolean("failed"));
+        assertFalse(events.get(1).getBoolean("failed"));
+    }
+
+    @Test
+    public void testColumnarQueriesReportFullScans() throws IOException {
+        Warehouse warehouse = new ColumnarWarehouse();
+        for (int id = 1; id <= 10; id++) {
+            warehouse.addProduct(new Product(id, "P" + id, id <= 4 ? Category.FRUIT : Category.MEAT, id, START, START));
+        }
+
+        // Act
+        List<RecordedEvent> events = record("org.service.WarehouseQuery", () -> warehouse.filterProductsByCategory(Category.FRUIT));
+
+        // Assert
+        assertQuery(events.get(0), "filterProductsByCategory", "category = FRUIT", 10, 4);
+    }
+
+    @Test
+    public void testMutationsAreRecorded() throws IOException {
+        Warehouse warehouse = new Warehouse();
+
+        // Act
+        List<RecordedEvent> events = record("org.service.WarehouseMutation", () -> {
+            warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+            assertThrows(IllegalArgumentException.class, () -> warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START)));
+            warehouse.updateProductInWarehouse(new Product(1, "Green Apple", Category.FRUIT, 9, START, START));
+        });
+
+        // Assert
+        assertEquals(3, events.size());
+        assertEquals("addProduct", events.get(0).getString("operation"));
+        assertFalse(events.get(0).getBoolean("failed"));
+        assertTrue(events.get(1).getBoolean("failed"));
+        assertEquals("updateProductInWarehouse", events.get(2).getString("operation"));
+        assertEquals(1, events.get(2).getInt("productId"));
+        assertTrue(events.get(2).getBoolean("replaced"));
+    }
+
+    @Test
+    public void testCompactionIsRecorded() throws IOException {
+        Warehouse warehouse = new ColumnarWarehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+
+        // Act
+        List<RecordedEvent> events = record("org.service.StoreMaintenance", () -> {
+            for (int i = 0; i < 2000; i++) {
+                warehouse.updateProductInWarehouse(new Product(1, "Apple", Category.FRUIT, i % 11, START, START));
+            }
+        });
+
+        // Assert
+        RecordedEvent compaction = events.stream().filter(e -> e.getString("action").equals("compact")).findFirst().orElseThrow();
+        assertEquals("ColumnarProductStore", compaction.getString("store"));
+        assertEquals(1, compaction.getLong("sizeAfter"));
+        assertTrue(events.stream().anyMatch(e -> e.getString("action").equals("grow")));
+    }
+
+    private List<RecordedEvent> record(String eventName, Runnable body) throws IOException {
+        Path file = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withoutThreshold();
+            recording.start();
+            body.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .toList();
+    }
+
+    private static void assertQuery(RecordedEvent event, String operation, String predicate, long scanned, long returned) {
+        assertEquals(operation, event.getString("operation"));
+        assertEquals(predicate, event.getString("predicate"));
+        assertEquals(scanned, event.getLong("rowsScanned"));
+        assertEquals(returned, event.getLong("rowsReturned"));
+    }
+}
@@ -0,0 +1,211 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarehouseHttpServerTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private WarehouseHttpServer server;
+
+    private Warehouse serve(Warehouse warehouse) {
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+        warehouse.addProduct(new Product(2, "Steak", Category.MEAT, 6, START.plusDays(10), START.plusDays(12)));
+        warehouse.addProduct(new Product(3, "Pear \"Conference\"", Category.FRUIT, 7, START.plusDays(20), START.plusDays(20)));
+        server = WarehouseHttpServer.start(warehouse, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        return warehouse;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testLookupsReturnJson() throws Exception {
+        serve(new Warehouse());
+
+        // Act
+        HttpResponse<String> one = send("GET", "/products/1", null);
+        HttpResponse<String> missing = send("GET", "/products/99", null);
+        HttpResponse<String> fruit = send("GET", "/products?category=fruit", null);
+        HttpResponse<String> range = send("GET", "/products?createdFrom=2020-01-05&createdBefore=2020-01-22", null);
+        HttpResponse<String> modified = send("GET", "/products/modified", null);
+
+        // Assert
+        assertEquals(200, one.statusCode());
+        assertEquals("{\"id\":1,\"name\":\"Apple\",\"category\":\"FRUIT\",\"rating\":8,"
+                + "\"createdDate\":\"2020-01-01\",\"lastModifiedDate\":\"2020-01-01\"}", one.body());
+        assertEquals("application/json; charset=utf-8", one.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(404, missing.statusCode());
+        assertTrue(missing.body().startsWith("{\"error\":"));
+        assertTrue(fruit.body().startsWith("[{\"id\":1,"));
+        assertTrue(fruit.body().contains("\"name\":\"Pear \\\"Conference\\\"\""));
+        assertTrue(range.body().startsWith("[{\"id\":2,"));
+        assertEquals(2, range.body().split("\"id\":").length - 1);
+        assertEquals(1, modified.body().split("\"id\":").length - 1);
+    }
+
+    @Test
+    public void testAddAndUpdate() throws Exception {
+        Warehouse warehouse = serve(new Warehouse());
+
+        // Act
+        HttpResponse<String> added = send("POST", "/products",
+                "{\"id\": 4, \"name\": \"Salmon\", \"category\": \"FISH\", \"rating\": 9, \"createdDate\": \"2021-03-01\"}");
+        HttpResponse<String> duplicate = send("POST", "/products",
+                "{\"id\": 4, \"name\": \"Salmon\", \"category\": \"FISH\", \"rating\": 9}");
+        HttpResponse<String> updated = send("PUT", "/products/4",
+                "{\"name\": \"Smoked Salmon\", \"category\": \"FISH\", \"rating\": 10, \"lastModifiedDate\": \"2021-04-01\"}");
+
+        // Assert
+        assertEquals(201, added.statusCode());
+        assertEquals(400, duplicate.statusCode());
+        assertEquals(200, updated.statusCode());
+        assertEquals(new Product(4, "Smoked Salmon", Category.FISH, 10, LocalDate.of(2021, 3, 1), LocalDate.of(2021, 4, 1)),
+                warehouse.findProductById(4));
+    }
+
+    @Test
+    public void testBadRequestsAreRejected() throws Exception {
+        serve(new Warehouse());
+
+        // Assert
+        assertEquals(400, send("POST", "/products", "{\"id\": 5, ").statusCode());
+        assertEquals(400, send("POST", "/products", "{\"id\": 5, \"colour\": \"red\"}").statusCode());
+        assertEquals(400, send("POST", "/products", "{\"id\": 5, \"name\": \"Kiwi\", \"category\": \"FRUIT\", \"rating\": 11}").statusCode());
+        assertEquals(400, send("PUT", "/products/5", "{\"id\": 6, \"name\": \"Kiwi\", \"category\": \"FRUIT\", \"rating\": 1}").statusCode());
+        assertEquals(400, send("GET", "/products?category=toys", null).statusCode());
+        assertEquals(400, send("GET", "/products?createdFrom=yesterday", null).statusCode());
+        assertEquals(404, send("GET", "/products/abc", null).statusCode());
+        assertEquals(405, send("DELETE", "/products/1", null).statusCode());
+    }
+
+    @Test
+    public void testCreatedBeforeAloneWorksOnAnOffHeapWarehouse() throws Exception {
+        try (OffHeapWarehouse warehouse = new OffHeapWarehouse()) {
+            serve(warehouse);
+
+            // Act
+            HttpResponse<String> before = send("GET", "/products?createdBefore=2020-01-15", null);
+            HttpResponse<String> fruit = send("GET", "/products?createdBefore=2020-02-01&category=FRUIT", null);
+
+            // Assert
+            assertEquals(200, before.statusCode());
+            assertTrue(before.body().startsWith("[{\"id\":1,"));
+            assertEquals(2, before.body().split("\"id\":").length - 1);
+            assertEquals(200, fruit.statusCode());
+            assertEquals(2, fruit.body().split("\"id\":").length - 1);
+        }
+    }
+
+    @Test
+    public void testModifiedWithoutADateListsEveryModifiedProduct() throws Exception {
+        Warehouse warehouse = serve(new Warehouse());
+        warehouse.addProduct(new Product(4, "Kiwi", Category.FRUIT, 5, START, null));
+
+        // Act
+        HttpResponse<String> modified = send("GET", "/products/modified", null);
+
+        // Assert
+        assertEquals(200, modified.statusCode());
+        assertEquals(warehouse.findModifiedProducts().size(), modified.body().split("\"id\":").length - 1);
+        assertTrue(modified.body().contains("\"id\":4,"));
+    }
+
+    @Test
+    public void testUnexpectedErrorsGetAnErrorResponse() throws Exception {
+        serve(new Warehouse() {
+            @Override
+            public Product findProductById(int id) {
+                throw new IllegalStateException("Trasig lagring.");
+            }
+        });
+
+        // Act
+        HttpResponse<String> response = send("GET", "/products/1", null);
+
+        // Assert
+        assertEquals(500, response.statusCode());
+        assertTrue(response.body().startsWith("{\"error\":"));
+    }
+
+    @Test
+    public void testInvalidDataFoundWhileStreamingDoesNotChangeTheStatus() throws Exception {
+        serve(new ConcurrentWarehouse() {
+            @Override
+            public Stream<Product> streamProductsByCategory(Category category) {
+                return super.streamProductsByCategory(category).peek(product -> {
+                    if (product.id() == 3) {
+                        throw new IllegalArgumentException("Ogiltig produkt.");
+                    }
+                });
+            }
+        });
+
+        // Act
+        HttpResponse<String> response;
+        try {
+            response = send("GET", "/products?category=FRUIT", null);
+        } catch (IOException e) {
+            // The server may cut the connection before the chunked body ends.
+            return;
+        }
+
+        // Assert
+        assertEquals(200, response.statusCode());
+        assertFalse(response.body().contains("\"error\":"));
+    }
+
+    @Test
+    public void testConcurrentRequestsAreServed() throws Exception {
+        Warehouse warehouse = serve(new ConcurrentWarehouse());
+        List<Future<Integer>> responses = new ArrayList<>();
+
+        // Act
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 400; i++) {
+                int id = 100 + i;
+                responses.add(clients.submit(() -> send("PUT", "/products/" + id,
+                        "{\"name\": \"P" + id + "\", \"category\": \"DAIRY\", \"rating\": 5}").statusCode()));
+                responses.add(clients.submit(() -> send("GET", "/products?category=FRUIT", null).statusCode()));
+            }
+            for (Future<Integer> response : responses) {
+                assertEquals(200, (int) response.get());
+            }
+        }
+
+        // Assert
+        assertEquals(400, warehouse.filterProductsByCategory(Category.DAIRY).size());
+    }
+}
@@ -0,0 +1,32 @@
+package org.service;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Every kind of warehouse, for tests that must give the same answers on all of them.
+ */
+final class WarehouseKinds {
+
+    private WarehouseKinds() {
+    }
+
+    // Mapped and journaled warehouses get a new file in dir every time, so each starts out empty.
+    static List<Supplier<Warehouse>> all(Path dir) {
+        return List.of(
+                Warehouse::new,
+                ConcurrentWarehouse::new,
+                () -> new ShardedWarehouse(4),
+                ColumnarWarehouse::new,
+                () -> new OffHeapWarehouse(16),
+                () -> new MappedWarehouse(dir.resolve("warehouse-" + System.nanoTime() + ".db")),
+                () -> new JournaledWarehouse(dir.resolve("warehouse-" + System.nanoTime() + ".journal")));
+    }
+
+    static void close(Warehouse warehouse) throws Exception {
+        if (warehouse instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.service;
+
+import org.entities.Category;
+import org.entities.Product;
+import org.exceptions.ProductNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.metrics.Histogram;
+import org.metrics.HistogramSnapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarehouseStatsTest {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @Test
+    public void testCallsAndFailuresAreCounted() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+        warehouse.addProduct(new Product(2, "Pear", Category.FRUIT, 6, START, START));
+        warehouse.addProduct(new Product(3, "Steak", Category.MEAT, 5, START, START));
+        assertThrows(IllegalArgumentException.class, () -> warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START)));
+        warehouse.findProductById(1);
+        assertThrows(ProductNotFoundException.class, () -> warehouse.findProductById(42));
+
+        // Act
+        WarehouseStats stats = warehouse.stats();
+
+        // Assert
+        assertEquals(4, stats.of(WarehouseOperation.ADD_PRODUCT).calls());
+        assertEquals(1, stats.of(WarehouseOperation.ADD_PRODUCT).failures());
+        assertEquals(2, stats.of(WarehouseOperation.FIND_PRODUCT_BY_ID).calls());
+        assertEquals(1, stats.of(WarehouseOperation.FIND_PRODUCT_BY_ID).failures());
+        assertEquals(0, stats.of(WarehouseOperation.GET_PRODUCTS).calls());
+        assertNull(stats.of(WarehouseOperation.FIND_PRODUCT_BY_ID).resultSizes());
+        assertTrue(stats.of(WarehouseOperation.ADD_PRODUCT).latencyNanos().max() > 0);
+    }
+
+    @Test
+    public void testVerifiedProductsAreCountedOnce() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.verifyProduct(1, "Apple", Category.FRUIT, 8, START, START);
+        assertThrows(IllegalArgumentException.class, () -> warehouse.verifyProduct(1, "Apple", Category.FRUIT, 8, START, START));
+
+        // Act
+        WarehouseStats stats = warehouse.stats();
+
+        // Assert
+        assertEquals(2, stats.of(WarehouseOperation.VERIFY_PRODUCT).calls());
+        assertEquals(1, stats.of(WarehouseOperation.VERIFY_PRODUCT).failures());
+        assertEquals(0, stats.of(WarehouseOperation.ADD_PRODUCT).calls());
+        assertEquals(0, stats.of(WarehouseOperation.ADD_PRODUCT).failures());
+    }
+
+    @Test
+    public void testFilterResultSizesAreRecorded() {
+        Warehouse warehouse = new Warehouse();
+        for (int id = 1; id <= 10; id++) {
+            warehouse.addProduct(new Product(id, "P" + id, id <= 7 ? Category.FRUIT : Category.FISH, 5, START, START));
+        }
+
+        // Act
+        warehouse.filterProductsByCategory(Category.FRUIT);
+        warehouse.filterProductsByCategory(Category.FISH);
+        warehouse.filterProductsByCategory(Category.DAIRY);
+        HistogramSnapshot sizes = warehouse.stats().of(WarehouseOperation.FILTER_PRODUCTS_BY_CATEGORY).resultSizes();
+
+        // Assert
+        assertEquals(3, sizes.count());
+        assertEquals(3, sizes.p50());
+        assertEquals(7, sizes.max());
+        assertEquals(10 / 3.0, sizes.mean(), 1e-9);
+    }
+
+    @Test
+    public void testFormatListsOnlyCalledOperations() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.getProducts();
+
+        // Act
+        String table = warehouse.stats().format();
+
+        // Assert
+        assertTrue(table.contains("getProducts"));
+        assertFalse(table.contains("findProductById"));
+    }
+
+    @Test
+    public void testHistogramPercentilesStayWithinBucketError() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        // Act
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        // Assert
+        assertEquals(100_000, snapshot.count());
+        assertEquals(100_000, snapshot.max());
+        assertEquals(50_000, snapshot.p50(), 50_000 * 0.016);
+        assertEquals(99_000, snapshot.p99(), 99_000 * 0.016);
+        assertEquals(99_900, snapshot.p999(), 99_900 * 0.016);
+        assertTrue(snapshot.p50() >= 50_000, "Percentiles should never be under-reported.");
+    }
+
+    @Test
+    public void testConcurrentRecordingLosesNothing() throws InterruptedException {
+        Warehouse warehouse = new ConcurrentWarehouse();
+        warehouse.addProduct(new Product(1, "Apple", Category.FRUIT, 8, START, START));
+        int threads = 8;
+        int perThread = 10_000;
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            readers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    warehouse.findProductById(1);
+                }
+            }));
+        }
+
+        // Act
+        readers.forEach(Thread::start);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        // Assert
+        assertEquals((long) threads * perThread, warehouse.stats().of(WarehouseOperation.FIND_PRODUCT_BY_ID).calls());
+    }
+}
@@ -59,10 +59,26 @@ public class WarehouseTest {
         }, "The returned list should be immutable and throw an exception when adding.");
     }
 
+    @Test
+    public void testGetProductsIsPointInTimeSnapshot() {
+        // Arrange
+        List<Product> before = warehouse.getProducts();
+
+        // Act
+        warehouse.addProduct(new Product(6, "Potato", Category.VEGETABLE, 9, currentDate, currentDate));
+        warehouse.updateProductInWarehouse(new Product(1, "Updated Carrot", Category.VEGETABLE, 10, currentDate, currentDate));
+
+        // Assert
+        assertEquals(5, before.size(), "An earlier snapshot should not see later writes.");
+        assertEquals("Carrot", before.get(0).name(), "An earlier snapshot should keep the old version.");
+        assertEquals(6, warehouse.getProducts().size());
+        assertEquals("Updated Carrot", warehouse.getProducts().get(5).name());
+    }
+
     @Test
     public void testAddProductSuccessfully() {
         // Arrange
-        Product product = new Product(1, "Carrot", Category.VEGETABLE, 9, LocalDate.now(), LocalDate.now());
+        Product product = new Product(6, "Potato", Category.VEGETABLE, 9, LocalDate.now(), LocalDate.now());
 
         // Act
         warehouse.addProduct(product);
@@ -71,6 +87,17 @@ public class WarehouseTest {
         assertTrue(warehouse.getProducts().contains(product), "The product should be added to the warehouse.");
     }
 
+    @Test
+    public void testAddProductWithDuplicateId() {
+        Product duplicate = new Product(1, "Potato", Category.VEGETABLE, 9, LocalDate.now(), LocalDate.now());
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            warehouse.addProduct(duplicate);
+        }, "Adding a product with an existing ID should throw an IllegalArgumentException.");
+        assertEquals(5, warehouse.getProducts().size(), "The duplicate should not be added.");
+        assertEquals("Carrot", warehouse.findProductById(1).name(), "The original product should be kept.");
+    }
+
     @Test
     public void testAddNullProduct() {
         assertThrows(NullPointerException.class, () -> {
@@ -81,7 +108,7 @@ public class WarehouseTest {
     @Test
     public void testVerifyProductWithValidInput() {
         // Act:
-        warehouse.verifyProduct(3, "Tomato", Category.VEGETABLE, 9, LocalDate.now(), LocalDate.now());
+        warehouse.verifyProduct(6, "Tomato", Category.VEGETABLE, 9, LocalDate.now(), LocalDate.now());
 
         // Assert:
         assertEquals(6, warehouse.getProducts().size(), "One product should be added.");
@@ -198,6 +225,27 @@ public class WarehouseTest {
                 "Expected error message about invalid ID.");
     }
 
+    @Test
+    public void testAddProductFromUserInputDuplicateId() {
+        String simulatedInput = "1\n" +
+                "Potato\n" +
+                "2\n" +
+                "9\n";
+
+        System.setIn(new java.io.ByteArrayInputStream(simulatedInput.getBytes()));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+
+        // Act
+        warehouse.addProductFromUserInput();
+
+        // Assert
+        String output = outputStream.toString();
+        assertTrue(output.contains("Fel: Produkt med ID 1 finns redan."),
+                "Expected error message about duplicate ID.");
+    }
+
     @Test
     public void testAddProductFromUserInputInvalidName() {
         String simulatedInput = "1\n" +
@@ -287,9 +335,6 @@ public class WarehouseTest {
 
     @Test
     public void testFindProductByIdValid() {
-        Product product = new Product(1, "Carrot", Category.VEGETABLE, 9, LocalDate.now(), LocalDate.now());
-        warehouse.addProduct(product);
-
         // Act
         Product foundProduct = warehouse.findProductById(1);
 
@@ -309,9 +354,6 @@ public class WarehouseTest {
     @Test
     public void testFindProductByIdFromUserInputValid() {
         // Arrange
-        Product product = new Product(1, "Carrot", Category.VEGETABLE, 9, LocalDate.now(), LocalDate.now());
-        warehouse.addProduct(product);
-
         String simulatedInput = "1\n";
         System.setIn(new java.io.ByteArrayInputStream(simulatedInput.getBytes()));
 
@@ -455,6 +497,33 @@ public class WarehouseTest {
 
 
 
+    @Test
+    public void testFilterProductsByCategorySortedByName() {
+        warehouse.addProduct(new Product(6, "Banana", Category.FRUIT, 7, currentDate, currentDate));
+        warehouse.addProduct(new Product(7, "Cherry", Category.FRUIT, 6, currentDate, currentDate));
+        warehouse.addProduct(new Product(8, "Avocado", Category.FRUIT, 5, currentDate, currentDate));
+
+        // Act
+        List<Product> fruits = warehouse.filterProductsByCategory(Category.FRUIT);
+
+        // Assert
+        assertEquals(List.of("Apple", "Avocado", "Banana", "Cherry"), fruits.stream().map(Product::name).toList(),
+                "Fruits should be sorted by name.");
+    }
+
+    @Test
+    public void testFilterProductsByCategoryAfterCategoryChange() {
+        Product updatedProduct = new Product(1, "Carrot", Category.FRUIT, 9, currentDate, LocalDate.now());
+
+        // Act
+        warehouse.updateProductInWarehouse(updatedProduct);
+
+        // Assert
+        assertTrue(warehouse.filterProductsByCategory(Category.VEGETABLE).isEmpty(), "Carrot should have left VEGETABLE.");
+        assertEquals(List.of("Apple", "Carrot"), warehouse.filterProductsByCategory(Category.FRUIT).stream().map(Product::name).toList(),
+                "Carrot should be listed under FRUIT.");
+    }
+
     @Test
     public void testFilterProductsByCategoryFromUserInputErrors() {
         String simulatedInput = "10\n" +
@@ -542,6 +611,56 @@ public class WarehouseTest {
         assertTrue(output.contains("Felaktigt datumformat, vänligen ange datum i formatet ÅÅÅÅ-MM-DD."));
     }
 
+    @Test
+    public void testFindProductsFromCreatedDateOrderedByDate() {
+        warehouse.addProduct(new Product(6, "Old Cheese", Category.DAIRY, 7, currentDate.minusDays(30), currentDate));
+        warehouse.addProduct(new Product(7, "Older Cheese", Category.DAIRY, 7, currentDate.minusDays(60), currentDate));
+
+        // Act
+        List<Product> products = warehouse.findProductsFromCreatedDate(currentDate.minusDays(60));
+
+        // Assert
+        assertEquals(7, products.size(), "All products should be returned.");
+        assertEquals(7, products.get(0).id(), "The oldest product should come first.");
+        assertEquals(6, products.get(1).id(), "The second oldest product should come second.");
+        assertEquals(List.of(1, 2, 3, 4, 5), products.subList(2, 7).stream().map(Product::id).toList(),
+                "Products created on the same date should keep insertion order.");
+    }
+
+    @Test
+    public void testFindProductsCreatedBetween() {
+        warehouse.addProduct(new Product(6, "Old Cheese", Category.DAIRY, 7, currentDate.minusDays(30), currentDate));
+        warehouse.addProduct(new Product(7, "Older Cheese", Category.DAIRY, 7, currentDate.minusDays(60), currentDate));
+
+        // Act
+        List<Product> products = warehouse.findProductsCreatedBetween(currentDate.minusDays(60), currentDate.minusDays(30));
+
+        // Assert
+        assertEquals(1, products.size(), "Only products before the end date should be returned.");
+        assertEquals("Older Cheese", products.get(0).name());
+        assertTrue(warehouse.findProductsCreatedBetween(currentDate, currentDate).isEmpty(), "An empty range should return nothing.");
+        assertEquals(5, warehouse.findProductsCreatedBetween(currentDate, currentDate.plusDays(1)).size());
+    }
+
+    @Test
+    public void testFindProductsCreatedBetweenInvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            warehouse.findProductsCreatedBetween(currentDate, currentDate.minusDays(1));
+        }, "Slutdatumet får inte vara före startdatumet.");
+    }
+
+    @Test
+    public void testFindProductsByRating() {
+        // Act
+        List<Product> products = warehouse.findProductsByRating(9, 10);
+
+        // Assert
+        assertEquals(1, products.size(), "Only Carrot has a rating of 9 or higher.");
+        assertEquals("Carrot", products.get(0).name());
+        assertEquals(5, warehouse.findProductsByRating(0, 10).size());
+        assertThrows(IllegalArgumentException.class, () -> warehouse.findProductsByRating(5, 4));
+    }
+
     @Test
     public void TestfindAndPrintMismatchedProducts() {
         var oldDate = LocalDate.now().minusDays(9999);